@@ -0,0 +1,37 @@
+#!/bin/sh
+# Builds and launches the homework agent for the shortest time to its first search.
+#
+#   scripts/homework.sh build           compiles src/improved into build/homework.jar
+#   scripts/homework.sh train <input>   searches <input> once and dumps the loaded classes into build/homework.jsa
+#   scripts/homework.sh run [warmup]    runs the agent on input.txt in the current directory
+#
+# String concatenation is compiled inline, the default invokedynamic form spends over 100 ms bootstrapping
+# the concatenations printed by the first search. The class-data-sharing archive is a static one, built from
+# a class list: a dynamic archive (-XX:ArchiveClassesAtExit) made the search itself about twice as slow on JDK 17.
+# Class-data sharing needs the classes in a jar, it does not accept a directory on the class path.
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BUILD="$ROOT/build"
+JAR="$BUILD/homework.jar"
+ARCHIVE="$BUILD/homework.jsa"
+
+case "$1" in
+build)
+	rm -rf "$BUILD/classes"
+	mkdir -p "$BUILD/classes"
+	javac -XDstringConcat=inline -d "$BUILD/classes" "$ROOT"/src/improved/*.java
+	jar cf "$JAR" -C "$BUILD/classes" improved
+	;;
+train)
+	java -XX:DumpLoadedClassList="$BUILD/homework.classlist" -cp "$JAR" improved.startup "$2" search > /dev/null
+	java -Xshare:dump -XX:SharedClassListFile="$BUILD/homework.classlist" -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" > /dev/null
+	;;
+run)
+	exec java -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" improved.homework $2
+	;;
+*)
+	echo "Usage: $0 build | train <input> | run [warmup]"
+	exit 1
+	;;
+esac
@@ -0,0 +1,102 @@
+package checkers.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+
+import checkers.State;
+import improved.Action;
+import improved.Constants;
+import improved.Minimax;
+import improved.Position;
+import improved.StateBoard;
+import improved.TranspositionTable;
+
+// Searches the current position in the background until cancelled, publishing the top moves after every depth.
+// The transposition table outlives the searches, so after a move the search quickly gets back to the depth it had reached.
+public class Analysis
+{
+	public static final int TABLE_SIZE_BITS = 22;
+	public static final int MAX_DEPTH = 64;
+
+	public final SubmissionPublisher<SearchProgress> progress = new SubmissionPublisher<>();
+
+	private final TranspositionTable table = new TranspositionTable(TABLE_SIZE_BITS);
+	private final ExecutorService service = Executors.newSingleThreadExecutor(r ->
+	{
+		Thread thread = new Thread(r, "Analysis");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private Future<?> task = null;
+	private long key = 0;
+
+	// Restarts the search if the state changed since the last call, returns true if restarted
+	public boolean analyze(State state)
+	{
+		final StateBoard board = EngineAdapter.toStateBoard(state);
+		final long newKey = board.getZobristKey();
+		if (task != null && newKey == key)
+			return false;
+
+		stop();
+		key = newKey;
+		task = service.submit(() -> search(board, newKey));
+		return true;
+	}
+
+	public void stop()
+	{
+		if (task != null)
+			task.cancel(true);
+		task = null;
+	}
+
+	public boolean isCurrent(SearchProgress searchProgress)
+	{
+		return task != null && searchProgress.key == key;
+	}
+
+	private void search(StateBoard board, long key)
+	{
+		final List<? extends Action> actions = board.generate();
+		if (actions.isEmpty())
+			return;
+
+		final Position root = Position.of(board);
+		final double sign = root.isBlackTurn ? 1 : -1;
+		final long startTime = System.nanoTime();
+		final long startNodes = Minimax.getNodeCount();
+
+		// The actions are searched in the order of their values at the previous depth
+		final double[] values = new double[actions.size()];
+		final List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < actions.size(); i++)
+			order.add(i);
+
+		try
+		{
+			for (int depth = 1; depth <= MAX_DEPTH; depth++)
+			{
+				// A full window for every action, so all of their values are exact
+				for (final int i : order)
+					values[i] = sign * Minimax.searchValue(root.play(actions.get(i)), depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, table);
+				order.sort((a, b) -> Double.compare(values[b], values[a]));
+
+				final int best = order.get(0);
+				final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+				final List<String> principalVariation = EngineAdapter.getPrincipalVariation(table, root, actions.get(best), depth);
+				progress.submit(new SearchProgress(key, depth, values[best], actions.get(best), principalVariation, EngineAdapter.getTopMoves(actions, values), Minimax.getNodeCount() - startNodes, elapsed));
+			}
+		}
+		catch (final CancellationException e)
+		{
+			// The position changed or the analysis was turned off
+		}
+	}
+}
@@ -2,34 +2,35 @@ package checkers.gui;
 
 import java.io.FileWriter;
 import java.util.Optional;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import checkers.Agent;
 import checkers.BaseAction;
 import checkers.ChainJumpAction;
 import checkers.JumpAction;
 import checkers.MoveAction;
 import checkers.Pawn;
-import checkers.Problem;
 import checkers.State;
 import checkers.StateActions;
 import checkers.Stopwatch;
 import checkers.Team;
+import improved.Action;
+import improved.StateBoard;
 
 public class Checker
 {
 	public static final Team PLAYER_TEAM = Team.White;
 	public static final Team AGENT_TEAM = Team.Black;
 	public static final ExecutorService service = Executors.newSingleThreadExecutor();
+	public static final SubmissionPublisher<SearchProgress> SEARCH_PROGRESS = new SubmissionPublisher<>();
 	public static double PLAYER_TIME = 100;
 	public static double AGENT_TIME = 3;
 	public static double AGENT_PADDING_TIME = 0.1;
+	public static double AGENT_MOVE_TIME = 0.1;
 	public static State state = State.createInitial();
 
 	private static final String INPUT_FILENAME = "src/checkers/gui/input.txt";
@@ -67,87 +68,70 @@ public class Checker
 	private static double elapsed = 0.0;
 	private static final Stopwatch stopwatch2 = new Stopwatch();
 
-	public static void agentPlay()
+	// Starts the search in the background, its progress is published to SEARCH_PROGRESS after every depth
+	public static CompletableFuture<Action> agentPlay()
 	{
-		elapsed = 0.0;
-		// Given by master agent
+		// Given by master agent, so the position can be replayed by the homework agent
 		createInputFile();
-
-		Stopwatch stopwatch = new Stopwatch();
-
-		// My thing
-		final double readingProblemTime = 0.01;
-		final Problem problem = readProblem();
-		AGENT_TIME = problem.playTime - readingProblemTime;
 		System.out.println("Before Remaining: " + AGENT_TIME);
 
-		// My program starts here:
-		final Callable<String> myProgram = () ->
-		{
-			stopwatch2.start(Thread.currentThread().getId());
-			String output = Agent.solve(problem);
-			state = problem.state;
-			return output;
-		};
-
+		// Search with the improved bitboard engine on a copy of the state
+		final StateBoard board = EngineAdapter.toStateBoard(state);
+		final double moveTime = Math.min(AGENT_MOVE_TIME, AGENT_TIME - AGENT_PADDING_TIME);
 		final long timeOut = (long) ((AGENT_TIME - AGENT_PADDING_TIME) * 1000); // ms, also keep a padding of 0.1sec
-		Future<String> future = null;
-		try
+		return CompletableFuture.supplyAsync(() ->
 		{
-			future = service.submit(myProgram);
-			final String result = future.get(timeOut, TimeUnit.MILLISECONDS);
-
+			stopwatch2.start(Thread.currentThread().getId());
 			try
 			{
-				System.out.println("[AI - " + AGENT_TEAM + "]:\n\t" + result.replaceAll("\n", "\n\t"));
-				try (FileWriter writer = new FileWriter(OUTPUT_FILENAME))
-				{
-					writer.write(result);
-				}
+				return EngineAdapter.search(board, moveTime, SEARCH_PROGRESS::submit);
 			}
-			catch (Exception e)
+			finally
 			{
-				e.printStackTrace();
+				elapsed = stopwatch2.elapsedTime();
 			}
-		}
-		catch (final TimeoutException e)
+		}, service).orTimeout(timeOut, TimeUnit.MILLISECONDS);
+	}
+
+	// Plays the action found by agentPlay(), must be called on the FX thread
+	public static void applyAgentAction(Action action, Throwable error)
+	{
+		if (error instanceof TimeoutException || (error != null && error.getCause() instanceof TimeoutException))
 		{
 			System.err.println("Time ran out");
+			AGENT_TIME = 0;
+			return;
 		}
-		catch (InterruptedException e)
-		{
-			e.printStackTrace();
-		}
-		catch (ExecutionException e)
+
+		if (error != null)
 		{
-			e.printStackTrace();
+			error.printStackTrace();
+			return;
 		}
-		finally
+
+		if (action != null)
 		{
-			elapsed += stopwatch2.elapsedTime();
-			if (future != null)
-				future.cancel(true);
+			final String result = action.getText();
+			final StateBoard board = EngineAdapter.toStateBoard(state);
+			board.executeAction(action);
+			EngineAdapter.copyTo(board, state);
+
+			System.out.println("[AI - " + AGENT_TEAM + "]:\n\t" + result.replaceAll("\n", "\n\t"));
+			try (FileWriter writer = new FileWriter(OUTPUT_FILENAME))
+			{
+				writer.write(result);
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace();
+			}
 		}
 
-		elapsed += stopwatch.elapsedTime();
 		AGENT_TIME -= elapsed;
 		System.out.println("After Remaining: " + AGENT_TIME);
 		System.out.println("Elapsed: " + elapsed);
 	}
 
-	private static Problem readProblem()
-	{
-		try
-		{
-			return new Problem(INPUT_FILENAME);
-		}
-		catch (Exception e)
-		{
-			e.printStackTrace();
-			return null;
-		}
-	}
-
 	private static void createInputFile()
 	{
 		StringBuilder builder = new StringBuilder();
@@ -0,0 +1,230 @@
+package checkers.gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import checkers.GameState;
+import checkers.Pawn;
+import checkers.State;
+import checkers.Team;
+import improved.Action;
+import improved.ChainJumpAction;
+import improved.Constants;
+import improved.JumpAction;
+import improved.Minimax;
+import improved.MoveAction;
+import improved.PdnGame;
+import improved.Position;
+import improved.StateBoard;
+import improved.TranspositionTable;
+
+// Drives the GUI with the improved bitboard engine: converts between the Pawn[][] State and StateBoard
+public final class EngineAdapter
+{
+	private static final int TOP_MOVES = 3;
+
+	private EngineAdapter()
+	{}
+
+	public static StateBoard toStateBoard(State state)
+	{
+		final StateBoard board = new StateBoard();
+		for (int r = 0; r < 8; r++)
+		{
+			for (int c = 0; c < 8; c++)
+			{
+				final Pawn pawn = state.board[r][c];
+				if (pawn == null)
+					continue;
+
+				final long position = 1L << (r * 8 + c);
+				if (pawn.team == Team.Black)
+					board.blacks |= position;
+				else
+					board.whites |= position;
+				if (pawn.isKing)
+					board.kings |= position;
+			}
+		}
+
+		board.isBlackTurn = state.currentTurn == Team.Black;
+		board.plysSinceLastCrownOrCapture = state.plysSinceLastCrownOrCapture;
+		board.markAsDirty();
+		return board;
+	}
+
+	public static void copyTo(StateBoard board, State state)
+	{
+		for (int r = 0; r < 8; r++)
+		{
+			for (int c = 0; c < 8; c++)
+			{
+				final int i = r * 8 + c;
+				final boolean isKing = ((board.kings >> i) & 1L) != 0L;
+				if (((board.blacks >> i) & 1L) != 0L)
+					state.board[r][c] = new Pawn(isKing, Team.Black);
+				else if (((board.whites >> i) & 1L) != 0L)
+					state.board[r][c] = new Pawn(isKing, Team.White);
+				else
+					state.board[r][c] = null;
+			}
+		}
+
+		state.currentTurn = board.isBlackTurn ? Team.Black : Team.White;
+		state.plysSinceLastCrownOrCapture = board.plysSinceLastCrownOrCapture;
+	}
+
+	public static GameState getGameState(State state)
+	{
+		return toGameState(toStateBoard(state).getGameState());
+	}
+
+	public static GameState toGameState(improved.GameState gameState)
+	{
+		switch (gameState)
+		{
+			case Draw:
+				return GameState.Draw;
+			case BlackWin:
+				return GameState.BlackWin;
+			case WhiteWin:
+				return GameState.WhiteWin;
+			default:
+				return GameState.Ongoing;
+		}
+	}
+
+	// Static evaluation of the state for the given team, without searching
+	public static double evaluateState(State state, Team team)
+	{
+		return Minimax.searchValue(Position.of(toStateBoard(state)), 0, team == Team.Black, Long.MAX_VALUE);
+	}
+
+	// Iterative deepening until the time is up, keeping the action of the last completed depth
+	public static Action search(StateBoard board, double seconds)
+	{
+		return search(board, seconds, null);
+	}
+
+	// Same as above, also reporting every completed depth to the listener (if any) from the searching thread.
+	// The search runs on the shared transposition table, so the principal variation is read from it instead of searched again.
+	public static Action search(StateBoard board, double seconds, Consumer<SearchProgress> listener)
+	{
+		final List<? extends Action> actions = board.generate();
+		if (actions.isEmpty())
+			return null;
+		if (actions.size() == 1)
+			return actions.get(0);
+
+		final Position root = Position.of(board);
+		final double sign = root.isBlackTurn ? 1 : -1;
+		final TranspositionTable table = TranspositionTable.getShared();
+		table.nextGeneration();
+
+		final long startTime = System.nanoTime();
+		final long startNodes = Minimax.getNodeCount();
+		final long deadline = startTime + (long) (seconds * Constants.SEC_TO_NANO);
+		int best = 0;
+		try
+		{
+			for (int depth = 1; depth <= Constants.MAX_DEPTH; depth++)
+			{
+				// A full window for every action, so all of their values are exact. A depth cut by the deadline is discarded
+				final double[] values = new double[actions.size()];
+				int bestIndex = 0;
+				for (int i = 0; i < actions.size(); i++)
+				{
+					values[i] = sign * Minimax.searchValue(root.play(actions.get(i)), depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, table, deadline);
+					if (values[i] > values[bestIndex])
+						bestIndex = i;
+				}
+				best = bestIndex;
+
+				if (listener != null)
+				{
+					final List<String> principalVariation = getPrincipalVariation(table, root, actions.get(best), depth);
+					final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+					final List<String> topMoves = getTopMoves(actions, values);
+					listener.accept(new SearchProgress(root.getZobristKey(), depth, values[best], actions.get(best), principalVariation, topMoves, Minimax.getNodeCount() - startNodes, elapsed));
+				}
+			}
+		}
+		catch (final CancellationException e)
+		{
+			// Out of time, keep the action of the last complete depth
+		}
+
+		return actions.get(best);
+	}
+
+	// The expected line, following the best children stored in the table after the action
+	public static List<String> getPrincipalVariation(TranspositionTable table, Position root, Action action, int depth)
+	{
+		final List<String> principalVariation = new ArrayList<>();
+		principalVariation.add(PdnGame.toPdn(action));
+
+		Position position = root.play(action);
+		for (int ply = 1; ply < depth; ply++)
+		{
+			final long entry = table.probe(position.getZobristKey());
+			if (entry == TranspositionTable.MISS || TranspositionTable.getBestChild(entry) == TranspositionTable.NO_CHILD)
+				break;
+
+			final List<Position> children = position.children();
+			final int bestChild = TranspositionTable.getBestChild(entry);
+			if (bestChild >= children.size())
+				break;
+
+			principalVariation.add(PdnGame.toPdn(findAction(position, children.get(bestChild))));
+			position = children.get(bestChild);
+		}
+		return principalVariation;
+	}
+
+	// The best few actions with their values, best first
+	public static List<String> getTopMoves(List<? extends Action> actions, double[] values)
+	{
+		final Integer[] order = new Integer[actions.size()];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+
+		final List<String> topMoves = new ArrayList<>();
+		for (int i = 0; i < Math.min(order.length, TOP_MOVES); i++)
+			topMoves.add(String.format("%s (%+.2f)", PdnGame.toPdn(actions.get(order[i])), values[order[i]]));
+		return topMoves;
+	}
+
+	// The bitboard index the action starts from
+	public static int getFrom(Action action)
+	{
+		if (action instanceof MoveAction)
+			return ((MoveAction) action).from;
+		return ((ChainJumpAction) action).chain.get(0).from;
+	}
+
+	// The bitboard index the action ends at
+	public static int getTo(Action action)
+	{
+		if (action instanceof MoveAction)
+			return ((MoveAction) action).to;
+		final List<JumpAction> chain = ((ChainJumpAction) action).chain;
+		return chain.get(chain.size() - 1).to;
+	}
+
+	// The action of the position that leads to the child position
+	public static Action findAction(Position position, Position child)
+	{
+		final List<? extends Action> actions = position.toStateBoard().generate();
+		for (final Action action : actions)
+		{
+			final Position next = position.play(action);
+			if (next.blacks == child.blacks && next.whites == child.whites && next.kings == child.kings)
+				return action;
+		}
+		return actions.get(0);
+	}
+}
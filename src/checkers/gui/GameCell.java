@@ -15,12 +15,14 @@ public class GameCell extends StackPane
 	public static final Color LIGHT_CELL_COLOR = Color.rgb(232, 217, 188);
 	public static final Color DARK_CELL_COLOR = Color.rgb(168, 118, 87);
 	public static final Color SELECTION_COLOR = Color.rgb(214, 212, 66);
+	public static final Color HINT_COLOR = Color.rgb(102, 187, 106);
 
 	private static GameCell selectedCell = null;
 
 	public final GamePane gamePane;
 	public final Rectangle rect;
 	public final Rectangle selectionRect;
+	public final Rectangle hintRect;
 	public final Circle circle;
 	public final Text text;
 	public final int row;
@@ -32,13 +34,14 @@ public class GameCell extends StackPane
 
 		rect = new Rectangle(CELL_SIZE, CELL_SIZE, (isDarkCell) ? DARK_CELL_COLOR : LIGHT_CELL_COLOR);
 		selectionRect = new Rectangle(CELL_SIZE, CELL_SIZE, SELECTION_COLOR);
+		hintRect = new Rectangle(CELL_SIZE, CELL_SIZE, HINT_COLOR);
 		circle = new Circle(CIRCLE_SIZE / 2, CIRCLE_SIZE / 2, CIRCLE_SIZE / 2, Color.TRANSPARENT);
 		text = new Text("");
 
 		this.row = row;
 		this.column = column;
 
-		getChildren().addAll(rect, selectionRect, circle, text);
+		getChildren().addAll(rect, hintRect, selectionRect, circle, text);
 
 		setup();
 	}
@@ -49,6 +52,8 @@ public class GameCell extends StackPane
 		if (selectedCell == this)
 			selectionRect.setOpacity(1);
 
+		hintRect.setOpacity(gamePane.isHinted(row, column) ? 0.6 : 0);
+
 		Pawn pawn = Checker.state.board[row][column];
 		char c = (pawn == null) ? '.' : pawn.getBoardChar();
 		if (c == '.')
@@ -97,6 +102,10 @@ public class GameCell extends StackPane
 		selectionRect.setOpacity(0);
 		selectionRect.setId("board-cell");
 
+		hintRect.setMouseTransparent(true);
+		hintRect.setOpacity(0);
+		hintRect.setId("board-cell");
+
 		circle.setMouseTransparent(true);
 
 		text.setFill(Color.TRANSPARENT);
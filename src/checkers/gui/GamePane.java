@@ -1,9 +1,9 @@
 package checkers.gui;
 
 import checkers.GameState;
-import checkers.Minimax;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.layout.GridPane;
 import javafx.util.Duration;
 
@@ -13,6 +13,10 @@ public class GamePane extends GridPane
 	private final GameCell[][] cells;
 	private final Timeline agentTimeline;
 	private final Timeline playerTimeline;
+	private boolean isAgentThinking = false;
+	private final Analysis analysis = new Analysis();
+	private int hintFrom = -1;
+	private int hintTo = -1;
 
 	public GamePane(RootPane rootPane)
 	{
@@ -20,6 +24,8 @@ public class GamePane extends GridPane
 		cells = new GameCell[8][8];
 		setupBoard();
 		update();
+		Checker.SEARCH_PROGRESS.subscribe(new SearchProgressSubscriber(progress -> rootPane.searchLabel.setText(progress.toString())));
+		analysis.progress.subscribe(new SearchProgressSubscriber(this::showAnalysis));
 
 		agentTimeline = new Timeline();
 		agentTimeline.setCycleCount(Timeline.INDEFINITE);
@@ -35,10 +41,58 @@ public class GamePane extends GridPane
 	public void update()
 	{
 		rootPane.turnLabel.setText(Checker.state.currentTurn + "'s turn.");
-		rootPane.stateValueLabel.setText("State Value: " + Minimax.evaluateState(Checker.state, Checker.AGENT_TEAM, 0));
+		rootPane.stateValueLabel.setText("State Value: " + EngineAdapter.evaluateState(Checker.state, Checker.AGENT_TEAM));
 		rootPane.agentTimeLabel.setText("Agent Time ( " + Checker.AGENT_TEAM + "): " + Checker.AGENT_TIME);
 		rootPane.playerTimeLabel.setText("Player Time ( " + Checker.PLAYER_TEAM + "): " + Checker.PLAYER_TIME);
 
+		updateAnalysis();
+		for (int r = 0; r < 8; r++)
+		{
+			for (int c = 0; c < 8; c++)
+			{
+				cells[r][c].update();
+			}
+		}
+	}
+
+	public boolean isHinted(int row, int column)
+	{
+		final int i = row * 8 + column;
+		return i == hintFrom || i == hintTo;
+	}
+
+	// Analyzes while the player thinks, restarting whenever the state changes
+	private void updateAnalysis()
+	{
+		final boolean isPlayerThinking = Checker.state.currentTurn == Checker.PLAYER_TEAM && EngineAdapter.getGameState(Checker.state) == GameState.Ongoing;
+		if (rootPane.analysisButton.isSelected() && isPlayerThinking)
+		{
+			if (analysis.analyze(Checker.state))
+				clearHint();
+		}
+		else
+		{
+			analysis.stop();
+			clearHint();
+		}
+	}
+
+	private void clearHint()
+	{
+		hintFrom = -1;
+		hintTo = -1;
+		rootPane.analysisLabel.setText("");
+	}
+
+	private void showAnalysis(SearchProgress progress)
+	{
+		// Results of a position that is no longer analyzed
+		if (!analysis.isCurrent(progress))
+			return;
+
+		hintFrom = EngineAdapter.getFrom(progress.bestAction);
+		hintTo = EngineAdapter.getTo(progress.bestAction);
+		rootPane.analysisLabel.setText(progress + "\nTop moves: " + String.join(", ", progress.topMoves));
 		for (int r = 0; r < 8; r++)
 		{
 			for (int c = 0; c < 8; c++)
@@ -76,7 +130,7 @@ public class GamePane extends GridPane
 			update();
 		}
 
-		GameState gameState = Checker.state.getGameState();
+		GameState gameState = EngineAdapter.getGameState(Checker.state);
 		if (gameState.isOver())
 		{
 			playerTimeline.stop();
@@ -101,7 +155,7 @@ public class GamePane extends GridPane
 
 	private void agentPlay()
 	{
-		GameState gameState = Checker.state.getGameState();
+		GameState gameState = EngineAdapter.getGameState(Checker.state);
 		if (gameState.isOver())
 		{
 			agentTimeline.stop();
@@ -123,12 +177,16 @@ public class GamePane extends GridPane
 			return;
 		}
 
-		if (Checker.state.currentTurn == Checker.AGENT_TEAM)
+		// The search runs in the background so the board keeps rendering, and the move is played once it arrives
+		if (Checker.state.currentTurn == Checker.AGENT_TEAM && !isAgentThinking)
 		{
-			agentTimeline.pause();
-			Checker.agentPlay();
-			update();
-			agentTimeline.play();
+			isAgentThinking = true;
+			Checker.agentPlay().whenComplete((action, error) -> Platform.runLater(() ->
+			{
+				Checker.applyAgentAction(action, error);
+				isAgentThinking = false;
+				update();
+			}));
 		}
 	}
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package checkers.gui;
 
 import javafx.scene.control.Label;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 
@@ -10,6 +11,9 @@ public class RootPane extends BorderPane
 	public final Label stateValueLabel;
 	public final Label agentTimeLabel;
 	public final Label playerTimeLabel;
+	public final Label searchLabel;
+	public final ToggleButton analysisButton;
+	public final Label analysisLabel;
 	public final GamePane gamePane;
 
 	public RootPane()
@@ -22,10 +26,15 @@ public class RootPane extends BorderPane
 		stateValueLabel = new Label("State Value: ??");
 		agentTimeLabel = new Label("Agent Time: ??");
 		playerTimeLabel = new Label("Player Time: ??");
+		searchLabel = new Label("");
+		analysisButton = new ToggleButton("Analysis");
+		analysisLabel = new Label("");
 		gamePane = new GamePane(this);
 
 		//VBox vbox = new VBox(turnLabel, stateValueLabel, agentTimeLabel, playerTimeLabel);
-		VBox vbox = new VBox(turnLabel);
+		analysisButton.setOnAction(e -> gamePane.update());
+
+		VBox vbox = new VBox(turnLabel, searchLabel, analysisButton, analysisLabel);
 		setTop(vbox);
 		setCenter(gamePane);
 	}
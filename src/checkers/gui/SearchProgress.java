@@ -0,0 +1,41 @@
+package checkers.gui;
+
+import java.util.List;
+
+import improved.Action;
+
+// A snapshot of the engine's search, published after every completed depth. Scores are from the point of view of the player to move
+public final class SearchProgress
+{
+	public final long key;
+	public final int depth;
+	public final double score;
+	public final Action bestAction;
+	public final List<String> principalVariation;
+	public final List<String> topMoves;
+	public final long nodes;
+	public final double elapsed;
+
+	public SearchProgress(long key, int depth, double score, Action bestAction, List<String> principalVariation, List<String> topMoves, long nodes, double elapsed)
+	{
+		this.key = key;
+		this.depth = depth;
+		this.score = score;
+		this.bestAction = bestAction;
+		this.principalVariation = principalVariation;
+		this.topMoves = topMoves;
+		this.nodes = nodes;
+		this.elapsed = elapsed;
+	}
+
+	public double getNodesPerSecond()
+	{
+		return elapsed > 0 ? nodes / elapsed : 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("Depth %d, score %.2f, %,d nodes (%,.0f/s), PV %s", depth, score, nodes, getNodesPerSecond(), String.join(" ", principalVariation));
+	}
+}
@@ -0,0 +1,53 @@
+package checkers.gui;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+// Hands the latest search progress to the FX thread. Updates arriving faster than the FX thread renders are batched, only the latest is shown
+public class SearchProgressSubscriber implements Flow.Subscriber<SearchProgress>
+{
+	private final Consumer<SearchProgress> display;
+	private final AtomicReference<SearchProgress> latest = new AtomicReference<>();
+	private final AtomicBoolean isUpdatePending = new AtomicBoolean(false);
+
+	public SearchProgressSubscriber(Consumer<SearchProgress> display)
+	{
+		this.display = display;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription)
+	{
+		subscription.request(Long.MAX_VALUE);
+	}
+
+	@Override
+	public void onNext(SearchProgress progress)
+	{
+		latest.set(progress);
+
+		// Only one pending update at a time, it will pick up whatever arrived in the meantime
+		if (isUpdatePending.compareAndSet(false, true))
+		{
+			Platform.runLater(() ->
+			{
+				isUpdatePending.set(false);
+				display.accept(latest.get());
+			});
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable)
+	{
+		throwable.printStackTrace();
+	}
+
+	@Override
+	public void onComplete()
+	{}
+}
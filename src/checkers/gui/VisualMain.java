@@ -12,6 +12,7 @@ public class VisualMain extends Application
 	{
 		launch(args);
 		Checker.service.shutdownNow();
+		Checker.SEARCH_PROGRESS.close();
 	}
 
 	@Override
@@ -9,10 +9,12 @@ package improved;
  * <li>Undoing the action via <code>undo(StateBoard)</code>.</li>
  * <li>Checking legality of an action via <code>isLegal(StateBoard)</code>.</li>
  * <li>Retrieving the action's textual representation via <code>getText()</code>.</li>
+ * <li>Deriving the resulting immutable position via <code>derive(Position)</code>.</li>
  * </ul>
  * 
  * @author Mohammad Alali
  * @see StateBoard
+ * @see Position
  */
 public interface Action
 {
@@ -36,4 +38,14 @@ public interface Action
 	 * @see StateBoard
 	 */
 	public abstract void undo(StateBoard board);
+
+	/**
+	 * Derives the position that results from applying the action to the specified position, without modifying either of them. Unlike {@link #execute(StateBoard)}, no snapshot is stored in the action,
+	 * so it is safe to use concurrently. This will <b>not</b> switch the turn.
+	 * 
+	 * @param position the position to apply this action to
+	 * @return the resulting position
+	 * @see Position#play(Action)
+	 */
+	public abstract Position derive(Position position);
 }
\ No newline at end of file
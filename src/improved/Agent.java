@@ -1,6 +1,8 @@
 package improved;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.function.DoubleSupplier;
 
 /**
  * The <code>Agent</code> class solves a given <code>Problem</code> and returns the textual representation of the action to perform.
@@ -31,14 +33,34 @@ public final class Agent
 		else
 		{
 			CalibrationData.readFromFile();
+			EvaluationWeights.readFromFile();
 			PlayData.readFromFile(problem);
-			final String output = gameMove(problem);
+			final String output = gameMove(problem, PlayData.initialized ? PlayData.plysSinceStart : -1, AgentTimer::getRemainingTime, true);
 			PlayData.writeToFile();
+			if (Constants.TRACE_SEARCH)
+				writeTrace();
 
 			return output;
 		}
 	}
 
+	/**
+	 * Solves the given <code>problem</code> like {@link #solve(Problem)}, but without reading or writing any files, without printing the search, and with its own clock, so independent problems can
+	 * be solved concurrently. The data files are expected to have been read already.
+	 * 
+	 * @param problem        the problem to solve
+	 * @param plysSinceStart the number of plys since the start of the game, for the opening moves, or -1 if unknown
+	 * @param remainingTime  the remaining play time of the problem in seconds, measured by its own clock
+	 * @return the textual representation of the action to perform
+	 * @see BatchSolver
+	 */
+	public static String solve(Problem problem, int plysSinceStart, DoubleSupplier remainingTime)
+	{
+		if (problem.agentType == AgentType.Single)
+			return singleMove(problem);
+		return gameMove(problem, plysSinceStart, remainingTime, false);
+	}
+
 	/**
 	 * Solves the given single-mode problem. If the problem contains no valid actions, this method will fail.
 	 * 
@@ -55,7 +77,7 @@ public final class Agent
 	 * @param problem the problem to solve
 	 * @return the textual representation of the move action to perform
 	 */
-	private static String singleMove(Problem problem)
+	static String singleMove(Problem problem)
 	{
 		// Return the first jump we find (will be longest chain)
 		final List<ChainJumpAction> jumpActions = problem.board.getJumpActions();
@@ -83,15 +105,18 @@ public final class Agent
 	 * </ol>
 	 * </p>
 	 * 
-	 * @param problem the problem to solve
+	 * @param problem        the problem to solve
+	 * @param plysSinceStart the number of plys since the start of the game, or -1 if unknown
+	 * @param remainingTime  the remaining play time in seconds
+	 * @param isVerbose      whether to print the search
 	 * @return the textual representation of the move action to perform
 	 */
-	private static String gameMove(Problem problem)
+	private static String gameMove(Problem problem, int plysSinceStart, DoubleSupplier remainingTime, boolean isVerbose)
 	{
 		final StateBoard board = problem.board;
 
 		// Optimization: use an opening move to save time
-		final String openingMove = getOpeningMove(board);
+		final String openingMove = getOpeningMove(board, plysSinceStart);
 		if (openingMove != null)
 			return openingMove;
 
@@ -103,17 +128,20 @@ public final class Agent
 			return jumpActions.get(0).getText();
 
 		// Optimization: extreme crunch so play anything!
-		if (AgentTimer.getRemainingTime() <= Constants.URGENCY_TIME)
+		if (remainingTime.getAsDouble() <= Constants.URGENCY_TIME)
 			return singleMove(problem);
 
 		Action bestAction = null;
-		final int maxDepth = AgentTimer.getSuggestedMaxDepth(board);
+		final int maxDepth = AgentTimer.getSuggestedMaxDepth(board, remainingTime.getAsDouble());
 		for (int depth = 0; depth <= maxDepth; depth++)
 		{
-			final Action action = Minimax.search(board, board.isBlackTurn, depth);
+			final int threads = Constants.USE_COPY_MAKE_SEARCH ? Minimax.getSearchThreads() : 1;
+			final long deadline = AgentTimer.getDeadline(remainingTime.getAsDouble(), Constants.URGENCY_TIME, threads);
+			final Action action = Constants.USE_COPY_MAKE_SEARCH ? Minimax.searchCopyMake(board, board.isBlackTurn, depth, deadline, isVerbose)
+					: Minimax.search(board, board.isBlackTurn, depth, deadline, isVerbose);
 			if (action != null)
 				bestAction = action;
-			if (AgentTimer.getRemainingTime() <= Constants.URGENCY_TIME)
+			if (remainingTime.getAsDouble() <= Constants.URGENCY_TIME)
 				break;
 		}
 
@@ -124,13 +152,27 @@ public final class Agent
 		return bestAction.getText();
 	}
 
-	private static String getOpeningMove(StateBoard board)
+	/**
+	 * Writes the search trace of the game move to {@link Constants#FILENAME_TRACE}. A trace that cannot be written is reported, but does not affect the move.
+	 * 
+	 * @see SearchTrace
+	 */
+	private static void writeTrace()
 	{
-		if (!PlayData.initialized)
-			return null;
+		try
+		{
+			SearchTrace.writeToFile(Constants.FILENAME_TRACE);
+		}
+		catch (final IOException e)
+		{
+			System.err.println("Could not write the search trace: " + e.getMessage());
+		}
+	}
 
+	private static String getOpeningMove(StateBoard board, int plysSinceStart)
+	{
 		// The first move for Black
-		if (PlayData.plysSinceStart == 0)
+		if (plysSinceStart == 0)
 		{
 			// Use the "Old Faithful" opening Move for Black
 			if (board.isBlackTurn)
@@ -143,7 +185,7 @@ public final class Agent
 			}
 		}
 		// The first move for White
-		else if (PlayData.plysSinceStart == 1)
+		else if (plysSinceStart == 1)
 		{
 			// Use a popular response to whatever opening move Black played
 			// There are 7 responses in total to Black
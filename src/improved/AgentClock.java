@@ -0,0 +1,53 @@
+package improved;
+
+/**
+ * The <code>AgentClock</code> enum represents the clock the <code>AgentTimer</code> spends the play time by.
+ *
+ * @author Mohammad Alali
+ * @see AgentTimer
+ * @see Constants#AGENT_CLOCK
+ */
+public enum AgentClock
+{
+	/**
+	 * The elapsed real time, as measured by {@link System#nanoTime()}. Has the textual parsing representation <i>WALL</i>.
+	 */
+	Wall("WALL"),
+
+	/**
+	 * The CPU time of the process's threads, as measured by {@link java.lang.management.ThreadMXBean}. Time the process spends descheduled on a loaded machine is not counted. Has the textual parsing
+	 * representation <i>CPU</i>.
+	 */
+	Cpu("CPU");
+
+	/**
+	 * The textual parsing representation of the <code>AgentClock</code>.
+	 */
+	private final String parseText;
+
+	/**
+	 * Creates an <code>AgentClock</code> enum with the specified parse text.
+	 *
+	 * @param parseText the text that when parsed returns this <code>AgentClock</code> value
+	 */
+	private AgentClock(String parseText)
+	{
+		this.parseText = parseText;
+	}
+
+	/**
+	 * Parses the given string into its given <code>AgentClock</code> value. The only valid strings are <i>WALL</i> and <i>CPU</i>; it is cap-sensitive.
+	 *
+	 * @param str string to parse
+	 * @return the <code>AgentClock</code> value, or null if invalid string
+	 */
+	public static AgentClock parse(String str)
+	{
+		if (Wall.parseText.equals(str))
+			return Wall;
+		else if (Cpu.parseText.equals(str))
+			return Cpu;
+		else
+			return null;
+	}
+}
@@ -1,4 +1,6 @@
 package improved;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 
 /**
  * The <code>AgentTimer</code> class solves a given <code>Problem</code> and returns the textual representation of the action to perform.
@@ -19,12 +21,29 @@ public final class AgentTimer
 	private static Problem problem = null;
 	private static long startTime = 0;
 
+	// The CPU clock, only loaded when configured since the management classes slow down the startup
+	private static ThreadMXBean threads = null;
+	private static long startCpuTime = 0;
+	private static long cpuTime = 0;
+	private static long cpuSampleTime = 0;
+
 	/**
-	 * Starts the time. Preferably called on the program's startup.
+	 * Starts the time. Preferably called on the program's startup. The time is measured by the clock of {@link Constants#AGENT_CLOCK}.
 	 */
 	public static void start()
 	{
 		startTime = System.nanoTime();
+		if (Constants.AGENT_CLOCK == AgentClock.Cpu)
+		{
+			if (threads == null)
+			{
+				threads = ManagementFactory.getThreadMXBean();
+				threads.setThreadCpuTimeEnabled(true);
+			}
+			startCpuTime = getThreadsCpuTime();
+			cpuTime = 0;
+			cpuSampleTime = System.nanoTime();
+		}
 	}
 
 	/**
@@ -45,7 +64,81 @@ public final class AgentTimer
 	 */
 	public static double getRemainingTime()
 	{
-		return problem.playTime - (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+		return problem.playTime - getElapsedTime();
+	}
+
+	/**
+	 * Calculates the time elapsed since {@link #start()}, in seconds, by the clock of {@link Constants#AGENT_CLOCK}.
+	 * 
+	 * <p>
+	 * The CPU time is summed over all threads of the process, so the searching threads of a parallel search all count. It is only measured every {@link Constants#CPU_CLOCK_INTERVAL} seconds, and
+	 * extrapolated by the real time in between.
+	 * </p>
+	 * 
+	 * @return the elapsed time in seconds
+	 */
+	public static double getElapsedTime()
+	{
+		final long now = System.nanoTime();
+		if (Constants.AGENT_CLOCK == AgentClock.Wall)
+			return (now - startTime) * Constants.NANO_TO_SEC;
+
+		if ((now - cpuSampleTime) * Constants.NANO_TO_SEC >= Constants.CPU_CLOCK_INTERVAL)
+		{
+			cpuTime = getThreadsCpuTime() - startCpuTime;
+			cpuSampleTime = now;
+		}
+		return (cpuTime + (now - cpuSampleTime)) * Constants.NANO_TO_SEC;
+	}
+
+	/**
+	 * Calculates the {@link System#nanoTime()} at which the remaining time reaches the specified <code>reserve</code>, for searches that check a deadline rather than the remaining time. With the CPU
+	 * clock, the specified number of threads are assumed to search the whole time, so together they cannot spend more than the remaining time before the deadline.
+	 * 
+	 * @param reserve the time to keep, in seconds
+	 * @param threads the number of threads searching until the deadline
+	 * @return the deadline
+	 */
+	public static long getDeadline(double reserve, int threads)
+	{
+		return getDeadline(getRemainingTime(), reserve, threads);
+	}
+
+	/**
+	 * Calculates the {@link System#nanoTime()} at which the specified remaining time reaches the specified <code>reserve</code>, as {@link #getDeadline(double, int)} does for the remaining time of
+	 * the agent.
+	 * 
+	 * @param remainingTime the remaining time in seconds
+	 * @param reserve       the time to keep, in seconds
+	 * @param threads       the number of threads searching until the deadline
+	 * @return the deadline
+	 */
+	public static long getDeadline(double remainingTime, double reserve, int threads)
+	{
+		final double time = remainingTime - reserve;
+		if (Constants.AGENT_CLOCK == AgentClock.Wall)
+			return System.nanoTime() + (long) (time * Constants.SEC_TO_NANO);
+		return System.nanoTime() + (long) (time / threads * Constants.SEC_TO_NANO);
+	}
+
+	/**
+	 * Sums the CPU time of all live threads of the process. Threads that ended since {@link #start()} are no longer counted.
+	 * 
+	 * @return the CPU time in nanoseconds
+	 */
+	private static long getThreadsCpuTime()
+	{
+		final long[] ids = threads.getAllThreadIds();
+		final long[] times = (threads instanceof com.sun.management.ThreadMXBean) ? ((com.sun.management.ThreadMXBean) threads).getThreadCpuTime(ids) : null;
+
+		long total = 0;
+		for (int i = 0; i < ids.length; i++)
+		{
+			final long time = (times != null) ? times[i] : threads.getThreadCpuTime(ids[i]);
+			if (time > 0)
+				total += time;
+		}
+		return total;
 	}
 
 	/**
@@ -53,7 +146,7 @@ public final class AgentTimer
 	 * <p>
 	 * Algorithm:
 	 * <ol>
-	 * <li>If remaining time is short (less than {@link Constants#CRUNCH_TIME}), then return a depth based on <code>CalibrationData</code> that only uses up {@link Constants#CRUNCH_ALLOWANCE} percent of
+	 * <li>If remaining time is short (less than {@link Constants#CRUNCH_TIME}), then return a depth based on the <code>CalibrationData</code> of the board's phase that only uses up {@link Constants#CRUNCH_ALLOWANCE} percent of
 	 * the remaining time, up to a maximum depth of {@link Constants#MAX_DEPTH}. If no <code>CalibrationData</code> was found, it will revert to the max depth.</li>
 	 * <li>Otherwise, use the number of pieces in the board as a guide on how deep one can go. Less pieces = higher depth. This is controlled by {@link Constants#MIN_DEPTH}, {@link Constants#MAX_DEPTH},
 	 * and {@link Constants#DEPTH_FACTOR}. </il>
@@ -67,8 +160,22 @@ public final class AgentTimer
 	 */
 	public static int getSuggestedMaxDepth(StateBoard board)
 	{
-		if (getRemainingTime() <= Constants.CRUNCH_TIME)
-			return getCrunchDepth();
+		return getSuggestedMaxDepth(board, getRemainingTime());
+	}
+
+	/**
+	 * Calculates a max depth for the <code>Minimax</code> search with the specified remaining time, rather than the remaining time of the agent. The algorithm is described in
+	 * {@link #getSuggestedMaxDepth(StateBoard)}.
+	 * 
+	 * @param board         the current <code>board</code> the agent is solving
+	 * @param remainingTime the remaining time in seconds
+	 * @return the suggested max depth
+	 * @see Agent#solve(Problem, int, java.util.function.DoubleSupplier)
+	 */
+	public static int getSuggestedMaxDepth(StateBoard board, double remainingTime)
+	{
+		if (remainingTime <= Constants.CRUNCH_TIME)
+			return getCrunchDepth(board, remainingTime);
 
 		final int pieces = Long.bitCount(board.whites | board.blacks);
 		final int maxDepth = clamp((int) (30 - pieces * Constants.DEPTH_FACTOR), Constants.MIN_DEPTH, Constants.MAX_DEPTH); // Has lookahead of 10 to 20
@@ -76,22 +183,32 @@ public final class AgentTimer
 	}
 
 	/**
-	 * Returns a depth that accomodates for the severe time constraints imposed.
+	 * Returns a depth that accomodates for the severe time constraints imposed. The depth is picked from the <code>CalibrationData</code> of the phase of the given <code>board</code>: the deepest one
+	 * whose mean time, plus {@link Constants#CRUNCH_CONFIDENCE} standard deviations, fits in {@link Constants#CRUNCH_ALLOWANCE} percent of the remaining time.
 	 * 
+	 * @param board         the current <code>board</code> the agent is solving
+	 * @param remainingTime the remaining time in seconds
 	 * @return a time-saving depth
+	 * @see CalibrationData#getPhase(StateBoard)
 	 */
-	private static int getCrunchDepth()
+	private static int getCrunchDepth(StateBoard board, double remainingTime)
 	{
 		if (!CalibrationData.initialized)
 			return Constants.CRUNCH_MAX_DEPTH;
 
-		// We want a depth of only 20% of the remaining time, max depth of 7.
-		final double allowance = getRemainingTime() * Constants.CRUNCH_ALLOWANCE;
+		// Phases that were never sampled have nothing to go by
+		final int phase = CalibrationData.getPhase(board);
+		if (CalibrationData.samples[phase] == 0)
+			return Constants.CRUNCH_MAX_DEPTH;
+
+		// We want a depth of only 20% of the remaining time, max depth of 5.
+		final double allowance = remainingTime * Constants.CRUNCH_ALLOWANCE;
+		final double[] means = CalibrationData.means[phase];
+		final double[] variances = CalibrationData.variances[phase];
 		int bestDepth = 0;
-		int size = CalibrationData.depthTimes.length;
-		for (int i = 0; i < size; i++)
+		for (int i = 0; i < means.length; i++)
 		{
-			if (CalibrationData.depthTimes[i] > allowance)
+			if (means[i] + Constants.CRUNCH_CONFIDENCE * Math.sqrt(variances[i]) > allowance)
 				break;
 			bestDepth = i;
 		}
@@ -0,0 +1,224 @@
+package improved;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The <code>BatchSolver</code> class solves a directory tree of test cases concurrently, one case per worker thread. Every directory with an {@link Constants#FILENAME_INPUT} is a case: its
+ * {@link Constants#FILENAME_OUTPUT} is written next to it, and compared with its {@link Constants#FILENAME_SOLUTION} if there is one.
+ *
+ * <p>
+ * Every case is solved by {@link Agent#solve(Problem, int, java.util.function.DoubleSupplier)}, the same path the homework takes, with the case's own clock instead of <code>AgentTimer</code>.
+ * Cases never share a board or a clock, so throughput scales with the number of workers. A case has no <code>PlayData</code> file of its own, so it is solved as the first move of the agent, as the
+ * homework does without one, opening moves included.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see Agent
+ * @see PlayData#getFirstPly(Problem)
+ */
+public final class BatchSolver
+{
+	/**
+	 * The number of cases solved at once.
+	 */
+	private final int threads;
+
+	/**
+	 * Creates a batch solver.
+	 *
+	 * @param threads the number of cases solved at once
+	 */
+	public BatchSolver(int threads)
+	{
+		this.threads = threads;
+	}
+
+	/**
+	 * Finds the input files in the specified directory tree.
+	 *
+	 * @param root the root of the directory tree
+	 * @return the paths of the input files, sorted
+	 * @throws IOException if the directory tree cannot be read
+	 */
+	public static List<Path> findCases(Path root) throws IOException
+	{
+		try (final Stream<Path> paths = Files.walk(root))
+		{
+			return paths.filter(path -> path.getFileName().toString().equals(Constants.FILENAME_INPUT) && Files.isRegularFile(path)).sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Solves the specified cases and prints the cases that failed or did not match their solution, followed by the totals, the throughput and the percentiles of the time per case.
+	 *
+	 * @param inputs the paths of the input files
+	 * @return true if every case was solved and matched its solution, if it had one
+	 * @throws InterruptedException if interrupted while waiting for a case
+	 */
+	public boolean run(List<Path> inputs) throws InterruptedException
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CompletionService<CaseResult> cases = new ExecutorCompletionService<>(executor);
+
+		final long startTime = System.nanoTime();
+		final double[] times = new double[inputs.size()];
+		int matched = 0;
+		int mismatched = 0;
+		int unchecked = 0;
+		int failed = 0;
+		try
+		{
+			for (final Path input : inputs)
+				cases.submit(() -> solveCase(input));
+
+			for (int i = 0; i < inputs.size(); i++)
+			{
+				final CaseResult result;
+				try
+				{
+					result = cases.take().get();
+				}
+				catch (final ExecutionException e)
+				{
+					throw new IllegalStateException("A case failed", e.getCause());
+				}
+
+				times[i] = result.time;
+				if (result.error != null)
+				{
+					failed++;
+					System.out.println("FAILED   " + result.input + ": " + result.error);
+				}
+				else if (result.solution == null)
+					unchecked++;
+				else if (normalize(result.output).equals(normalize(result.solution)))
+					matched++;
+				else
+				{
+					mismatched++;
+					System.out.println("MISMATCH " + result.input + ": " + normalize(result.output).replace('\n', ' ') + ", expected " + normalize(result.solution).replace('\n', ' '));
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+		Arrays.sort(times);
+		System.out.printf("%d cases on %d threads: %d matched, %d mismatched, %d without solution, %d failed%n", inputs.size(), threads, matched, mismatched, unchecked, failed);
+		System.out.printf("%.3f s, %.2f cases/s%n", elapsed, inputs.size() / elapsed);
+		if (times.length > 0)
+			System.out.printf("Time per case: p50 %.3f s, p90 %.3f s, p99 %.3f s, max %.3f s%n", getPercentile(times, 0.5), getPercentile(times, 0.9), getPercentile(times, 0.99), times[times.length - 1]);
+		return mismatched == 0 && failed == 0;
+	}
+
+	/**
+	 * Solves a single case, writing its output file.
+	 *
+	 * @param input the path of the input file
+	 * @return the result of the case
+	 */
+	private static CaseResult solveCase(Path input)
+	{
+		final long startTime = System.nanoTime();
+		try
+		{
+			final Problem problem = new Problem(Files.readAllBytes(input));
+			final String output = Agent.solve(problem, PlayData.getFirstPly(problem), () -> problem.playTime - (System.nanoTime() - startTime) * Constants.NANO_TO_SEC);
+			final double time = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+			Files.writeString(input.resolveSibling(Constants.FILENAME_OUTPUT), output);
+
+			final Path solution = input.resolveSibling(Constants.FILENAME_SOLUTION);
+			return new CaseResult(input, time, output, Files.exists(solution) ? Files.readString(solution) : null, null);
+		}
+		catch (final Exception e)
+		{
+			return new CaseResult(input, (System.nanoTime() - startTime) * Constants.NANO_TO_SEC, null, null, e);
+		}
+	}
+
+	/**
+	 * Normalizes the line endings and surrounding whitespace of an output, so outputs written on different platforms compare equal.
+	 *
+	 * @param output the output
+	 * @return the normalized output
+	 */
+	private static String normalize(String output)
+	{
+		return output.replace("\r\n", "\n").strip();
+	}
+
+	/**
+	 * Returns the specified percentile of the sorted values, by the nearest-rank method.
+	 *
+	 * @param sortedValues the values, in ascending order
+	 * @param percentile   the percentile, from 0 to 1
+	 * @return the percentile value
+	 */
+	private static double getPercentile(double[] sortedValues, double percentile)
+	{
+		final int rank = (int) Math.ceil(percentile * sortedValues.length);
+		return sortedValues[Math.max(rank - 1, 0)];
+	}
+
+	/**
+	 * The <code>CaseResult</code> class holds the outcome of a single case.
+	 */
+	private static final class CaseResult
+	{
+		/**
+		 * The path of the input file.
+		 */
+		final Path input;
+
+		/**
+		 * The time taken to solve the case, in seconds.
+		 */
+		final double time;
+
+		/**
+		 * The output written, or <code>null</code> if the case failed.
+		 */
+		final String output;
+
+		/**
+		 * The expected output, or <code>null</code> if the case has no solution file.
+		 */
+		final String solution;
+
+		/**
+		 * The error the case failed with, or <code>null</code> if it was solved.
+		 */
+		final Exception error;
+
+		/**
+		 * Creates the result of a case.
+		 *
+		 * @param input    the path of the input file
+		 * @param time     the time taken to solve the case, in seconds
+		 * @param output   the output written, or <code>null</code> if the case failed
+		 * @param solution the expected output, or <code>null</code> if the case has no solution file
+		 * @param error    the error the case failed with, or <code>null</code> if it was solved
+		 */
+		CaseResult(Path input, double time, String output, String solution, Exception error)
+		{
+			this.input = input;
+			this.time = time;
+			this.output = output;
+			this.solution = solution;
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package improved;
+
+/**
+ * The <code>BoardTables</code> class contains precomputed per-square lookup tables for the bitboard layout used by <code>StateBoard</code>. The tables are built once and hold, for every square and
+ * every piece type, the squares reachable by a single step and the (jumped-over, landing) pairs of every single jump. This replaces the per-piece shifting and boundary masking during move generation.
+ *
+ * <p>
+ * The piece types are {@link #BLACK_PAWN}, {@link #WHITE_PAWN} and {@link #KING}. Black pawns move South (towards higher indices), White pawns move North (towards lower indices), and kings move in
+ * all four diagonal directions.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see StateBoard
+ */
+public final class BoardTables
+{
+	/**
+	 * Don't let anyone instantiate this class.
+	 */
+	private BoardTables()
+	{}
+
+	/**
+	 * The piece type of a regular black pawn, which can only move South-West and South-East.
+	 */
+	public static final int BLACK_PAWN = 0;
+
+	/**
+	 * The piece type of a regular white pawn, which can only move North-West and North-East.
+	 */
+	public static final int WHITE_PAWN = 1;
+
+	/**
+	 * The piece type of a king of either team, which can move in all four diagonal directions.
+	 */
+	public static final int KING = 2;
+
+	/**
+	 * The bitboard of the step targets, indexed by <code>[pieceType][square]</code>. Invalid squares have no targets.
+	 */
+	public static final long[][] STEP_MASKS = new long[3][64];
+
+	/**
+	 * The jumped-over (victim) squares, indexed by <code>[pieceType][square]</code>. Each entry is paired with the entry of the same index in {@link #JUMP_LANDINGS}, and the pairs are sorted in
+	 * ascending order of their landing square.
+	 */
+	public static final int[][][] JUMP_VICTIMS = new int[3][64][];
+
+	/**
+	 * The landing squares, indexed by <code>[pieceType][square]</code>. Each entry is paired with the entry of the same index in {@link #JUMP_VICTIMS}, and the pairs are sorted in ascending order of
+	 * their landing square.
+	 */
+	public static final int[][][] JUMP_LANDINGS = new int[3][64][];
+
+	/**
+	 * The row offsets for each piece type's directions.
+	 */
+	private static final int[][] ROW_DIRECTIONS = { { 1, 1 }, { -1, -1 }, { -1, -1, 1, 1 } };
+
+	/**
+	 * The column offsets for each piece type's directions.
+	 */
+	private static final int[][] COLUMN_DIRECTIONS = { { -1, 1 }, { -1, 1 }, { -1, 1, -1, 1 } };
+
+	static
+	{
+		for (int pieceType = 0; pieceType < 3; pieceType++)
+		{
+			for (int square = 0; square < 64; square++)
+			{
+				final int row = square / 8;
+				final int column = square % 8;
+				final boolean isValid = ((StateBoard.MASK_VALID >> square) & 1L) != 0L;
+				final int[] rowDirections = ROW_DIRECTIONS[pieceType];
+				final int[] columnDirections = COLUMN_DIRECTIONS[pieceType];
+
+				long steps = 0L;
+				long landings = 0L;
+				final int[] victimAt = new int[64];
+				for (int i = 0; i < rowDirections.length && isValid; i++)
+				{
+					final int stepRow = row + rowDirections[i];
+					final int stepColumn = column + columnDirections[i];
+					if (isOutOfBounds(stepRow, stepColumn))
+						continue;
+					steps |= 1L << (stepRow * 8 + stepColumn);
+
+					final int landRow = stepRow + rowDirections[i];
+					final int landColumn = stepColumn + columnDirections[i];
+					if (isOutOfBounds(landRow, landColumn))
+						continue;
+					landings |= 1L << (landRow * 8 + landColumn);
+					victimAt[landRow * 8 + landColumn] = stepRow * 8 + stepColumn;
+				}
+
+				// Store the pairs in ascending order of landing square, to match bitboard iteration order
+				final int count = Long.bitCount(landings);
+				final int[] victims = new int[count];
+				final int[] landingSquares = new int[count];
+				for (int i = 0; i < count; i++)
+				{
+					final int landing = Long.numberOfTrailingZeros(landings);
+					victims[i] = victimAt[landing];
+					landingSquares[i] = landing;
+					landings &= landings - 1;
+				}
+
+				STEP_MASKS[pieceType][square] = steps;
+				JUMP_VICTIMS[pieceType][square] = victims;
+				JUMP_LANDINGS[pieceType][square] = landingSquares;
+			}
+		}
+	}
+
+	/**
+	 * Returns the piece type used to index the tables.
+	 *
+	 * @param isBlack the team of the piece
+	 * @param isKing  the kingship status of the piece
+	 * @return one of {@link #BLACK_PAWN}, {@link #WHITE_PAWN} or {@link #KING}
+	 */
+	public static int pieceType(boolean isBlack, boolean isKing)
+	{
+		if (isKing)
+			return KING;
+		return isBlack ? BLACK_PAWN : WHITE_PAWN;
+	}
+
+	/**
+	 * Determines whether the given row and column lie outside the 8x8 board.
+	 *
+	 * @param row    the row
+	 * @param column the column
+	 * @return true if outside the board, false otherwise
+	 */
+	private static boolean isOutOfBounds(int row, int column)
+	{
+		return row < 0 || column < 0 || row >= 8 || column >= 8;
+	}
+}
@@ -1,21 +1,34 @@
 package improved;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.util.Scanner;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 
 /**
  * The <code>CalibrationData</code> class contains the measurements produced by calibrating the code on the machine. This is used by the <code>AgentTimer</code> class to determine the best action to
  * perform in the remaining alloted time. The filename used is defined by {@link Constants#FILENAME_CALIBRATION}.
- * 
+ *
  * <p>
- * The format of the calibration file should be as such (all are <code>double</code> values separated by a space on a single line, except <code>N</code> is an integer):
+ * The time to search a position depends mostly on the phase of the game, so the measurements are kept per phase, as defined by {@link #getPhase(long, long, long)}. For every phase and depth, the
+ * file holds the mean and the variance of the time for an iterative deepening up to that depth, over all the sampled positions and trials of that phase.
+ * </p>
+ *
+ * <p>
+ * The format of the calibration file is binary, as written by {@link DataOutputStream}:
  * <ul>
- * <code>timeForReading timeForWriting N timeForDepth0 timeForDepth1 ... timeForDepthN-1</code>
+ * <code>MAGIC P D samples0 mean0,0 variance0,0 ... mean0,D-1 variance0,D-1 ... samplesP-1 ... meanP-1,D-1 varianceP-1,D-1</code>
  * </ul>
+ * where <code>MAGIC</code>, <code>P</code>, <code>D</code> and the samples are <code>int</code> values and the rest are <code>double</code> values in seconds.
  * </p>
- * 
+ *
  * @author Mohammad Alali
  * @see AgentTimer
  * @see Agent
+ * @see calibrate
  */
 public final class CalibrationData
 {
@@ -25,50 +38,143 @@ public final class CalibrationData
 	private CalibrationData()
 	{}
 
+	/**
+	 * The first <code>int</code> of a calibration file, to reject files of the older text format.
+	 */
+	public static final int MAGIC = 0x43414C32;
+
+	/**
+	 * The number of piece count brackets: more than 16 pieces, more than 8 pieces, and the rest.
+	 */
+	public static final int PIECE_PHASES = 3;
+
+	/**
+	 * The number of phases of the game, which are the piece count brackets with and without kings on the board.
+	 */
+	public static final int PHASES = PIECE_PHASES * 2;
+
 	/**
 	 * A flag indicating whether the calibration file at {@link Constants#FILENAME_CALIBRATION} was read successfully or not.
 	 */
 	public static boolean initialized = false;
 
 	/**
-	 * The time in seconds to perform <code>Minimax</code> for each depth. Here, the index of the array is the depth. Fallback value of <code>null</code> when loading the calibration data was
-	 * unsuccessful.
+	 * The number of samples measured for each phase. Fallback value of <code>null</code> when loading the calibration data was unsuccessful.
+	 */
+	public static int[] samples = null;
+
+	/**
+	 * The mean time in seconds to perform <code>Minimax</code> up to each depth, for each phase. Here, the indices of the array are the phase then the depth. Fallback value of <code>null</code> when
+	 * loading the calibration data was unsuccessful.
+	 */
+	public static double[][] means = null;
+
+	/**
+	 * The variance of the time in seconds to perform <code>Minimax</code> up to each depth, for each phase, indexed like {@link #means}. Fallback value of <code>null</code> when loading the
+	 * calibration data was unsuccessful.
+	 */
+	public static double[][] variances = null;
+
+	/**
+	 * Determines the phase of the game of the specified pieces, from the number of pieces and whether any of them is a king.
+	 *
+	 * @param blacks the black pieces
+	 * @param whites the white pieces
+	 * @param kings  the kings of both teams
+	 * @return the phase, from 0 to {@link #PHASES} exclusive
+	 */
+	public static int getPhase(long blacks, long whites, long kings)
+	{
+		final int pieces = Long.bitCount(blacks | whites);
+		final int piecePhase = pieces > 16 ? 0 : pieces > 8 ? 1 : 2;
+		return piecePhase * 2 + (kings == 0L ? 0 : 1);
+	}
+
+	/**
+	 * Determines the phase of the game of the specified board.
+	 *
+	 * @param board the board
+	 * @return the phase, from 0 to {@link #PHASES} exclusive
+	 * @see #getPhase(long, long, long)
 	 */
-	public static double[] depthTimes = null;
+	public static int getPhase(StateBoard board)
+	{
+		return getPhase(board.blacks, board.whites, board.kings);
+	}
 
 	/**
-	 * Attemps to read the calibration file at {@link Constants#FILENAME_CALIBRATION} and parse its contents.
-	 * 
-	 * <p>
-	 * The format of the calibration file should be as such (all are <code>double</code> values separated by a space on a single line, except <code>N</code> is an integer):
-	 * <ul>
-	 * <code>N timeForDepth0 timeForDepth1 ... timeForDepthN-1</code>
-	 * </ul>
-	 * </p>
+	 * Attemps to read the calibration file at {@link Constants#FILENAME_CALIBRATION} and parse its contents. The format is described in {@link CalibrationData}.
 	 */
 	public static void readFromFile()
 	{
 		final File file = new File(Constants.FILENAME_CALIBRATION);
 		if (file.exists())
 		{
-			try (final Scanner scanner = new Scanner(file))
+			try (final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
 			{
-				final int length = scanner.nextInt();
-				depthTimes = new double[length];
-				for (int i = 0; i < length; i++)
-					depthTimes[i] = scanner.nextDouble();
+				if (input.readInt() != MAGIC)
+					throw new IOException("Unknown calibration file format");
+
+				final int phases = input.readInt();
+				final int depths = input.readInt();
+				if (phases != PHASES)
+					throw new IOException("Expected " + PHASES + " phases, found " + phases);
+
+				samples = new int[phases];
+				means = new double[phases][depths];
+				variances = new double[phases][depths];
+				for (int phase = 0; phase < phases; phase++)
+				{
+					samples[phase] = input.readInt();
+					for (int depth = 0; depth < depths; depth++)
+					{
+						means[phase][depth] = input.readDouble();
+						variances[phase][depth] = input.readDouble();
+					}
+				}
 				initialized = true;
 			}
 			catch (final Exception e)
 			{
 				initialized = false;
-				depthTimes = null;
+				samples = null;
+				means = null;
+				variances = null;
 			}
 		}
 		else
 		{
 			initialized = false;
-			depthTimes = null;
+			samples = null;
+			means = null;
+			variances = null;
+		}
+	}
+
+	/**
+	 * Writes the specified measurements to the calibration file at {@link Constants#FILENAME_CALIBRATION}. The format is described in {@link CalibrationData}.
+	 *
+	 * @param samples   the number of samples of each phase
+	 * @param means     the mean times of each phase and depth
+	 * @param variances the variances of the times of each phase and depth
+	 * @throws IOException if the file could not be written
+	 */
+	public static void writeToFile(int[] samples, double[][] means, double[][] variances) throws IOException
+	{
+		try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(Constants.FILENAME_CALIBRATION))))
+		{
+			output.writeInt(MAGIC);
+			output.writeInt(means.length);
+			output.writeInt(means[0].length);
+			for (int phase = 0; phase < means.length; phase++)
+			{
+				output.writeInt(samples[phase]);
+				for (int depth = 0; depth < means[phase].length; depth++)
+				{
+					output.writeDouble(means[phase][depth]);
+					output.writeDouble(variances[phase][depth]);
+				}
+			}
 		}
 	}
-}
\ No newline at end of file
+}
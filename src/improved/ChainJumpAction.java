@@ -120,6 +120,22 @@ public final class ChainJumpAction implements Action
 			chain.get(i).execute(board);
 	}
 
+	/**
+	 * Derives the position that results from the jump action sequence on the specified position. This will apply the jumps in {@link #chain} from start to end.
+	 * 
+	 * @param position the position to apply this jump action sequence to
+	 * @return the resulting position
+	 */
+	@Override
+	public Position derive(Position position)
+	{
+		Position result = position;
+		final int size = chain.size();
+		for (int i = 0; i < size; i++)
+			result = chain.get(i).derive(result);
+		return result;
+	}
+
 	/**
 	 * Undos the chain jump action's effect on the specified board. Also, {@link #undo(StateBoard)} will not fail if {@link #execute(StateBoard)} was not invoked beforehand. This will undo the jumps in
 	 * {@link #chain} from end to start.
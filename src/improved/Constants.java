@@ -1,4 +1,5 @@
 package improved;
+import java.util.Objects;
 import java.util.Random;
 
 public final class Constants
@@ -26,20 +27,19 @@ public final class Constants
 	public static final String FILENAME_OUTPUT = "output.txt";
 
 	/**
-	 * Filename of the calibration file.
+	 * Filename of the expected output file of a test case, next to its input file.
 	 * 
-	 * @see hw2.calibration
-	 * @see CalibrationData
+	 * @see BatchSolver
 	 */
-	public static final String FILENAME_CALIBRATION = "calibration.txt";
+	public static final String FILENAME_SOLUTION = "solution.txt";
 
 	/**
-	 * Filename of the temporary input calibration file used to measure file I/O.
+	 * Filename of the calibration file.
 	 * 
 	 * @see hw2.calibration
 	 * @see CalibrationData
 	 */
-	public static final String FILENAME_CALIBRATION_TEMP_INPUT = "temp_calibration_input.txt";
+	public static final String FILENAME_CALIBRATION = "calibration.bin";
 
 	/**
 	 * Filename of the playdata file.
@@ -48,8 +48,42 @@ public final class Constants
 	 */
 	public static final String FILENAME_PLAYDATA = "playdata.txt";
 
+	/**
+	 * Filename of the evaluation weights file produced by the tuner.
+	 * 
+	 * @see EvaluationWeights
+	 * @see tune
+	 */
+	public static final String FILENAME_WEIGHTS = "weights.txt";
+
+	/**
+	 * Filename of the search trace file.
+	 * 
+	 * @see SearchTrace
+	 * @see trace
+	 */
+	public static final String FILENAME_TRACE = "trace.bin";
+
 	/////// Agent Timer ///////
 
+	/**
+	 * The clock the agent's play time is spent by. Defaults to {@link AgentClock#Wall}, and can be set with the system property <code>improved.clock</code> to <i>WALL</i> or <i>CPU</i>, so the
+	 * same build can be launched on a loaded machine with <code>-Dimproved.clock=CPU</code>.
+	 * 
+	 * @see AgentTimer
+	 * @see AgentClock
+	 */
+	public static final AgentClock AGENT_CLOCK = Objects.requireNonNullElse(AgentClock.parse(System.getProperty("improved.clock")), AgentClock.Wall);
+
+	/**
+	 * The minimum time, in seconds, between two measurements of the CPU time by the agent timer. In between, the CPU time is extrapolated by the real time, since measuring it for every thread is much
+	 * slower than {@link System#nanoTime()} and the search asks for the remaining time at every node.
+	 * 
+	 * @see AgentTimer
+	 * @see AgentClock#Cpu
+	 */
+	public static final double CPU_CLOCK_INTERVAL = 0.001;
+
 	/**
 	 * Time threshold for when the agent defaults to <b>ANY VALID</b> action. This value is also used by <code>Minimax</code> in its cutoff test.
 	 * 
@@ -88,6 +122,15 @@ public final class Constants
 	 */
 	public static final int CRUNCH_MAX_DEPTH = 5;
 
+	/**
+	 * The number of standard deviations added to the mean time of a depth when crunching, so a depth is only chosen if it fits the allowance in most positions of the phase. This works in tandem
+	 * with {@link #CRUNCH_ALLOWANCE}.
+	 * 
+	 * @see AgentTimer
+	 * @see CalibrationData
+	 */
+	public static final double CRUNCH_CONFIDENCE = 2;
+
 	/**
 	 * The minimum depth for the agent using <code>Minimax</code> in normal scenarios. This works in tandem with {@link #MAX_DEPTH} and {@link #DEPTH_FACTOR}.
 	 * 
@@ -116,8 +159,226 @@ public final class Constants
 	 */
 	public static final double DEPTH_FACTOR = 1;
 
+	/**
+	 * Whether the agent searches with the thread-safe copy-make path, which searches the root actions concurrently, instead of the single-threaded make/unmake path.
+	 * 
+	 * @see Agent
+	 * @see Minimax#searchCopyMake(StateBoard, boolean, int)
+	 * @see Position
+	 */
+	public static final boolean USE_COPY_MAKE_SEARCH = false;
+
+	/**
+	 * The time spent warming up the JIT before the agent searches, in seconds, when <code>homework</code> is launched in warm-up mode. This comes off the play time, so it should stay well under a
+	 * second.
+	 * 
+	 * @see Warmup
+	 * @see homework
+	 */
+	public static final double WARMUP_TIME = 0.3;
+
+	/**
+	 * The deepest search of the warm-up. Deeper searches take longer, so fewer positions are searched within {@link #WARMUP_TIME}.
+	 * 
+	 * @see Warmup
+	 */
+	public static final int WARMUP_MAX_DEPTH = 6;
+
 	//////// State Evaluation ///////
 
+	/**
+	 * The base-2 logarithm of the number of slots in the evaluation cache used by <code>Minimax</code>. Each slot takes 16 bytes.
+	 * 
+	 * @see EvaluationCache
+	 * @see Minimax
+	 */
+	public static final int EVAL_CACHE_SIZE_BITS = 16;
+
+	/**
+	 * The number of passes over the dataset made by the tuner.
+	 * 
+	 * @see TexelTuner
+	 */
+	public static final int TUNE_ITERATIONS = 1000;
+
+	/**
+	 * The step size of the tuner's gradient descent.
+	 * 
+	 * @see TexelTuner
+	 */
+	public static final double TUNE_LEARNING_RATE = 0.01;
+
+	/////// Calibration ///////
+
+	/**
+	 * The number of positions sampled for each phase of the game by the calibration.
+	 * 
+	 * @see calibrate
+	 * @see CalibrationData
+	 */
+	public static final int CALIBRATION_POSITIONS = 16;
+
+	/**
+	 * The number of times each sampled position is searched by the calibration.
+	 * 
+	 * @see calibrate
+	 * @see CalibrationData
+	 */
+	public static final int CALIBRATION_TRIALS = 3;
+
+	/**
+	 * The maximum number of random games played by the calibration to find positions of every phase. Phases that are rare in random games may end up with fewer samples.
+	 * 
+	 * @see calibrate
+	 */
+	public static final int CALIBRATION_MAX_GAMES = 1000;
+
+	/////// Tournament ///////
+
+	/**
+	 * The number of random plies from the initial position of every tournament opening.
+	 * 
+	 * @see Tournament
+	 */
+	public static final int TOURNAMENT_OPENING_PLIES = 6;
+
+	/**
+	 * The Elo difference of the null hypothesis of the tournament's SPRT.
+	 * 
+	 * @see Tournament
+	 */
+	public static final double SPRT_ELO0 = 0;
+
+	/**
+	 * The Elo difference of the alternative hypothesis of the tournament's SPRT.
+	 * 
+	 * @see Tournament
+	 */
+	public static final double SPRT_ELO1 = 10;
+
+	/**
+	 * The probability of a false positive of the tournament's SPRT.
+	 * 
+	 * @see Tournament
+	 */
+	public static final double SPRT_ALPHA = 0.05;
+
+	/**
+	 * The probability of a false negative of the tournament's SPRT.
+	 * 
+	 * @see Tournament
+	 */
+	public static final double SPRT_BETA = 0.05;
+
+	/**
+	 * The base-2 logarithm of the number of slots of the private transposition table of every tournament worker, for engines that do not share their table.
+	 * 
+	 * @see TournamentEngine
+	 * @see TranspositionTable
+	 */
+	public static final int TOURNAMENT_TABLE_SIZE_BITS = 20;
+
+	/**
+	 * The base-2 logarithm of the number of slots of the process-wide transposition table, shared by all the engines of the process that use it.
+	 * 
+	 * @see TranspositionTable#getShared()
+	 */
+	public static final int SHARED_TABLE_SIZE_BITS = 22;
+
+	/**
+	 * The least remaining depth at which the table search probes the children of a node for an enhanced transposition cutoff before searching any of them. The children of shallower nodes are leaves,
+	 * which are never stored in the table.
+	 * 
+	 * @see Minimax#getEtcCutoffCount()
+	 */
+	public static final int ETC_MIN_DEPTH = 2;
+
+	/////// Hub ///////
+
+	/**
+	 * The base-2 logarithm of the number of slots of the transposition table of a Hub engine on standard input and output. The engines of a Hub server share the table of
+	 * {@link TranspositionTable#getShared()} instead.
+	 * 
+	 * @see HubEngine
+	 */
+	public static final int HUB_TABLE_SIZE_BITS = 22;
+
+	/**
+	 * The max number of connections a Hub server serves at once. Further connections wait to be accepted until one of them is closed.
+	 * 
+	 * @see hub
+	 */
+	public static final int HUB_MAX_CONNECTIONS = 16;
+
+	/**
+	 * The max depth of a Hub engine's search, when the time controls do not limit it.
+	 * 
+	 * @see HubEngine
+	 */
+	public static final int HUB_MAX_DEPTH = 64;
+
+	/**
+	 * The number of moves the remaining time of a Hub engine is split over, when the time controls do not specify them.
+	 * 
+	 * @see HubEngine
+	 */
+	public static final int HUB_MOVES_TO_GO = 30;
+
+	/**
+	 * The time in seconds of every move of a Hub engine without any time controls.
+	 * 
+	 * @see HubEngine
+	 */
+	public static final double HUB_DEFAULT_MOVE_TIME = 1;
+
+	/////// Search Trace ///////
+
+	/**
+	 * Whether the make/unmake search of <code>Minimax</code> records a trace, written to {@link #FILENAME_TRACE} after every game move. Since it is a compile-time constant, the tracing code is removed
+	 * from the search when it is not set.
+	 * 
+	 * @see SearchTrace
+	 */
+	public static final boolean TRACE_SEARCH = false;
+
+	/**
+	 * The base 2 logarithm of the number of records the search trace keeps. Older records are overwritten.
+	 * 
+	 * @see SearchTrace
+	 */
+	public static final int TRACE_CAPACITY_BITS = 16;
+
+	/**
+	 * The mask of the node numbers sampled by the search trace below {@link #TRACE_FULL_DEPTH}. A node is sampled if its number has none of these bits set, so it must be one less than a power of 2.
+	 * 
+	 * @see SearchTrace
+	 */
+	public static final long TRACE_SAMPLE_MASK = 63;
+
+	/**
+	 * The remaining depth from which every node is recorded by the search trace, regardless of {@link #TRACE_SAMPLE_MASK}.
+	 * 
+	 * @see SearchTrace
+	 */
+	public static final int TRACE_FULL_DEPTH = 4;
+
+	/////// Dataset ///////
+
+	/**
+	 * The number of records buffered before they are written to a dataset file. Each record takes {@link DatasetWriter#RECORD_SIZE} bytes.
+	 * 
+	 * @see DatasetWriter
+	 * @see DatasetReader
+	 */
+	public static final int DATASET_BATCH_RECORDS = 1 << 15;
+
+	/**
+	 * The number of random plies from the initial position of every self-play game of the dataset generator.
+	 * 
+	 * @see DatasetGenerator
+	 */
+	public static final int DATASET_OPENING_PLIES = 8;
+
 	/**
 	 * The value of capturing a regular pawn. This is used by the <code>Minimax</code> algorithm to evalaute a given state board.
 	 * 
@@ -175,6 +436,15 @@ public final class Constants
 	 */
 	public static final int EVAL_POSITION_CENTER_BONUS = 2;
 
+	/**
+	 * The minimum number of pieces on the board for the opening-only positional values (home row and center) to apply. This is used by the <code>Minimax</code> algorithm to evalaute a given state
+	 * board.
+	 * 
+	 * @see Minimax
+	 * @see PieceSquareTable
+	 */
+	public static final int EVAL_OPENING_MIN_PIECES = 12;
+
 	/**
 	 * The benefit when my team has less blocked pawns. This is used by the <code>Minimax</code> algorithm to evalaute a given state board.
 	 * 
@@ -0,0 +1,216 @@
+package improved;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The <code>DatasetGenerator</code> class plays self-play games concurrently, one game per worker thread, and streams every position they reach to a <code>DatasetWriter</code> together with its
+ * search score and the result of its game.
+ *
+ * <p>
+ * Games start either from a few random plies after the initial position, or from a random board of {@link StateBoard#random(Random)}, both drawn from the seed of the generator. Every game owns its positions and searches with
+ * {@link Minimax#searchValue(Position, int, boolean, long)}. A finished game is encoded by its worker, and only the calling thread writes to the file, so at most a few games are held in memory.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see DatasetWriter
+ * @see generate
+ */
+public final class DatasetGenerator
+{
+	/**
+	 * The max depth of every search.
+	 */
+	private final int depth;
+
+	/**
+	 * The time in seconds after which a search stops deepening.
+	 */
+	private final double moveTime;
+
+	/**
+	 * The number of games played at once.
+	 */
+	private final int threads;
+
+	/**
+	 * Whether games start from a random board rather than from random plies after the initial position.
+	 */
+	private final boolean isRandomStart;
+
+	/**
+	 * The random number generator of the openings, only used by the calling thread.
+	 */
+	private final Random random;
+
+	/**
+	 * Creates a generator with the specified arguments.
+	 *
+	 * @param depth         the max depth of every search
+	 * @param moveTime      the time in seconds after which a search stops deepening
+	 * @param threads       the number of games played at once
+	 * @param isRandomStart whether games start from a random board rather than from random plies after the initial position
+	 * @param seed          the seed of the openings
+	 */
+	public DatasetGenerator(int depth, double moveTime, int threads, boolean isRandomStart, long seed)
+	{
+		this.depth = depth;
+		this.moveTime = moveTime;
+		this.threads = threads;
+		this.isRandomStart = isRandomStart;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Plays games until at least <code>positions</code> positions have been written. Positions of games still being played at that point are discarded.
+	 *
+	 * @param writer    the writer of the dataset
+	 * @param positions the number of positions to write
+	 * @throws IOException          if the positions cannot be written
+	 * @throws InterruptedException if interrupted while waiting for a game
+	 */
+	public void run(DatasetWriter writer, long positions) throws IOException, InterruptedException
+	{
+		// Daemon workers, so the games still being played never keep the program alive
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, r ->
+		{
+			final Thread thread = new Thread(r, "Dataset game");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletionService<ByteBuffer> games = new ExecutorCompletionService<>(executor);
+
+		try
+		{
+			// Keep every worker busy with one queued game behind it
+			for (int i = 0; i < threads * 2; i++)
+				submit(games);
+
+			final long startTime = System.nanoTime();
+			long reported = 0;
+			while (writer.getCount() < positions)
+			{
+				writer.write(games.take().get());
+				submit(games);
+
+				if (writer.getCount() - reported >= Constants.DATASET_BATCH_RECORDS)
+				{
+					reported = writer.getCount();
+					final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+					System.out.printf("%d positions, %.0f positions/s%n", reported, reported / elapsed);
+				}
+			}
+		}
+		catch (final ExecutionException e)
+		{
+			throw new IllegalStateException("A game failed", e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Submits a new game.
+	 *
+	 * @param games the completion service of the games
+	 */
+	private void submit(CompletionService<ByteBuffer> games)
+	{
+		final Position start = isRandomStart ? randomBoard() : Tournament.randomOpening(random, Constants.DATASET_OPENING_PLIES);
+		games.submit(() -> play(start));
+	}
+
+	/**
+	 * @return a random ongoing board of {@link StateBoard#random(Random)}, drawn from the random number generator of the openings
+	 */
+	private Position randomBoard()
+	{
+		while (true)
+		{
+			final Position position = Position.of(StateBoard.random(random));
+			if (position.getGameState() == GameState.Ongoing)
+				return position;
+		}
+	}
+
+	/**
+	 * Plays a single game to the end and encodes all of its positions.
+	 *
+	 * @param position the starting position
+	 * @return the encoded records, ready to be written
+	 * @throws CancellationException if the worker is interrupted, since the dataset is already complete
+	 * @see DatasetWriter#encode(ByteBuffer, long, long, long, boolean, int, float, byte)
+	 */
+	private ByteBuffer play(Position position)
+	{
+		final List<Position> positions = new ArrayList<>();
+		float[] scores = new float[128];
+
+		GameState gameState;
+		while ((gameState = position.getGameState()) == GameState.Ongoing)
+		{
+			if (Thread.currentThread().isInterrupted())
+				throw new CancellationException();
+
+			final long deadline = System.nanoTime() + (long) (moveTime * Constants.SEC_TO_NANO);
+
+			// Pick the best child, keeping its value as the score of this position
+			double bestValue = Double.NEGATIVE_INFINITY;
+			Position bestChild = null;
+			for (final Position child : position.children())
+			{
+				final double value = Minimax.searchValue(child, depth - 1, position.isBlackTurn, deadline);
+				if (value >= bestValue)
+				{
+					bestValue = value;
+					bestChild = child;
+				}
+			}
+
+			if (positions.size() == scores.length)
+				scores = Arrays.copyOf(scores, scores.length * 2);
+			scores[positions.size()] = (float) (position.isBlackTurn ? bestValue : -bestValue);
+			positions.add(position);
+			position = bestChild;
+		}
+
+		final byte result = (gameState == GameState.BlackWin) ? DatasetWriter.RESULT_WIN : (gameState == GameState.WhiteWin) ? DatasetWriter.RESULT_LOSS : DatasetWriter.RESULT_DRAW;
+		final ByteBuffer records = ByteBuffer.allocate(positions.size() * DatasetWriter.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < positions.size(); i++)
+		{
+			final Position p = positions.get(i);
+			DatasetWriter.encode(records, p.blacks, p.whites, p.kings, p.isBlackTurn, p.plysSinceLastCrownOrCapture, scores[i], result);
+		}
+
+		return records.flip();
+	}
+
+	/**
+	 * Writes a dataset of the specified number of positions.
+	 *
+	 * @param file      the dataset file
+	 * @param positions the number of positions to write
+	 * @throws IOException          if the positions cannot be written
+	 * @throws InterruptedException if interrupted while waiting for a game
+	 */
+	public void run(File file, long positions) throws IOException, InterruptedException
+	{
+		try (final DatasetWriter writer = new DatasetWriter(file))
+		{
+			run(writer, positions);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package improved;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The <code>DatasetReader</code> class streams the records of a binary dataset file written by <code>DatasetWriter</code>. Records are read in large batches through a <code>FileChannel</code>, and
+ * only the current record is decoded.
+ *
+ * <p>
+ * Usage: <code>while (reader.next()) { reader.blacks ... }</code>
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see DatasetWriter
+ */
+public final class DatasetReader implements AutoCloseable
+{
+	/**
+	 * The bitboard of all black pieces of the current record.
+	 */
+	public long blacks;
+
+	/**
+	 * The bitboard of all white pieces of the current record.
+	 */
+	public long whites;
+
+	/**
+	 * The bitboard of all king pieces of the current record.
+	 */
+	public long kings;
+
+	/**
+	 * The current player's turn of the current record.
+	 */
+	public boolean isBlackTurn;
+
+	/**
+	 * The ply counter since the last crown or capture of the current record.
+	 */
+	public int plys;
+
+	/**
+	 * The search score from Black's point of view of the current record.
+	 */
+	public float score;
+
+	/**
+	 * The result of the game from Black's point of view of the current record.
+	 *
+	 * @see DatasetWriter#RESULT_WIN
+	 */
+	public byte result;
+
+	/**
+	 * The channel of the dataset file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The records read from the channel but not yet decoded.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Opens the specified dataset file.
+	 *
+	 * @param file the dataset file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public DatasetReader(File file) throws IOException
+	{
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		buffer = ByteBuffer.allocateDirect(Constants.DATASET_BATCH_RECORDS * DatasetWriter.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.flip();
+	}
+
+	/**
+	 * @return the number of records in the file
+	 * @throws IOException if the size of the file cannot be read
+	 */
+	public long size() throws IOException
+	{
+		return channel.size() / DatasetWriter.RECORD_SIZE;
+	}
+
+	/**
+	 * Decodes the next record into the public fields.
+	 *
+	 * @return true if a record was decoded, false if the end of the file was reached
+	 * @throws IOException if the file cannot be read or ends in the middle of a record
+	 */
+	public boolean next() throws IOException
+	{
+		if (buffer.remaining() < DatasetWriter.RECORD_SIZE)
+		{
+			buffer.compact();
+			while (buffer.hasRemaining() && channel.read(buffer) > 0)
+				;
+			buffer.flip();
+
+			if (!buffer.hasRemaining())
+				return false;
+			if (buffer.remaining() < DatasetWriter.RECORD_SIZE)
+				throw new EOFException("Truncated record at the end of the dataset");
+		}
+
+		blacks = buffer.getLong();
+		whites = buffer.getLong();
+		kings = buffer.getLong();
+		score = buffer.getFloat();
+		isBlackTurn = buffer.get() != 0;
+		plys = buffer.get();
+		result = buffer.get();
+		buffer.get();
+		return true;
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
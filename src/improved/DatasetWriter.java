@@ -0,0 +1,185 @@
+package improved;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The <code>DatasetWriter</code> class streams positions to a binary dataset file. Records are gathered in a large direct buffer and written through a <code>FileChannel</code> once the buffer is
+ * full, so any number of positions can be written without holding them on the heap.
+ *
+ * <p>
+ * Every record is {@link #RECORD_SIZE} bytes, little-endian:
+ * <ul>
+ * <li><code>long</code> the bitboard of all black pieces</li>
+ * <li><code>long</code> the bitboard of all white pieces</li>
+ * <li><code>long</code> the bitboard of all king pieces</li>
+ * <li><code>float</code> the search score from Black's point of view, or NaN if unknown</li>
+ * <li><code>byte</code> the current player's turn (<code>1</code> Black, <code>0</code> White)</li>
+ * <li><code>byte</code> the ply counter since the last crown or capture</li>
+ * <li><code>byte</code> the result of the game from Black's point of view ({@link #RESULT_LOSS}, {@link #RESULT_DRAW} or {@link #RESULT_WIN})</li>
+ * <li><code>byte</code> reserved, always <code>0</code></li>
+ * </ul>
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see DatasetReader
+ * @see generate
+ */
+public final class DatasetWriter implements AutoCloseable
+{
+	/**
+	 * The size of every record in bytes.
+	 */
+	public static final int RECORD_SIZE = 32;
+
+	/**
+	 * The result of a game lost by Black.
+	 */
+	public static final byte RESULT_LOSS = 0;
+
+	/**
+	 * The result of a drawn game.
+	 */
+	public static final byte RESULT_DRAW = 1;
+
+	/**
+	 * The result of a game won by Black.
+	 */
+	public static final byte RESULT_WIN = 2;
+
+	/**
+	 * The channel of the dataset file.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The records not yet written to the channel.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The number of records written so far, including those still in the buffer.
+	 */
+	private long count;
+
+	/**
+	 * Creates an empty dataset file, replacing the file if it exists.
+	 *
+	 * @param file the dataset file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public DatasetWriter(File file) throws IOException
+	{
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(Constants.DATASET_BATCH_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Appends a record to the specified buffer.
+	 *
+	 * @param buffer      the little-endian buffer to append to, with at least {@link #RECORD_SIZE} bytes remaining
+	 * @param blacks      the bitboard of all black pieces
+	 * @param whites      the bitboard of all white pieces
+	 * @param kings       the bitboard of all king pieces
+	 * @param isBlackTurn the current player's turn
+	 * @param plys        the ply counter since the last crown or capture
+	 * @param score       the search score from Black's point of view
+	 * @param result      the result of the game from Black's point of view
+	 */
+	public static void encode(ByteBuffer buffer, long blacks, long whites, long kings, boolean isBlackTurn, int plys, float score, byte result)
+	{
+		buffer.putLong(blacks);
+		buffer.putLong(whites);
+		buffer.putLong(kings);
+		buffer.putFloat(score);
+		buffer.put((byte) (isBlackTurn ? 1 : 0));
+		buffer.put((byte) Math.min(plys, Byte.MAX_VALUE));
+		buffer.put(result);
+		buffer.put((byte) 0);
+	}
+
+	/**
+	 * Appends a single record.
+	 *
+	 * @param blacks      the bitboard of all black pieces
+	 * @param whites      the bitboard of all white pieces
+	 * @param kings       the bitboard of all king pieces
+	 * @param isBlackTurn the current player's turn
+	 * @param plys        the ply counter since the last crown or capture
+	 * @param score       the search score from Black's point of view
+	 * @param result      the result of the game from Black's point of view
+	 * @throws IOException if the records cannot be written
+	 */
+	public void write(long blacks, long whites, long kings, boolean isBlackTurn, int plys, float score, byte result) throws IOException
+	{
+		if (buffer.remaining() < RECORD_SIZE)
+			flush();
+		encode(buffer, blacks, whites, kings, isBlackTurn, plys, score, result);
+		count++;
+	}
+
+	/**
+	 * Appends the records encoded in the specified buffer, from its position to its limit.
+	 *
+	 * @param records the buffer of encoded records
+	 * @throws IOException if the records cannot be written
+	 * @see #encode(ByteBuffer, long, long, long, boolean, int, float, byte)
+	 */
+	public void write(ByteBuffer records) throws IOException
+	{
+		count += records.remaining() / RECORD_SIZE;
+		while (records.hasRemaining())
+		{
+			if (!buffer.hasRemaining())
+				flush();
+
+			final int length = Math.min(buffer.remaining(), records.remaining());
+			final int limit = records.limit();
+			records.limit(records.position() + length);
+			buffer.put(records);
+			records.limit(limit);
+		}
+	}
+
+	/**
+	 * Writes the buffered records to the file.
+	 *
+	 * @throws IOException if the records cannot be written
+	 */
+	public void flush() throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * @return the number of records written so far
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Writes the buffered records and closes the file.
+	 *
+	 * @throws IOException if the records cannot be written
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+}
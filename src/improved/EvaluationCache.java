@@ -0,0 +1,197 @@
+package improved;
+
+import java.util.Arrays;
+
+/**
+ * The <code>EvaluationCache</code> class is a small direct-mapped cache of static evaluations, indexed by the Zobrist key of the board. It is used by <code>Minimax</code> to skip re-evaluating leaves
+ * that were already reached through a different move order.
+ *
+ * <p>
+ * Each entry stores the game state and the static score from Black's point of view, packed into one <code>long</code>. The slot's key is stored XOR'd with that data, so a torn write from another
+ * thread is detected as a miss rather than returned as a wrong score. A newer entry always replaces the older one in its slot. The hit statistics are not synchronized, so they are approximate when
+ * the cache is shared between threads.
+ * </p>
+ *
+ * <p>
+ * A board and its colour-flipped board share one entry under their {@link Zobrist#canonical(long)} key, stored from the point of view of the canonical orientation. The score and the winner are
+ * swapped back on probing the flipped orientation, so callers always see them from their own board's point of view.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see Minimax
+ * @see Zobrist
+ */
+public final class EvaluationCache
+{
+	/**
+	 * The value returned by {@link #probe(long)} when the key is not cached. It cannot collide with stored data since the game state only uses the lowest bits of the upper half.
+	 */
+	public static final long MISS = -1L;
+
+	/**
+	 * The key of each slot, XOR'd with the data of that slot.
+	 */
+	private final long[] keys;
+
+	/**
+	 * The packed game state and static score of each slot.
+	 */
+	private final long[] data;
+
+	/**
+	 * The bitmask to convert a key into a slot index.
+	 */
+	private final int mask;
+
+	/**
+	 * The number of probes since the last {@link #clear()}.
+	 */
+	private long probes;
+
+	/**
+	 * The number of successful probes since the last {@link #clear()}.
+	 */
+	private long hits;
+
+	/**
+	 * Creates an empty cache with <code>2^sizeBits</code> slots.
+	 *
+	 * @param sizeBits the base-2 logarithm of the number of slots
+	 * @throws IllegalArgumentException if <code>sizeBits</code> is not within [1, 30]
+	 */
+	public EvaluationCache(int sizeBits)
+	{
+		if (sizeBits < 1 || sizeBits > 30)
+			throw new IllegalArgumentException("sizeBits must be within [1, 30], got " + sizeBits);
+
+		keys = new long[1 << sizeBits];
+		data = new long[1 << sizeBits];
+		mask = (1 << sizeBits) - 1;
+	}
+
+	/**
+	 * Looks up the specified key.
+	 *
+	 * @param key the Zobrist key of the board
+	 * @return the packed data of the entry, or {@link #MISS} if not cached
+	 * @see #getGameState(long)
+	 * @see #getScore(long)
+	 */
+	public long probe(long key)
+	{
+		probes++;
+		final boolean isFlipped = Zobrist.isFlipped(key);
+		final long canonicalKey = isFlipped ? Zobrist.flip(key) : key;
+		final int index = (int) canonicalKey & mask;
+		final long entry = data[index];
+		if ((keys[index] ^ entry) != canonicalKey)
+			return MISS;
+
+		hits++;
+		return isFlipped ? flipEntry(entry) : entry;
+	}
+
+	/**
+	 * Stores the specified evaluation, replacing whatever was in its slot.
+	 *
+	 * @param key       the Zobrist key of the board
+	 * @param gameState the state of the game
+	 * @param score     the static score from Black's point of view
+	 */
+	public void store(long key, GameState gameState, double score)
+	{
+		final boolean isFlipped = Zobrist.isFlipped(key);
+		final long canonicalKey = isFlipped ? Zobrist.flip(key) : key;
+		final int index = (int) canonicalKey & mask;
+		final long entry = ((long) gameState.ordinal() << 32) | (Float.floatToRawIntBits((float) score) & 0xFFFFFFFFL);
+		data[index] = isFlipped ? flipEntry(entry) : entry;
+		keys[index] = canonicalKey ^ data[index];
+	}
+
+	/**
+	 * Converts packed data to the point of view of the colour-flipped board, by negating the score and swapping the winner. Converting twice gives the original data.
+	 *
+	 * @param entry the packed data
+	 * @return the packed data of the colour-flipped board
+	 */
+	private static long flipEntry(long entry)
+	{
+		final GameState gameState = getGameState(entry);
+		final GameState flippedGameState = gameState == GameState.BlackWin ? GameState.WhiteWin : gameState == GameState.WhiteWin ? GameState.BlackWin : gameState;
+		return ((long) flippedGameState.ordinal() << 32) | ((entry ^ 0x80000000L) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Extracts the game state from the packed data returned by {@link #probe(long)}.
+	 *
+	 * @param entry the packed data
+	 * @return the state of the game
+	 */
+	public static GameState getGameState(long entry)
+	{
+		return GameState.values()[(int) (entry >>> 32)];
+	}
+
+	/**
+	 * Extracts the static score from the packed data returned by {@link #probe(long)}.
+	 *
+	 * @param entry the packed data
+	 * @return the static score from Black's point of view
+	 */
+	public static double getScore(long entry)
+	{
+		return Float.intBitsToFloat((int) entry);
+	}
+
+	/**
+	 * Removes all entries and resets the statistics.
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, 0L);
+		Arrays.fill(data, 0L);
+		probes = 0;
+		hits = 0;
+	}
+
+	/**
+	 * @return the number of slots
+	 */
+	public int size()
+	{
+		return keys.length;
+	}
+
+	/**
+	 * @return the number of probes since the last {@link #clear()}
+	 */
+	public long getProbes()
+	{
+		return probes;
+	}
+
+	/**
+	 * @return the number of successful probes since the last {@link #clear()}
+	 */
+	public long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 * @return the ratio (0-1) of successful probes, or 0 if never probed
+	 */
+	public double getHitRate()
+	{
+		return probes == 0 ? 0 : (double) hits / probes;
+	}
+
+	/**
+	 * @return a summary of the hit statistics
+	 */
+	@Override
+	public String toString()
+	{
+		return "EvaluationCache[size = " + size() + ", probes = " + probes + ", hits = " + hits + ", hit rate = " + getHitRate() + "]";
+	}
+}
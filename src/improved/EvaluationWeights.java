@@ -0,0 +1,160 @@
+package improved;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Scanner;
+
+/**
+ * The <code>EvaluationWeights</code> class contains the weights of the static evaluation used by <code>Minimax</code>. They default to the hand-picked values in <code>Constants</code>, and can be
+ * replaced by a weights file produced by <code>tune</code>. The filename used is defined by {@link Constants#FILENAME_WEIGHTS}.
+ *
+ * <p>
+ * The format of the weights file is one weight per line, as its name followed by its <code>double</code> value separated by a space. Unknown names are ignored and missing names keep their current
+ * value:
+ * <ul>
+ * <code>EVAL_PAWN_WEIGHT 1.0</code>
+ * </ul>
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see TexelTuner
+ * @see Minimax
+ * @see PieceSquareTable
+ */
+public final class EvaluationWeights
+{
+	/**
+	 * Don't let anyone instantiate this class.
+	 */
+	private EvaluationWeights()
+	{}
+
+	/**
+	 * The names of the weights in the weights file, in the order used by {@link #toArray()} and {@link #fromArray(double[])}.
+	 */
+	public static final String[] NAMES = { "EVAL_PAWN_WEIGHT", "EVAL_PAWN_KING_WEIGHT", "EVAL_PAWN_ALMOST_KING_WEIGHT", "EVAL_PAWN_HOME_ROW_WEIGHT", "EVAL_POSITION_CENTER_BONUS" };
+
+	/**
+	 * A flag indicating whether the weights file at {@link Constants#FILENAME_WEIGHTS} was read successfully or not.
+	 */
+	public static boolean initialized = false;
+
+	/**
+	 * The value of possessing a piece.
+	 *
+	 * @see Constants#EVAL_PAWN_WEIGHT
+	 */
+	public static double pawnWeight = Constants.EVAL_PAWN_WEIGHT;
+
+	/**
+	 * The additional value of possessing a king.
+	 *
+	 * @see Constants#EVAL_PAWN_KING_WEIGHT
+	 */
+	public static double kingWeight = Constants.EVAL_PAWN_KING_WEIGHT;
+
+	/**
+	 * The value of a potential king pawn which is 1 row away.
+	 *
+	 * @see Constants#EVAL_PAWN_ALMOST_KING_WEIGHT
+	 */
+	public static double almostKingWeight = Constants.EVAL_PAWN_ALMOST_KING_WEIGHT;
+
+	/**
+	 * The value of a piece guarding the home row, while in the opening.
+	 *
+	 * @see Constants#EVAL_PAWN_HOME_ROW_WEIGHT
+	 */
+	public static double homeRowWeight = Constants.EVAL_PAWN_HOME_ROW_WEIGHT;
+
+	/**
+	 * The value of a piece controlling the center, while in the opening.
+	 *
+	 * @see Constants#EVAL_POSITION_CENTER_BONUS
+	 */
+	public static double centerBonus = Constants.EVAL_POSITION_CENTER_BONUS;
+
+	/**
+	 * @return the current weights, in the order of {@link #NAMES}
+	 */
+	public static double[] toArray()
+	{
+		return new double[] { pawnWeight, kingWeight, almostKingWeight, homeRowWeight, centerBonus };
+	}
+
+	/**
+	 * Replaces the current weights and rebuilds the {@link PieceSquareTable}. Boards whose piece-square sums were already computed must be marked as dirty afterwards.
+	 *
+	 * @param weights the new weights, in the order of {@link #NAMES}
+	 * @see StateBoard#markAsDirty()
+	 */
+	public static void fromArray(double[] weights)
+	{
+		pawnWeight = weights[0];
+		kingWeight = weights[1];
+		almostKingWeight = weights[2];
+		homeRowWeight = weights[3];
+		centerBonus = weights[4];
+		PieceSquareTable.rebuild();
+	}
+
+	/**
+	 * Attemps to read the weights file at {@link Constants#FILENAME_WEIGHTS} and parse its contents. The current weights are kept if the file does not exist or cannot be parsed, the latter is reported on the standard error.
+	 */
+	public static void readFromFile()
+	{
+		readFromFile(new File(Constants.FILENAME_WEIGHTS));
+	}
+
+	/**
+	 * Attemps to read the specified weights file and parse its contents. The current weights are kept if the file does not exist or cannot be parsed, the latter is reported on the standard error.
+	 *
+	 * @param file the weights file
+	 */
+	public static void readFromFile(File file)
+	{
+		if (!file.exists())
+		{
+			initialized = false;
+			return;
+		}
+
+		final double[] weights = toArray();
+		try (final Scanner scanner = new Scanner(file))
+		{
+			while (scanner.hasNext())
+			{
+				final String name = scanner.next();
+				final double value = Double.parseDouble(scanner.next());
+				for (int i = 0; i < NAMES.length; i++)
+					if (NAMES[i].equals(name))
+						weights[i] = value;
+			}
+
+			fromArray(weights);
+			initialized = true;
+		}
+		catch (final Exception e)
+		{
+			// Keep playing on the current weights, but a bad tuning output must not go unnoticed
+			System.err.println("Could not read the weights file " + file + ", keeping the current weights: " + e);
+			initialized = false;
+		}
+	}
+
+	/**
+	 * Writes the current weights to the specified file.
+	 *
+	 * @param file the weights file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeToFile(File file) throws IOException
+	{
+		final double[] weights = toArray();
+		try (final FileWriter writer = new FileWriter(file))
+		{
+			for (int i = 0; i < NAMES.length; i++)
+				writer.write(NAMES[i] + " " + weights[i] + "\n");
+		}
+	}
+}
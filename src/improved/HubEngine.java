@@ -0,0 +1,640 @@
+package improved;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The <code>HubEngine</code> class is a long-running engine that speaks the Hub protocol of draughts engines over a pair of text streams, so GUIs and match managers can drive it without a file round
+ * trip or a new JVM per move. Every instance owns its position and its time controls. Its <code>TranspositionTable</code> is either its own, or the process-wide one of
+ * {@link TranspositionTable#getShared()}, so any number of engines can serve connections at once without a table each.
+ *
+ * <p>
+ * The supported commands are <code>hub</code>, <code>init</code>, <code>set-param</code>, <code>new-game</code>, <code>pos</code>, <code>level</code>, <code>go think|ponder|analyze</code>,
+ * <code>ping</code>, <code>ponder-hit</code>, <code>stop</code> and <code>quit</code>. Positions are written as the side to move (<code>B</code> or <code>W</code>) followed by the 32 playable squares
+ * in PDN order, each <code>b</code>, <code>w</code>, <code>B</code>, <code>W</code> (kings) or <code>e</code> (empty). Moves are written in PDN, such as <code>11-15</code> or <code>9x18x27</code>.
+ * </p>
+ *
+ * <p>
+ * Searches run on their own thread, as an iterative deepening of {@link Minimax#searchValue(Position, int, double, double, TranspositionTable)}, and report an <code>info</code> line after every
+ * depth. They are stopped by interrupting that thread, either by <code>stop</code> or when the time of the move runs out, after which the best move of the last complete depth is sent with
+ * <code>done</code>.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see hub
+ * @see PdnGame
+ */
+public final class HubEngine
+{
+	/**
+	 * The timer of all engines, which stops searches when their time runs out.
+	 */
+	private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r ->
+	{
+		final Thread thread = new Thread(r, "Hub timer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The number of engines serving commands on the shared table.
+	 */
+	private static final AtomicInteger SHARED_ENGINES = new AtomicInteger();
+
+	/**
+	 * The stream of commands.
+	 */
+	private final BufferedReader input;
+
+	/**
+	 * The stream of replies, shared by the command and search threads.
+	 */
+	private final PrintWriter output;
+
+	/**
+	 * The table of search results, kept between moves of the same game.
+	 */
+	private final TranspositionTable table;
+
+	/**
+	 * Whether the table is the shared one, which other engines search concurrently.
+	 */
+	private final boolean isShared;
+
+	/**
+	 * The current position.
+	 */
+	private Position position = Position.of(StateBoard.initial());
+
+	/**
+	 * The max depth of a search, or 0 if unlimited.
+	 */
+	private int levelDepth = 0;
+
+	/**
+	 * The time of every move in seconds, or 0 if not set.
+	 */
+	private double levelMoveTime = 0;
+
+	/**
+	 * The remaining time of the game in seconds, or 0 if not set.
+	 */
+	private double levelTime = 0;
+
+	/**
+	 * The time added after every move in seconds.
+	 */
+	private double levelIncrement = 0;
+
+	/**
+	 * The number of moves until the next time control, or 0 if the remaining time is for the rest of the game.
+	 */
+	private int levelMoves = 0;
+
+	/**
+	 * Whether searches only stop on <code>stop</code>.
+	 */
+	private boolean isLevelInfinite = false;
+
+	/**
+	 * The current search, or <code>null</code> if none.
+	 */
+	private Search search = null;
+
+	/**
+	 * Creates an engine that reads commands from and writes replies to the specified streams.
+	 *
+	 * @param input  the stream of commands
+	 * @param output the stream of replies
+	 */
+	public HubEngine(BufferedReader input, PrintWriter output)
+	{
+		this(input, output, false);
+	}
+
+	/**
+	 * Creates an engine that reads commands from and writes replies to the specified streams, on its own table or on the shared one.
+	 *
+	 * @param input    the stream of commands
+	 * @param output   the stream of replies
+	 * @param isShared whether to search on the shared table instead of a table of its own
+	 */
+	public HubEngine(BufferedReader input, PrintWriter output, boolean isShared)
+	{
+		this.input = input;
+		this.output = output;
+		this.isShared = isShared;
+		this.table = isShared ? TranspositionTable.getShared() : new TranspositionTable(Constants.HUB_TABLE_SIZE_BITS);
+	}
+
+	/**
+	 * Serves commands until <code>quit</code> or the end of the input.
+	 *
+	 * @throws IOException if the input cannot be read
+	 */
+	public void run() throws IOException
+	{
+		if (isShared)
+			SHARED_ENGINES.incrementAndGet();
+		try
+		{
+			String line;
+			while ((line = input.readLine()) != null)
+			{
+				line = line.trim();
+				if (line.isEmpty())
+					continue;
+
+				final int space = line.indexOf(' ');
+				final String command = space < 0 ? line : line.substring(0, space);
+				final Map<String, String> arguments = parseArguments(space < 0 ? "" : line.substring(space + 1));
+				if (command.equals("quit"))
+					break;
+
+				try
+				{
+					execute(command, arguments);
+				}
+				catch (final IllegalArgumentException e)
+				{
+					send("error message=\"" + e.getMessage() + "\"");
+				}
+			}
+		}
+		finally
+		{
+			stop();
+			if (isShared)
+				SHARED_ENGINES.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Executes a single command.
+	 *
+	 * @param command   the name of the command
+	 * @param arguments the arguments of the command, with <code>null</code> values for flags
+	 * @throws IllegalArgumentException if the command or its arguments are invalid
+	 */
+	private void execute(String command, Map<String, String> arguments)
+	{
+		switch (command)
+		{
+			case "hub":
+				send("id name=AlphaBetaCheckers version=1.0 author=\"Mohammad Alali\"");
+				send("wait");
+				break;
+			case "init":
+				send("ready");
+				break;
+			case "set-param":
+				// There are no parameters to set
+				break;
+			case "new-game":
+				stop();
+				// The other engines keep using the shared table, whose old entries go stale by themselves
+				if (!isShared)
+					table.clear();
+				break;
+			case "pos":
+				stop();
+				position = parsePosition(arguments);
+				break;
+			case "level":
+				parseLevel(arguments);
+				break;
+			case "go":
+				stop();
+				startSearch(arguments.containsKey("ponder"), arguments.containsKey("analyze"));
+				break;
+			case "ping":
+				send("pong");
+				break;
+			case "ponder-hit":
+				ponderHit();
+				break;
+			case "stop":
+				stop();
+				break;
+			default:
+				throw new IllegalArgumentException("unknown command " + command);
+		}
+	}
+
+	/**
+	 * Splits the arguments of a command into <code>key=value</code> pairs, where values may be quoted, and flags without a value.
+	 *
+	 * @param text the arguments of the command
+	 * @return the arguments in order, with <code>null</code> values for flags
+	 */
+	private static Map<String, String> parseArguments(String text)
+	{
+		final Map<String, String> arguments = new LinkedHashMap<>();
+		int i = 0;
+		while (i < text.length())
+		{
+			if (text.charAt(i) == ' ')
+			{
+				i++;
+				continue;
+			}
+
+			int end = i;
+			while (end < text.length() && text.charAt(end) != ' ' && text.charAt(end) != '=')
+				end++;
+			final String key = text.substring(i, end);
+			if (end >= text.length() || text.charAt(end) != '=')
+			{
+				arguments.put(key, null);
+				i = end;
+				continue;
+			}
+
+			int start = end + 1;
+			final boolean isQuoted = start < text.length() && text.charAt(start) == '"';
+			if (isQuoted)
+				start++;
+			end = start;
+			while (end < text.length() && (isQuoted ? text.charAt(end) != '"' : text.charAt(end) != ' '))
+				end++;
+			arguments.put(key, text.substring(start, end));
+			i = isQuoted ? end + 1 : end;
+		}
+		return arguments;
+	}
+
+	/**
+	 * Parses the arguments of <code>pos</code>: the position, or <code>start</code> for the initial one, and the moves played from it.
+	 *
+	 * @param arguments the arguments of the command
+	 * @return the position after the moves
+	 * @throws IllegalArgumentException if the position or any move is invalid
+	 */
+	private static Position parsePosition(Map<String, String> arguments)
+	{
+		final StateBoard board;
+		final String text = arguments.get("pos");
+		if (text == null || arguments.containsKey("start"))
+			board = StateBoard.initial();
+		else
+		{
+			if (text.length() != 33)
+				throw new IllegalArgumentException("position must have a side to move and 32 squares, got " + text);
+
+			board = new StateBoard();
+			board.isBlackTurn = text.charAt(0) == 'B';
+			for (int square = 1; square <= 32; square++)
+			{
+				final char c = text.charAt(square);
+				if (!Problem.placePiece(board, c, 1L << PdnGame.toIndex(square)) && c != 'e')
+					throw new IllegalArgumentException("invalid square " + c);
+			}
+			board.markAsDirty();
+		}
+
+		final String moves = arguments.get("moves");
+		if (moves != null)
+		{
+			for (final String move : moves.trim().split("\\s+"))
+			{
+				if (move.isEmpty())
+					continue;
+
+				final Action action = PdnGame.resolve(board, move);
+				if (action == null)
+					throw new IllegalArgumentException("invalid move " + move);
+				board.executeAction(action);
+			}
+		}
+		return Position.of(board);
+	}
+
+	/**
+	 * Parses the arguments of <code>level</code>. Every command replaces the time controls as a whole, so controls that are not given are reset to unset.
+	 *
+	 * @param arguments the arguments of the command
+	 * @throws IllegalArgumentException if a value is not a number
+	 */
+	private void parseLevel(Map<String, String> arguments)
+	{
+		levelDepth = 0;
+		levelMoveTime = 0;
+		levelTime = 0;
+		levelIncrement = 0;
+		levelMoves = 0;
+		isLevelInfinite = false;
+		try
+		{
+			for (final Map.Entry<String, String> argument : arguments.entrySet())
+			{
+				switch (argument.getKey())
+				{
+					case "depth":
+						levelDepth = Integer.parseInt(argument.getValue());
+						break;
+					case "move-time":
+						levelMoveTime = Double.parseDouble(argument.getValue());
+						break;
+					case "time":
+						levelTime = Double.parseDouble(argument.getValue());
+						break;
+					case "inc":
+						levelIncrement = Double.parseDouble(argument.getValue());
+						break;
+					case "moves":
+						levelMoves = Integer.parseInt(argument.getValue());
+						break;
+					case "infinite":
+						isLevelInfinite = true;
+						break;
+					default:
+						break;
+				}
+			}
+		}
+		catch (final NumberFormatException | NullPointerException e)
+		{
+			throw new IllegalArgumentException("invalid level " + arguments);
+		}
+	}
+
+	/**
+	 * Calculates the time of the current move from the time controls.
+	 *
+	 * @return the time in seconds, or infinity if the search only stops on <code>stop</code>
+	 */
+	private double getMoveTime()
+	{
+		if (isLevelInfinite)
+			return Double.POSITIVE_INFINITY;
+		if (levelMoveTime > 0)
+			return levelMoveTime;
+		if (levelTime > 0)
+		{
+			final int moves = levelMoves > 0 ? levelMoves : Constants.HUB_MOVES_TO_GO;
+			return Math.min(levelTime / moves + levelIncrement, levelTime * 0.5);
+		}
+		return levelDepth > 0 ? Double.POSITIVE_INFINITY : Constants.HUB_DEFAULT_MOVE_TIME;
+	}
+
+	/**
+	 * Starts searching the current position.
+	 *
+	 * @param isPonder  whether the search is on the opponent's time, so it only starts its clock on <code>ponder-hit</code>
+	 * @param isAnalyze whether the search only stops on <code>stop</code>
+	 */
+	private void startSearch(boolean isPonder, boolean isAnalyze)
+	{
+		final int maxDepth = levelDepth > 0 && !isAnalyze ? Math.min(levelDepth, Constants.HUB_MAX_DEPTH) : Constants.HUB_MAX_DEPTH;
+		final Search newSearch = new Search(position, maxDepth, isPonder || isAnalyze);
+		search = newSearch;
+		if (!isPonder && !isAnalyze)
+			newSearch.startClock(getMoveTime());
+
+		// On the shared table, a new generation once per round of moves of all its engines
+		if (isShared)
+			table.startSearch(Math.max(SHARED_ENGINES.get(), 1));
+		else
+			table.nextGeneration();
+		newSearch.thread.start();
+	}
+
+	/**
+	 * Starts the clock of a search on the opponent's time, since the opponent played the expected move.
+	 */
+	private void ponderHit()
+	{
+		final Search current = search;
+		if (current != null && current.isPonder)
+		{
+			current.isPonder = false;
+			if (current.isFinished)
+				current.thread.interrupt();
+			else
+				current.startClock(getMoveTime());
+		}
+	}
+
+	/**
+	 * Stops the current search, if any, and waits for it to send its move.
+	 */
+	private void stop()
+	{
+		final Search current = search;
+		search = null;
+		if (current == null)
+			return;
+
+		current.isPonder = false;
+		current.thread.interrupt();
+		try
+		{
+			current.thread.join();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Sends a single reply.
+	 *
+	 * @param line the reply
+	 */
+	private void send(String line)
+	{
+		synchronized (output)
+		{
+			output.println(line);
+			output.flush();
+		}
+	}
+
+	/**
+	 * Follows the best children stored in the table from the specified position, for a principal variation.
+	 *
+	 * @param position the position after the best move
+	 * @param depth    the max number of moves to follow
+	 * @return the moves in PDN
+	 */
+	private List<String> getPrincipalVariation(Position position, int depth)
+	{
+		final List<String> moves = new ArrayList<>();
+		for (int ply = 0; ply < depth; ply++)
+		{
+			final long entry = table.probe(position.getZobristKey());
+			if (entry == TranspositionTable.MISS || TranspositionTable.getBestChild(entry) == TranspositionTable.NO_CHILD)
+				break;
+
+			final List<Position> children = position.children();
+			final int bestChild = TranspositionTable.getBestChild(entry);
+			if (bestChild >= children.size())
+				break;
+
+			final Action action = findAction(position, children.get(bestChild));
+			if (action == null)
+				break;
+			moves.add(PdnGame.toPdn(action));
+			position = children.get(bestChild);
+		}
+		return moves;
+	}
+
+	/**
+	 * Finds the action that leads from the specified position to the specified child.
+	 *
+	 * @param position the parent position
+	 * @param child    the child position
+	 * @return the action, or <code>null</code> if none leads to the child
+	 */
+	private static Action findAction(Position position, Position child)
+	{
+		for (final Action action : position.toStateBoard().generate())
+		{
+			final Position next = position.play(action);
+			if (next.blacks == child.blacks && next.whites == child.whites && next.kings == child.kings)
+				return action;
+		}
+		return null;
+	}
+
+	/**
+	 * The <code>Search</code> class is a single search of the engine, from <code>go</code> until its move is sent.
+	 */
+	private final class Search
+	{
+		/**
+		 * The thread running the search.
+		 */
+		final Thread thread;
+
+		/**
+		 * Whether the search waits for <code>stop</code>, or for <code>ponder-hit</code> to start its clock, before sending its move.
+		 */
+		volatile boolean isPonder;
+
+		/**
+		 * Whether the search is done and only waits to send its move.
+		 */
+		volatile boolean isFinished = false;
+
+		/**
+		 * The timer that stops the search, or <code>null</code> if not started.
+		 */
+		private ScheduledFuture<?> clock = null;
+
+		/**
+		 * Creates a search of the specified position.
+		 *
+		 * @param root     the position to search
+		 * @param maxDepth the max depth of the search
+		 * @param isPonder whether the search waits for <code>stop</code> or <code>ponder-hit</code> before sending its move
+		 */
+		Search(Position root, int maxDepth, boolean isPonder)
+		{
+			this.isPonder = isPonder;
+			this.thread = new Thread(() -> run(root, maxDepth), "Hub search");
+			this.thread.setDaemon(true);
+		}
+
+		/**
+		 * Stops the search after the specified time.
+		 *
+		 * @param seconds the time in seconds, or infinity to never stop it
+		 */
+		synchronized void startClock(double seconds)
+		{
+			if (Double.isInfinite(seconds))
+				return;
+			clock = TIMER.schedule(thread::interrupt, (long) (seconds * Constants.SEC_TO_NANO), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Searches the position until the max depth, the time runs out or <code>stop</code>, then sends the move.
+		 *
+		 * @param root     the position to search
+		 * @param maxDepth the max depth of the search
+		 */
+		private void run(Position root, int maxDepth)
+		{
+			final List<? extends Action> actions = root.toStateBoard().generate();
+			if (actions.isEmpty())
+			{
+				send("error message=\"no legal moves\"");
+				return;
+			}
+
+			final long startTime = System.nanoTime();
+			final double sign = root.isBlackTurn ? 1 : -1;
+			int bestIndex = 0;
+			try
+			{
+				for (int depth = 1; depth <= maxDepth && actions.size() > 1; depth++)
+				{
+					// From the side to move's point of view, the best action of the previous depth first
+					double alpha = Double.NEGATIVE_INFINITY;
+					int depthBestIndex = bestIndex;
+					for (int n = -1; n < actions.size(); n++)
+					{
+						final int i = n < 0 ? bestIndex : n;
+						if (n >= 0 && i == bestIndex)
+							continue;
+
+						final double value = sign * Minimax.searchValue(root.play(actions.get(i)), depth - 1, sign > 0 ? alpha : Double.NEGATIVE_INFINITY,
+								sign > 0 ? Double.POSITIVE_INFINITY : -alpha, table);
+						if (value > alpha)
+						{
+							alpha = value;
+							depthBestIndex = i;
+						}
+					}
+					bestIndex = depthBestIndex;
+
+					final long elapsed = System.nanoTime() - startTime;
+					final Position next = root.play(actions.get(bestIndex));
+					final List<String> principalVariation = getPrincipalVariation(next, depth - 1);
+					principalVariation.add(0, PdnGame.toPdn(actions.get(bestIndex)));
+					send(String.format("info depth=%d score=%.2f time=%.3f pv=\"%s\"", depth, alpha, elapsed * Constants.NANO_TO_SEC, String.join(" ", principalVariation)));
+				}
+			}
+			catch (final CancellationException e)
+			{
+				// Stopped or out of time, keep the last complete depth
+			}
+
+			// Searches on the opponent's time only answer once stopped or hit
+			synchronized (this)
+			{
+				if (clock != null)
+					clock.cancel(false);
+			}
+			isFinished = true;
+			while (isPonder && !Thread.interrupted())
+			{
+				try
+				{
+					Thread.sleep(Long.MAX_VALUE);
+				}
+				catch (final InterruptedException e)
+				{
+					break;
+				}
+			}
+
+			final Action best = actions.get(bestIndex);
+			final List<String> principalVariation = getPrincipalVariation(root.play(best), 1);
+			send("done move=" + PdnGame.toPdn(best) + (principalVariation.isEmpty() ? "" : " ponder=" + principalVariation.get(0)));
+		}
+	}
+}
@@ -59,6 +59,16 @@ public final class JumpAction implements Action
 	 */
 	private int snapshotStatePlys;
 
+	/**
+	 * A snapshot of the board's piece-square sum. This is needed for rollback using {@link #undo(StateBoard)}.
+	 */
+	private double snapshotPieceSquareScore;
+
+	/**
+	 * A snapshot of the board's opening piece-square sum. This is needed for rollback using {@link #undo(StateBoard)}.
+	 */
+	private double snapshotPieceSquareOpeningScore;
+
 	/**
 	 * The bitboard position of the start position.
 	 */
@@ -98,6 +108,8 @@ public final class JumpAction implements Action
 		snapshotPawnWasKing = false;
 		snapshotVictimWasKing = false;
 		snapshotStatePlys = 0;
+		snapshotPieceSquareScore = 0;
+		snapshotPieceSquareOpeningScore = 0;
 
 		fromPosition = 1L << from;
 		victimPosition = 1L << victim;
@@ -131,6 +143,8 @@ public final class JumpAction implements Action
 		snapshotPawnWasKing = ((board.kings >> from) & 1L) != 0L;
 		snapshotVictimWasKing = ((board.kings >> victim) & 1L) != 0L;
 		snapshotStatePlys = board.plysSinceLastCrownOrCapture;
+		snapshotPieceSquareScore = board.pieceSquareScore;
+		snapshotPieceSquareOpeningScore = board.pieceSquareOpeningScore;
 
 		// Clear king on all positions
 		board.kings &= ~fromPosition;
@@ -160,6 +174,26 @@ public final class JumpAction implements Action
 			board.kings |= toPosition;
 
 		board.plysSinceLastCrownOrCapture = 0;
+
+		// Update the piece-square sums
+		final int fromKind = PieceSquareTable.kind(isBlack, snapshotPawnWasKing);
+		final int victimKind = PieceSquareTable.kind(!isBlack, snapshotVictimWasKing);
+		final int toKind = PieceSquareTable.kind(isBlack, isKing || shouldCrown);
+		board.pieceSquareScore += PieceSquareTable.SCORES[toKind][to] - PieceSquareTable.SCORES[fromKind][from] - PieceSquareTable.SCORES[victimKind][victim];
+		board.pieceSquareOpeningScore += PieceSquareTable.OPENING_SCORES[toKind][to] - PieceSquareTable.OPENING_SCORES[fromKind][from] - PieceSquareTable.OPENING_SCORES[victimKind][victim];
+	}
+
+	/**
+	 * Derives the position that results from the jump action on the specified position.
+	 * 
+	 * @param position the position to apply this jump action to
+	 * @return the resulting position
+	 * @see Position#jump(int, int, int, boolean, boolean)
+	 */
+	@Override
+	public Position derive(Position position)
+	{
+		return position.jump(from, victim, to, isBlack, isKing);
 	}
 
 	/**
@@ -187,6 +221,8 @@ public final class JumpAction implements Action
 
 		// Retrieve snapshot
 		board.plysSinceLastCrownOrCapture = snapshotStatePlys;
+		board.pieceSquareScore = snapshotPieceSquareScore;
+		board.pieceSquareOpeningScore = snapshotPieceSquareOpeningScore;
 
 		// Clear king on all positions
 		board.kings &= ~fromPosition;
@@ -0,0 +1,178 @@
+package improved;
+
+/**
+ * The <code>MatchStatistics</code> class accumulates the results of a match from the first engine's point of view, and estimates the Elo difference between the two engines. It also computes the
+ * log-likelihood ratio of the sequential probability ratio test (SPRT), using the normal approximation of the score per game.
+ *
+ * @author Mohammad Alali
+ * @see Tournament
+ */
+public final class MatchStatistics
+{
+	/**
+	 * The number of standard deviations of the 95% confidence interval.
+	 */
+	private static final double CONFIDENCE_95 = 1.959964;
+
+	/**
+	 * The number of games won by the first engine.
+	 */
+	private int wins;
+
+	/**
+	 * The number of drawn games.
+	 */
+	private int draws;
+
+	/**
+	 * The number of games lost by the first engine.
+	 */
+	private int losses;
+
+	/**
+	 * Adds the result of a game.
+	 *
+	 * @param result the result from the first engine's point of view (<code>1</code> win, <code>0.5</code> draw, <code>0</code> loss)
+	 */
+	public void add(double result)
+	{
+		if (result > 0.5)
+			wins++;
+		else if (result < 0.5)
+			losses++;
+		else
+			draws++;
+	}
+
+	/**
+	 * @return the number of games played
+	 */
+	public int getGames()
+	{
+		return wins + draws + losses;
+	}
+
+	/**
+	 * @return the number of games won by the first engine
+	 */
+	public int getWins()
+	{
+		return wins;
+	}
+
+	/**
+	 * @return the number of drawn games
+	 */
+	public int getDraws()
+	{
+		return draws;
+	}
+
+	/**
+	 * @return the number of games lost by the first engine
+	 */
+	public int getLosses()
+	{
+		return losses;
+	}
+
+	/**
+	 * @return the mean score (0-1) of the first engine, or 0.5 if no games were played
+	 */
+	public double getScore()
+	{
+		final int games = getGames();
+		return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+	}
+
+	/**
+	 * @return the variance of the score per game, or 0 if no games were played
+	 */
+	public double getVariance()
+	{
+		final int games = getGames();
+		if (games == 0)
+			return 0;
+
+		final double score = getScore();
+		return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score) + losses * score * score) / games;
+	}
+
+	/**
+	 * @return the estimated Elo difference of the first engine over the second
+	 */
+	public double getElo()
+	{
+		return toElo(getScore());
+	}
+
+	/**
+	 * @return the half-width of the 95% confidence interval of {@link #getElo()}
+	 */
+	public double getEloError()
+	{
+		final int games = getGames();
+		if (games == 0)
+			return Double.POSITIVE_INFINITY;
+
+		final double margin = CONFIDENCE_95 * Math.sqrt(getVariance() / games);
+		return (toElo(getScore() + margin) - toElo(getScore() - margin)) / 2;
+	}
+
+	/**
+	 * Computes the log-likelihood ratio of the hypothesis that the Elo difference is <code>elo1</code> against the hypothesis that it is <code>elo0</code>. Half a game is added to every outcome so
+	 * that a one-sided match (such as only wins) does not have a variance of 0.
+	 *
+	 * @param elo0 the Elo difference of the null hypothesis
+	 * @param elo1 the Elo difference of the alternative hypothesis
+	 * @return the log-likelihood ratio, or 0 if no games were played
+	 */
+	public double getLogLikelihoodRatio(double elo0, double elo1)
+	{
+		if (getGames() == 0)
+			return 0;
+
+		final double w = wins + 0.5;
+		final double d = draws + 0.5;
+		final double l = losses + 0.5;
+		final double games = w + d + l;
+		final double score = (w + 0.5 * d) / games;
+		final double variance = (w * (1 - score) * (1 - score) + d * (0.5 - score) * (0.5 - score) + l * score * score) / games;
+
+		final double score0 = toScore(elo0);
+		final double score1 = toScore(elo1);
+		return (score1 - score0) * (2 * score - score0 - score1) * games / (2 * variance);
+	}
+
+	/**
+	 * Converts a mean score into an Elo difference. The score is clamped so that a perfect score does not produce an infinite difference.
+	 *
+	 * @param score the mean score (0-1)
+	 * @return the Elo difference
+	 */
+	public static double toElo(double score)
+	{
+		final double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+		return -400 * Math.log10(1 / clamped - 1);
+	}
+
+	/**
+	 * Converts an Elo difference into the expected mean score.
+	 *
+	 * @param elo the Elo difference
+	 * @return the mean score (0-1)
+	 */
+	public static double toScore(double elo)
+	{
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * @return a summary of the results and the estimated Elo difference
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("Games = %d (+%d =%d -%d), score = %.4f, Elo = %+.1f +/- %.1f", getGames(), wins, draws, losses, getScore(), getElo(), getEloError());
+	}
+}
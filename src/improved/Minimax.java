@@ -1,6 +1,11 @@
 package improved;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 /**
  * The <code>Minimax</code> class is an implementation of the <b>Alpha-Beta Minimax</b> algorithm for the game of English Checkers.
@@ -18,12 +23,68 @@ public final class Minimax
 	{}
 
 	/**
-	 * The original team of the maximizing player.
+	 * The deadline of searches that only stop when the calling thread is interrupted.
 	 */
-	private static boolean isOnBlackTeam = false;
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
 
 	/**
-	 * Initiates a <b>Alpha-Beta Minimax</b> search for the specified team with the specified depth.
+	 * The cache of static evaluations, separate from any search results so leaf evaluations never evict them.
+	 * 
+	 * @see #evaluateState(StateBoard, int, boolean)
+	 */
+	private static EvaluationCache evaluationCache = new EvaluationCache(Constants.EVAL_CACHE_SIZE_BITS);
+
+	/**
+	 * The number of positions visited by the copy-make search since the program started, across all threads.
+	 * 
+	 * @see #recursive(Position, int, double, double, boolean, boolean, long)
+	 */
+	private static final LongAdder nodeCount = new LongAdder();
+
+	/**
+	 * The number of enhanced transposition cutoffs made by the table search since the program started, across all threads.
+	 * 
+	 * @see #recursive(Position, int, double, double, TranspositionTable, long)
+	 */
+	private static final LongAdder etcCutoffCount = new LongAdder();
+
+	/**
+	 * @return the cache of static evaluations, for its hit statistics
+	 */
+	public static EvaluationCache getEvaluationCache()
+	{
+		return evaluationCache;
+	}
+
+	/**
+	 * @return the number of positions visited by the copy-make search since the program started, across all threads
+	 */
+	public static long getNodeCount()
+	{
+		return nodeCount.sum();
+	}
+
+	/**
+	 * @return the number of enhanced transposition cutoffs made by the table search since the program started, across all threads
+	 */
+	public static long getEtcCutoffCount()
+	{
+		return etcCutoffCount.sum();
+	}
+
+	/**
+	 * Replaces the cache of static evaluations with an empty one of <code>2^sizeBits</code> slots.
+	 * 
+	 * @param sizeBits the base-2 logarithm of the number of slots
+	 */
+	public static void setEvaluationCacheSize(int sizeBits)
+	{
+		evaluationCache = new EvaluationCache(sizeBits);
+	}
+
+	/**
+	 * Initiates a <b>Alpha-Beta Minimax</b> search for the specified team with the specified depth, until the remaining time of <code>AgentTimer</code> is less than
+	 * {@link Constants#URGENCY_TIME}.
 	 * 
 	 * @param board       the initial board state to search from
 	 * @param isBlackTurn the team of the maximizing player
@@ -32,8 +93,25 @@ public final class Minimax
 	 */
 	public static Action search(StateBoard board, boolean isBlackTurn, int depth)
 	{
-		System.out.println("depth = " + depth);
-		Minimax.isOnBlackTeam = isBlackTurn;
+		return search(board, isBlackTurn, depth, AgentTimer.getDeadline(Constants.URGENCY_TIME, 1), true);
+	}
+
+	/**
+	 * Initiates a <b>Alpha-Beta Minimax</b> search for the specified team with the specified depth, until the specified deadline. Only the specified board is changed, and restored, so boards of
+	 * independent problems can be searched concurrently.
+	 * 
+	 * @param board       the initial board state to search from
+	 * @param isBlackTurn the team of the maximizing player
+	 * @param depth       the max depth of the search
+	 * @param deadline    the {@link System#nanoTime()} at which the search stops deepening and evaluates the current boards
+	 * @param isVerbose   whether to print the depth and the value of every root action
+	 * @return the action computed by the search, or <code>null</code> if the deadline passed before any action was searched
+	 * @see Agent#solve(Problem, int, java.util.function.DoubleSupplier)
+	 */
+	public static Action search(StateBoard board, boolean isBlackTurn, int depth, long deadline, boolean isVerbose)
+	{
+		if (isVerbose)
+			System.out.println("depth = " + depth);
 
 		double bestValue = Double.NEGATIVE_INFINITY;
 		Action bestAction = null;
@@ -46,12 +124,12 @@ public final class Minimax
 			for (int i = 0; i < jumpActionsSize; i++)
 			{
 				// Abort if short on time
-				if (AgentTimer.getRemainingTime() <= Constants.URGENCY_TIME)
+				if (System.nanoTime() - deadline >= 0)
 					break;
 
 				final ChainJumpAction jumpAction = jumpActions.get(i);
 				board.executeAction(jumpAction);
-				final double value = recursive(board, depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false);
+				final double value = recursive(board, depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, isBlackTurn, deadline);
 				board.undoAction(jumpAction);
 				if (value >= bestValue)
 				{
@@ -68,14 +146,15 @@ public final class Minimax
 			for (int i = 0; i < moveActionsSize; i++)
 			{
 				// Abort if short on time
-				if (AgentTimer.getRemainingTime() <= Constants.URGENCY_TIME)
+				if (System.nanoTime() - deadline >= 0)
 					break;
 
 				final MoveAction moveAction = moveActions.get(i);
 				board.executeAction(moveAction);
-				final double value = recursive(board, depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false);
+				final double value = recursive(board, depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, isBlackTurn, deadline);
 				board.undoAction(moveAction);
-				System.out.println(moveAction.getText() + " = " + value);
+				if (isVerbose)
+					System.out.println(moveAction.getText() + " = " + value);
 				if (value >= bestValue)
 				{
 					bestValue = value;
@@ -84,10 +163,373 @@ public final class Minimax
 			}
 		}
 
-		System.out.println("Best = " + bestAction.getText() + "\n");
+		if (isVerbose && bestAction != null)
+			System.out.println("Best = " + bestAction.getText() + "\n");
+		return bestAction;
+	}
+
+	/**
+	 * Initiates a <b>Alpha-Beta Minimax</b> search for the specified team with the specified depth, using the copy-make path over immutable <code>Position</code> values instead of executing and undoing
+	 * actions on the board. The root actions are searched concurrently with a full window each, exactly as {@link #search(StateBoard, boolean, int)} does sequentially. It searches until the remaining time of <code>AgentTimer</code> is less than {@link Constants#URGENCY_TIME}.
+	 * 
+	 * @param board       the initial board state to search from
+	 * @param isBlackTurn the team of the maximizing player
+	 * @param depth       the max depth of the search
+	 * @return the action computed by the search
+	 * @see Position
+	 */
+	public static Action searchCopyMake(StateBoard board, boolean isBlackTurn, int depth)
+	{
+		return searchCopyMake(board, isBlackTurn, depth, AgentTimer.getDeadline(Constants.URGENCY_TIME, getSearchThreads()), true);
+	}
+
+	/**
+	 * Initiates the search of {@link #searchCopyMake(StateBoard, boolean, int)} until the specified deadline.
+	 * 
+	 * @param board       the initial board state to search from
+	 * @param isBlackTurn the team of the maximizing player
+	 * @param depth       the max depth of the search
+	 * @param deadline    the {@link System#nanoTime()} at which the search stops deepening and evaluates the current positions
+	 * @param isVerbose   whether to print the depth and the chosen action
+	 * @return the action computed by the search, or <code>null</code> if the deadline passed before any action was searched
+	 * @see #getSearchThreads()
+	 */
+	public static Action searchCopyMake(StateBoard board, boolean isBlackTurn, int depth, long deadline, boolean isVerbose)
+	{
+		if (isVerbose)
+			System.out.println("depth = " + depth);
+
+		final List<? extends Action> actions = board.getJumpActions().isEmpty() ? board.getMoveActions() : board.getJumpActions();
+		final Position root = Position.of(board);
+
+		final double[] values = IntStream.range(0, actions.size()).parallel().mapToDouble(i ->
+		{
+			// Abort if short on time
+			if (System.nanoTime() - deadline >= 0)
+				return Double.NaN;
+			return recursive(root.play(actions.get(i)), depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, isBlackTurn, deadline);
+		}).toArray();
+
+		double bestValue = Double.NEGATIVE_INFINITY;
+		Action bestAction = null;
+		for (int i = 0; i < values.length; i++)
+		{
+			if (!Double.isNaN(values[i]) && values[i] >= bestValue)
+			{
+				bestValue = values[i];
+				bestAction = actions.get(i);
+			}
+		}
+
+		if (isVerbose && bestAction != null)
+			System.out.println("Best = " + bestAction.getText() + "\n");
 		return bestAction;
 	}
 
+	/**
+	 * @return the number of threads of {@link #searchCopyMake(StateBoard, boolean, int, long, boolean)}: the parallel stream runs on the common pool, joined by the calling thread
+	 */
+	public static int getSearchThreads()
+	{
+		return ForkJoinPool.getCommonPoolParallelism() + 1;
+	}
+
+	/**
+	 * Searches the specified position to the specified depth on the calling thread, using the copy-make path. Unlike the other searches, it does not depend on <code>AgentTimer</code> or any other
+	 * shared state, so independent games can be searched concurrently.
+	 * 
+	 * @param root     the position to search from
+	 * @param depth    the max depth of the search
+	 * @param deadline the {@link System#nanoTime()} at which the search stops deepening and evaluates the current positions
+	 * @return the child position chosen by the search, or <code>null</code> if the current player has no valid actions
+	 * @see Tournament
+	 */
+	public static Position searchPosition(Position root, int depth, long deadline)
+	{
+		double bestValue = Double.NEGATIVE_INFINITY;
+		Position bestChild = null;
+
+		final List<Position> children = root.children();
+		final int size = children.size();
+		for (int i = 0; i < size; i++)
+		{
+			final double value = recursive(children.get(i), depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, root.isBlackTurn, deadline);
+			if (value >= bestValue)
+			{
+				bestValue = value;
+				bestChild = children.get(i);
+			}
+		}
+
+		return bestChild;
+	}
+
+	/**
+	 * Computes the value of the specified position for the specified team, using the copy-make path on the calling thread. Like {@link #searchPosition(Position, int, long)}, it does not depend on
+	 * any shared state.
+	 * 
+	 * @param position      the position to search from
+	 * @param depth         the max depth of the search
+	 * @param isOnBlackTeam the team of the maximizing player
+	 * @param deadline      the {@link System#nanoTime()} at which the search stops deepening and evaluates the current positions
+	 * @return the value of the position for the specified team
+	 * @see DatasetGenerator
+	 */
+	public static double searchValue(Position position, int depth, boolean isOnBlackTeam, long deadline)
+	{
+		return recursive(position, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, position.isBlackTurn == isOnBlackTeam, isOnBlackTeam, deadline);
+	}
+
+	/**
+	 * Computes the value of the specified position from Black's point of view, with Black maximizing and White minimizing. Subtree results are stored in and reused from the specified table, so
+	 * searching the same positions again, deeper or after a move, starts from the previous results. The search runs until the depth is reached, unless the calling thread is interrupted. Draws are
+	 * worth nothing, so the value of a colour-flipped position is the negated value, and the table can store both under one canonical key.
+	 * 
+	 * @param position the position to search from
+	 * @param depth    the max depth of the search
+	 * @param alpha    the lower bound of the window
+	 * @param beta     the upper bound of the window
+	 * @param table    the table of search results, which may be shared between searches
+	 * @return the value of the position from Black's point of view
+	 * @throws CancellationException if the calling thread is interrupted, in which case nothing of the unfinished subtrees is stored
+	 * @see TranspositionTable
+	 */
+	public static double searchValue(Position position, int depth, double alpha, double beta, TranspositionTable table)
+	{
+		return recursive(position, depth, alpha, beta, table, NO_DEADLINE);
+	}
+
+	/**
+	 * Computes the value of the specified position from Black's point of view like {@link #searchValue(Position, int, double, double, TranspositionTable)}, but is also cancelled at the specified
+	 * deadline.
+	 * 
+	 * @param position the position to search from
+	 * @param depth    the max depth of the search
+	 * @param alpha    the lower bound of the window
+	 * @param beta     the upper bound of the window
+	 * @param table    the table of search results, which may be shared between searches
+	 * @param deadline the {@link System#nanoTime()} at which the search is cancelled
+	 * @return the value of the position from Black's point of view
+	 * @throws CancellationException if the calling thread is interrupted or the deadline passed, in which case nothing of the unfinished subtrees is stored
+	 */
+	public static double searchValue(Position position, int depth, double alpha, double beta, TranspositionTable table, long deadline)
+	{
+		return recursive(position, depth, alpha, beta, table, deadline);
+	}
+
+	/**
+	 * Chooses the next position of the specified game by an iterative deepening of {@link #searchValue(Position, int, double, double, TranspositionTable)} up to the specified depth. A depth that is
+	 * not complete by the deadline is discarded, and the choice of the last complete depth is kept. The table may be shared with other searches, including those of other games.
+	 * 
+	 * @param root     the position to search from
+	 * @param depth    the max depth of the search
+	 * @param deadline the {@link System#nanoTime()} at which the search stops
+	 * @param table    the table of search results
+	 * @return the child position chosen by the search, or <code>null</code> if the current player has no valid actions
+	 * @see TournamentEngine
+	 */
+	public static Position searchPosition(Position root, int depth, long deadline, TranspositionTable table)
+	{
+		final List<Position> children = root.children();
+		if (children.isEmpty())
+			return null;
+
+		final boolean maximizingPlayer = root.isBlackTurn;
+		int bestIndex = 0;
+		try
+		{
+			for (int d = 1; d <= depth; d++)
+			{
+				double alpha = Double.NEGATIVE_INFINITY;
+				double beta = Double.POSITIVE_INFINITY;
+				double bestValue = maximizingPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+				int depthBestIndex = bestIndex;
+
+				// The best child of the previous depth goes first
+				for (int n = -1; n < children.size(); n++)
+				{
+					final int i = n < 0 ? bestIndex : n;
+					if (n >= 0 && i == bestIndex)
+						continue;
+
+					final double value = recursive(children.get(i), d - 1, alpha, beta, table, deadline);
+					if (maximizingPlayer ? value > bestValue : value < bestValue)
+					{
+						bestValue = value;
+						depthBestIndex = i;
+					}
+
+					if (maximizingPlayer)
+						alpha = Math.max(alpha, value);
+					else
+						beta = Math.min(beta, value);
+				}
+				bestIndex = depthBestIndex;
+			}
+		}
+		catch (final CancellationException e)
+		{
+			// Out of time, keep the last complete depth
+		}
+		return children.get(bestIndex);
+	}
+
+	/**
+	 * Represents the recursive part of {@link #searchValue(Position, int, double, double, TranspositionTable)}. The best child of the table is searched first, and the value returned is the best
+	 * value found even if outside of the window, so it can be stored as a bound. With at least {@link Constants#ETC_MIN_DEPTH} remaining depth, the table is first probed for every child, and a bound
+	 * of a child that already refutes the window is returned without searching, which is an enhanced transposition cutoff.
+	 * 
+	 * @param position the current position
+	 * @param depth    the remaining depth
+	 * @param alpha    the current alpha value
+	 * @param beta     the current beta value
+	 * @param table    the table of search results
+	 * @param deadline the {@link System#nanoTime()} at which the search is cancelled, or {@link #NO_DEADLINE}
+	 * @return the value of the subtree from this position, from Black's point of view
+	 * @throws CancellationException if the calling thread is interrupted or the deadline passed
+	 */
+	private static double recursive(Position position, int depth, double alpha, double beta, TranspositionTable table, long deadline)
+	{
+		if (Thread.currentThread().isInterrupted() || (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0))
+			throw new CancellationException();
+
+		nodeCount.increment();
+		final GameState gameState = position.getGameState();
+		if (depth <= 0 || gameState != GameState.Ongoing)
+		{
+			// Draws are worth nothing to either team, so a colour-flipped position is worth exactly the negated value, as the table assumes
+			final double value = gameState == GameState.Draw ? 0 : evaluate(position.blacks, position.whites, position.kings, gameState, depth, true);
+			return value + (0.5 - ThreadLocalRandom.current().nextDouble()) * Constants.EVAL_RANDOMNESS_WEIGHT * 2;
+		}
+
+		// Reuse a deep enough result, or at least its best child
+		final long key = position.getZobristKey();
+		final long entry = table.probe(key);
+		int bestChild = TranspositionTable.NO_CHILD;
+		if (entry != TranspositionTable.MISS)
+		{
+			bestChild = TranspositionTable.getBestChild(entry);
+			if (TranspositionTable.getDepth(entry) >= depth)
+			{
+				final double value = TranspositionTable.getValue(entry);
+				final int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && value >= beta) || (bound == TranspositionTable.UPPER && value <= alpha))
+					return value;
+			}
+		}
+
+		final boolean maximizingPlayer = position.isBlackTurn;
+		final double originalAlpha = alpha;
+		final double originalBeta = beta;
+		double bestValue = maximizingPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		int bestIndex = TranspositionTable.NO_CHILD;
+
+		final List<Position> children = position.children();
+		final int size = children.size();
+
+		// Enhanced transposition cutoff: a child already known to refute the window, through another move order, makes searching any of them pointless
+		if (depth >= Constants.ETC_MIN_DEPTH)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				final Position child = children.get(i);
+				final long childKey = key ^ Zobrist.delta(position.blacks ^ child.blacks, position.whites ^ child.whites, position.kings ^ child.kings) ^ Zobrist.BLACK_TURN_KEY;
+				final long childEntry = table.probe(childKey);
+				if (childEntry == TranspositionTable.MISS || TranspositionTable.getDepth(childEntry) < depth - 1)
+					continue;
+
+				final double value = TranspositionTable.getValue(childEntry);
+				final int bound = TranspositionTable.getBound(childEntry);
+				if (maximizingPlayer ? value >= beta && bound != TranspositionTable.UPPER : value <= alpha && bound != TranspositionTable.LOWER)
+				{
+					etcCutoffCount.increment();
+					table.store(key, value, depth, maximizingPlayer ? TranspositionTable.LOWER : TranspositionTable.UPPER, i);
+					return value;
+				}
+			}
+		}
+		for (int n = -1; n < size; n++)
+		{
+			// The best child of the table goes first, then the others in their usual order
+			final int i = n < 0 ? bestChild : n;
+			if (i >= size || (n >= 0 && i == bestChild))
+				continue;
+
+			final double value = recursive(children.get(i), depth - 1, alpha, beta, table, deadline);
+			if (maximizingPlayer ? value > bestValue : value < bestValue)
+			{
+				bestValue = value;
+				bestIndex = i;
+			}
+
+			if (maximizingPlayer)
+				alpha = Math.max(alpha, value);
+			else
+				beta = Math.min(beta, value);
+
+			// Alpha or beta cutoff
+			if (alpha >= beta)
+				break;
+		}
+
+		final int bound = bestValue <= originalAlpha ? TranspositionTable.UPPER : bestValue >= originalBeta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+		table.store(key, bestValue, depth, bound, bestIndex);
+		return bestValue;
+	}
+
+	/**
+	 * Represents the recursive part of the copy-make <b>Alpha-Beta Minimax</b> algorithm. Holds no shared state so it is safe to use concurrently.
+	 * 
+	 * @param position         the current position
+	 * @param depth            the remaining depth
+	 * @param alpha            the current alpha value
+	 * @param beta             the current beta value
+	 * @param maximizingPlayer the current player's turn
+	 * @param isOnBlackTeam    the team of the maximizing player
+	 * @param deadline         the {@link System#nanoTime()} at which the search stops deepening
+	 * @return the value of the subtree from this position
+	 * @see #recursive(StateBoard, int, double, double, boolean, boolean, long)
+	 */
+	private static double recursive(Position position, int depth, double alpha, double beta, boolean maximizingPlayer, boolean isOnBlackTeam, long deadline)
+	{
+		nodeCount.increment();
+		final GameState gameState = position.getGameState();
+		if (depth <= 0 || gameState != GameState.Ongoing || System.nanoTime() - deadline >= 0)
+		{
+			final double value = evaluate(position.blacks, position.whites, position.kings, gameState, depth, isOnBlackTeam);
+			return value + (0.5 - ThreadLocalRandom.current().nextDouble()) * Constants.EVAL_RANDOMNESS_WEIGHT * 2;
+		}
+
+		final List<Position> children = position.children();
+		final int size = children.size();
+		if (maximizingPlayer)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				alpha = Math.max(alpha, recursive(children.get(i), depth - 1, alpha, beta, false, isOnBlackTeam, deadline));
+
+				// Beta cutoff
+				if (alpha >= beta)
+					break;
+			}
+
+			return alpha;
+		}
+		else
+		{
+			for (int i = 0; i < size; i++)
+			{
+				beta = Math.min(beta, recursive(children.get(i), depth - 1, alpha, beta, true, isOnBlackTeam, deadline));
+
+				// Alpha cutoff
+				if (beta <= alpha)
+					break;
+			}
+
+			return beta;
+		}
+	}
+
 	/**
 	 * Represents the recursive part of the <b>Alpha-Beta Minimax</b> algorithm. It has been condensed into a single method with a <code>maximizingPlayer</code> flag.
 	 * 
@@ -96,12 +538,26 @@ public final class Minimax
 	 * @param alpha            the current alpha value
 	 * @param beta             the current beta value
 	 * @param maximizingPlayer the current player's turn
+	 * @param isOnBlackTeam    the team of the maximizing player
+	 * @param deadline         the {@link System#nanoTime()} at which the search stops deepening
 	 * @return the value of the subtree from this board state
 	 */
-	private static double recursive(StateBoard board, int depth, double alpha, double beta, boolean maximizingPlayer)
+	private static double recursive(StateBoard board, int depth, double alpha, double beta, boolean maximizingPlayer, boolean isOnBlackTeam, long deadline)
 	{
-		if (cutoffTest(board, depth))
-			return evaluateState(board, depth);
+		// Tracing is compiled out unless enabled, see SearchTrace
+		final long traceNode = Constants.TRACE_SEARCH ? SearchTrace.enter() : 0;
+		final double traceAlpha = alpha;
+		final double traceBeta = beta;
+		int traceChildren = 0;
+		Action traceMove = null;
+
+		if (cutoffTest(board, depth, deadline))
+		{
+			final double value = evaluateState(board, depth, isOnBlackTeam);
+			if (Constants.TRACE_SEARCH)
+				SearchTrace.exit(board, depth, maximizingPlayer, traceAlpha, traceBeta, value, -1, 0, null, traceNode);
+			return value;
+		}
 
 		if (maximizingPlayer)
 		{
@@ -114,8 +570,15 @@ public final class Minimax
 				{
 					final ChainJumpAction jumpAction = jumpActions.get(i);
 					board.executeAction(jumpAction);
-					alpha = Math.max(alpha, recursive(board, depth - 1, alpha, beta, false));
+					final double value = recursive(board, depth - 1, alpha, beta, false, isOnBlackTeam, deadline);
 					board.undoAction(jumpAction);
+					if (Constants.TRACE_SEARCH)
+					{
+						traceChildren = i + 1;
+						if (value > alpha)
+							traceMove = jumpAction;
+					}
+					alpha = Math.max(alpha, value);
 
 					// beta cutoff
 					if (alpha >= beta)
@@ -131,8 +594,15 @@ public final class Minimax
 				{
 					final MoveAction moveAction = moveActions.get(i);
 					board.executeAction(moveAction);
-					alpha = Math.max(alpha, recursive(board, depth - 1, alpha, beta, false));
+					final double value = recursive(board, depth - 1, alpha, beta, false, isOnBlackTeam, deadline);
 					board.undoAction(moveAction);
+					if (Constants.TRACE_SEARCH)
+					{
+						traceChildren = i + 1;
+						if (value > alpha)
+							traceMove = moveAction;
+					}
+					alpha = Math.max(alpha, value);
 
 					// Beta cutoff
 					if (alpha >= beta)
@@ -140,6 +610,8 @@ public final class Minimax
 				}
 			}
 
+			if (Constants.TRACE_SEARCH)
+				SearchTrace.exit(board, depth, true, traceAlpha, traceBeta, alpha, alpha >= beta ? traceChildren - 1 : -1, traceChildren, traceMove, traceNode);
 			return alpha;
 		}
 		else
@@ -153,8 +625,15 @@ public final class Minimax
 				{
 					final ChainJumpAction jumpAction = jumpActions.get(i);
 					board.executeAction(jumpAction);
-					beta = Math.min(beta, recursive(board, depth - 1, alpha, beta, true));
+					final double value = recursive(board, depth - 1, alpha, beta, true, isOnBlackTeam, deadline);
 					board.undoAction(jumpAction);
+					if (Constants.TRACE_SEARCH)
+					{
+						traceChildren = i + 1;
+						if (value < beta)
+							traceMove = jumpAction;
+					}
+					beta = Math.min(beta, value);
 
 					// alpha cutoff
 					if (beta <= alpha)
@@ -170,8 +649,15 @@ public final class Minimax
 				{
 					final MoveAction moveAction = moveActions.get(i);
 					board.executeAction(moveAction);
-					beta = Math.min(beta, recursive(board, depth - 1, alpha, beta, true));
+					final double value = recursive(board, depth - 1, alpha, beta, true, isOnBlackTeam, deadline);
 					board.undoAction(moveAction);
+					if (Constants.TRACE_SEARCH)
+					{
+						traceChildren = i + 1;
+						if (value < beta)
+							traceMove = moveAction;
+					}
+					beta = Math.min(beta, value);
 
 					// alpha cutoff
 					if (beta <= alpha)
@@ -179,21 +665,33 @@ public final class Minimax
 				}
 			}
 
+			if (Constants.TRACE_SEARCH)
+				SearchTrace.exit(board, depth, false, traceAlpha, traceBeta, beta, beta <= alpha ? traceChildren - 1 : -1, traceChildren, traceMove, traceNode);
 			return beta;
 		}
 	}
 
 	/**
-	 * Determines whether the given board state is a terminal node, either via the game state conditions or by the given depth. Also, this will consider the remaining time and abort when the remaining
-	 * time is less than {@link Constants#URGENCY_TIME}.
+	 * Determines whether the given board state is a terminal node, either via the game state conditions or by the given depth. Also, this will consider the remaining time and abort when the deadline
+	 * of the search passed.
 	 * 
-	 * @param board the current board state
-	 * @param depth the remaining depth
+	 * <p>
+	 * Above the leaves, the actions of the board are generated here so that the game state is derived from them, and the node then reads both from the caches of the board.
+	 * </p>
+	 * 
+	 * @param board    the current board state
+	 * @param depth    the remaining depth
+	 * @param deadline the {@link System#nanoTime()} at which the search stops deepening
 	 * @return true if to terminate search at from that board, false otherwise
+	 * @see StateBoard#generate()
 	 */
-	private static boolean cutoffTest(StateBoard board, int depth)
+	private static boolean cutoffTest(StateBoard board, int depth, long deadline)
 	{
-		return depth <= 0 || board.getGameState() != GameState.Ongoing || AgentTimer.getRemainingTime() <= Constants.URGENCY_TIME;
+		if (depth <= 0)
+			return true;
+
+		board.generate();
+		return board.getGameState() != GameState.Ongoing || System.nanoTime() - deadline >= 0;
 	}
 
 	/**
@@ -209,11 +707,86 @@ public final class Minimax
 	 * <li>Add a hint of randomness.</li>
 	 * </ol>
 	 * 
-	 * @param board the current board state
-	 * @param depth the remaining depth
+	 * @param board         the current board state
+	 * @param depth         the remaining depth
+	 * @param isOnBlackTeam the team of the maximizing player
+	 * @return an evaluation of the board state
+	 */
+	private static double evaluateState(StateBoard board, int depth, boolean isOnBlackTeam)
+	{
+		// Neither the ply counter nor the history is part of the key, so the draw conditions are checked before probing the cache
+		GameState gameState = GameState.Draw;
+		double staticScore = 0;
+		if (board.plysSinceLastCrownOrCapture < 100 && !board.isThreefoldRepetition())
+		{
+			final long key = board.getZobristKey();
+			final long entry = evaluationCache.probe(key);
+			if (entry != EvaluationCache.MISS)
+			{
+				gameState = EvaluationCache.getGameState(entry);
+				staticScore = EvaluationCache.getScore(entry);
+			}
+			else
+			{
+				gameState = board.getGameState();
+				if (gameState == GameState.Ongoing)
+					staticScore = getStaticScore(board.blacks, board.whites, board.kings, board.getPieceSquareScore(), board.getPieceSquareOpeningScore());
+				evaluationCache.store(key, gameState, staticScore);
+			}
+		}
+
+		double value = evaluate(gameState, staticScore, depth, isOnBlackTeam);
+
+		// 8. Add a hint of randomness
+		// Randomness factor to break ties in equivalent states
+		value += (0.5 - Constants.RANDOM.nextDouble()) * Constants.EVAL_RANDOMNESS_WEIGHT * 2;
+
+		return value;
+	}
+
+	/**
+	 * Returns the deterministic part of {@link #evaluateState(StateBoard, int, boolean)} for the specified bitboards, without the hint of randomness. Holds no shared state so it is safe to use concurrently.
+	 * 
+	 * @param blacks        the bitboard of all black pieces
+	 * @param whites        the bitboard of all white pieces
+	 * @param kings         the bitboard of all king pieces
+	 * @param gameState     the state of the game
+	 * @param depth         the remaining depth
+	 * @param isOnBlackTeam the team of the maximizing player
 	 * @return an evaluation of the board state
 	 */
-	private static double evaluateState(StateBoard board, int depth)
+	private static double evaluate(long blacks, long whites, long kings, GameState gameState, int depth, boolean isOnBlackTeam)
+	{
+		final double staticScore = (gameState == GameState.Ongoing) ? getStaticScore(blacks, whites, kings) : 0;
+		return evaluate(gameState, staticScore, depth, isOnBlackTeam);
+	}
+
+	/**
+	 * Returns the static score of an ongoing game from Black's point of view, the same score the search evaluates its leaves by. Holds no shared state so it is safe to use concurrently.
+	 * 
+	 * @param blacks the bitboard of all black pieces
+	 * @param whites the bitboard of all white pieces
+	 * @param kings  the bitboard of all king pieces
+	 * @return the static score from Black's point of view
+	 */
+	public static double getStaticScore(long blacks, long whites, long kings)
+	{
+		final double pieceSquareScore = PieceSquareTable.score(PieceSquareTable.SCORES, blacks, whites, kings);
+		final double pieceSquareOpeningScore = PieceSquareTable.score(PieceSquareTable.OPENING_SCORES, blacks, whites, kings);
+		return getStaticScore(blacks, whites, kings, pieceSquareScore, pieceSquareOpeningScore);
+	}
+
+	/**
+	 * Returns the evaluation of a board given its game state and its static score, without the hint of randomness.
+	 * 
+	 * @param gameState     the state of the game
+	 * @param staticScore   the static score from Black's point of view, only used when the game is ongoing
+	 * @param depth         the remaining depth
+	 * @param isOnBlackTeam the team of the maximizing player
+	 * @return an evaluation of the board state
+	 * @see #getStaticScore(long, long, long, double, double)
+	 */
+	private static double evaluate(GameState gameState, double staticScore, int depth, boolean isOnBlackTeam)
 	{
 		/*-
 		 * Evaluation:
@@ -235,51 +808,12 @@ public final class Minimax
 		// basically used for terminal states, where shallower states are scaled much more
 		// i.e, winning in 3 moves is better than winning in 30 moves
 		final double terminalStateDepthMultiplier = Math.max(1, depth);
-		final GameState gameState = board.getGameState();
 		double value = 0;
 
 		if (gameState == GameState.Ongoing)
 		{
-			// 3. Calculate the remaining pieces differential
-//			int blackHomeRowPieces = Long.bitCount(board.blacks & StateBoard.MASK_BLACK_HOME_ROW);
-//			int blackPotentialKings = Long.bitCount(board.blacks & ~board.kings & StateBoard.MASK_BLACK_POTENTIAL_KINGS_ROW);
-			int blackKings = Long.bitCount(board.blacks & board.kings);
-			int blackPawns = Long.bitCount(board.blacks);
-
-//			int whiteHomeRowPieces = Long.bitCount(board.whites & StateBoard.MASK_WHITE_HOME_ROW);
-//			int whitePotentialKings = Long.bitCount(board.whites & ~board.kings & StateBoard.MASK_WHITE_POTENTIAL_KINGS_ROW);
-			int whiteKings = Long.bitCount(board.whites & board.kings);
-			int whitePawns = Long.bitCount(board.whites);
-
-			// 3. Calculate the remaining pieces differential
-			// Compare pieces count
-			value += (blackPawns - whitePawns) * Constants.EVAL_PAWN_WEIGHT;
-//			if (blackPawns + whitePawns >= 12)
-//				value += (blackHomeRowPieces - whiteHomeRowPieces) * Constants.EVAL_PAWN_HOME_ROW_WEIGHT;
-//			value += (blackPotentialKings - whitePotentialKings) * Constants.EVAL_PAWN_ALMOST_KING_WEIGHT;
-			value += (blackKings - whiteKings) * Constants.EVAL_PAWN_KING_WEIGHT;
-
-			// 4. If I have more pieces, add the trading weight
-			// If I have 2 or more pieces, then trades are good for me.
-//			final int blackTotalPawns = blackPawns + blackHomeRowPieces + blackPotentialKings + blackKings;
-//			final int whiteTotalPawns = whitePawns + whiteHomeRowPieces + whitePotentialKings + whiteKings;
-//			if (blackTotalPawns - whiteTotalPawns >= Constants.EVAL_TRADE_REQ)
-//				value += Constants.EVAL_TRADE_WEIGHT;
-//			else if (whiteTotalPawns - blackTotalPawns >= Constants.EVAL_TRADE_REQ)
-//				value -= Constants.EVAL_TRADE_WEIGHT;
-
-			// 5. Calculate the number of blocked actions differential
-//			value += Math.signum(board.getNumBlockedPawnsDifferential()) * Constants.EVAL_FEWER_BLOCKED_PAWNS_BONUS;
-
-			// 6. Value center pieces more than non-center pieces.
-//			int blackCenterPieces = Long.bitCount(board.blacks & StateBoard.MASK_CENTER_MID);
-//			int whiteCenterPieces = Long.bitCount(board.whites & StateBoard.MASK_CENTER_MID);
-//			if (blackPawns + whitePawns >= 12)
-//				value += Math.signum(blackCenterPieces - whiteCenterPieces) * Constants.EVAL_POSITION_CENTER_BONUS;
-
 			// Negate value if original team is not black
-			if (!isOnBlackTeam)
-				value *= -1;
+			value = isOnBlackTeam ? staticScore : -staticScore;
 		}
 		else if (gameState == GameState.Draw)
 		{
@@ -300,9 +834,51 @@ public final class Minimax
 				value += Constants.EVAL_WIN_WEIGHT * terminalStateDepthMultiplier;
 		}
 
-		// 8. Add a hint of randomness
-		// Randomness factor to break ties in equivalent states
-		value += (0.5 - Constants.RANDOM.nextDouble()) * Constants.EVAL_RANDOMNESS_WEIGHT * 2;
+		return value;
+	}
+
+	/**
+	 * Returns the static score of an ongoing game from Black's point of view, based on the pieces on the board and their positions. This is the part of the evaluation that is stored in the
+	 * {@link EvaluationCache}.
+	 * 
+	 * @param blacks                  the bitboard of all black pieces
+	 * @param whites                  the bitboard of all white pieces
+	 * @param kings                   the bitboard of all king pieces
+	 * @param pieceSquareScore        the sum of {@link PieceSquareTable#SCORES} over all pieces
+	 * @param pieceSquareOpeningScore the sum of {@link PieceSquareTable#OPENING_SCORES} over all pieces
+	 * @return the static score from Black's point of view
+	 */
+	private static double getStaticScore(long blacks, long whites, long kings, double pieceSquareScore, double pieceSquareOpeningScore)
+	{
+		double value = 0;
+
+		// 3. Calculate the remaining pieces differential
+		final int blackKings = Long.bitCount(blacks & kings);
+		final int blackPawns = Long.bitCount(blacks);
+		final int whiteKings = Long.bitCount(whites & kings);
+		final int whitePawns = Long.bitCount(whites);
+
+		// Compare pieces count
+		value += (blackPawns - whitePawns) * EvaluationWeights.pawnWeight;
+		value += (blackKings - whiteKings) * EvaluationWeights.kingWeight;
+
+		// Potential kings, and while in the opening, home row and center pieces
+		// These are maintained incrementally by the actions, so cost nothing here
+		value += pieceSquareScore;
+		if (blackPawns + whitePawns >= Constants.EVAL_OPENING_MIN_PIECES)
+			value += pieceSquareOpeningScore;
+
+		// 4. If I have more pieces, add the trading weight
+		// If I have 2 or more pieces, then trades are good for me.
+//		final int blackTotalPawns = blackPawns + blackHomeRowPieces + blackPotentialKings + blackKings;
+//		final int whiteTotalPawns = whitePawns + whiteHomeRowPieces + whitePotentialKings + whiteKings;
+//		if (blackTotalPawns - whiteTotalPawns >= Constants.EVAL_TRADE_REQ)
+//			value += Constants.EVAL_TRADE_WEIGHT;
+//		else if (whiteTotalPawns - blackTotalPawns >= Constants.EVAL_TRADE_REQ)
+//			value -= Constants.EVAL_TRADE_WEIGHT;
+
+		// 5. Calculate the number of blocked actions differential
+//		value += Math.signum(board.getNumBlockedPawnsDifferential()) * Constants.EVAL_FEWER_BLOCKED_PAWNS_BONUS;
 
 		return value;
 	}
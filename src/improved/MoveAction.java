@@ -38,6 +38,16 @@ public final class MoveAction implements Action
 	 */
 	private int snapshotStatePlys;
 
+	/**
+	 * A snapshot of the board's piece-square sum. This is needed for rollback using {@link #undo(StateBoard)}.
+	 */
+	private double snapshotPieceSquareScore;
+
+	/**
+	 * A snapshot of the board's opening piece-square sum. This is needed for rollback using {@link #undo(StateBoard)}.
+	 */
+	private double snapshotPieceSquareOpeningScore;
+
 	/**
 	 * Creates a move action with the specified arguments.
 	 * 
@@ -55,6 +65,8 @@ public final class MoveAction implements Action
 
 		snapshotPawnWasKing = false;
 		snapshotStatePlys = 0;
+		snapshotPieceSquareScore = 0;
+		snapshotPieceSquareOpeningScore = 0;
 	}
 
 	/**
@@ -86,6 +98,8 @@ public final class MoveAction implements Action
 		// Capture snapshot
 		snapshotPawnWasKing = ((board.kings >> from) & 1L) != 0L;
 		snapshotStatePlys = board.plysSinceLastCrownOrCapture;
+		snapshotPieceSquareScore = board.pieceSquareScore;
+		snapshotPieceSquareOpeningScore = board.pieceSquareOpeningScore;
 
 		// Clear king on both positions
 		board.kings &= ~fromPosition;
@@ -121,6 +135,25 @@ public final class MoveAction implements Action
 				board.plysSinceLastCrownOrCapture = 0;
 			}
 		}
+
+		// Update the piece-square sums
+		final int fromKind = PieceSquareTable.kind(isBlack, snapshotPawnWasKing);
+		final int toKind = PieceSquareTable.kind(isBlack, (board.kings & toPosition) != 0L);
+		board.pieceSquareScore += PieceSquareTable.SCORES[toKind][to] - PieceSquareTable.SCORES[fromKind][from];
+		board.pieceSquareOpeningScore += PieceSquareTable.OPENING_SCORES[toKind][to] - PieceSquareTable.OPENING_SCORES[fromKind][from];
+	}
+
+	/**
+	 * Derives the position that results from the move action on the specified position.
+	 * 
+	 * @param position the position to apply this move action to
+	 * @return the resulting position
+	 * @see Position#move(int, int, boolean, boolean)
+	 */
+	@Override
+	public Position derive(Position position)
+	{
+		return position.move(from, to, isBlack, isKing);
 	}
 
 	/**
@@ -149,6 +182,8 @@ public final class MoveAction implements Action
 
 		// Retrieve snapshot
 		board.plysSinceLastCrownOrCapture = snapshotStatePlys;
+		board.pieceSquareScore = snapshotPieceSquareScore;
+		board.pieceSquareOpeningScore = snapshotPieceSquareOpeningScore;
 
 		// Clear king on both positions
 		board.kings &= ~fromPosition;
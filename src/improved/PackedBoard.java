@@ -0,0 +1,280 @@
+package improved;
+
+/**
+ * The <code>PackedBoard</code> class is a compact alternative to the 64-bit layout of <code>StateBoard</code>. Only the 32 playable squares are stored, so every bitboard fits into an
+ * <code>int</code>.
+ *
+ * <p>
+ * A playable square at 64-bit index <code>i</code> is stored at packed index <code>i / 2</code>, which means each row occupies 4 consecutive bits. A diagonal step is then a shift by 4 and, depending
+ * on the parity of the row, a shift by 3 or 5 restricted by an edge mask. Directions follow the naming of {@link StateBoard#NW_RSHIFT}, {@link StateBoard#NE_RSHIFT}, {@link StateBoard#SW_LSHIFT} and
+ * {@link StateBoard#SE_LSHIFT}. Right shifts are unsigned since bit 31 is a playable square.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see StateBoard
+ */
+public final class PackedBoard
+{
+	/**
+	 * The packed bitmask of the even rows (0, 2, 4, 6), whose playable squares are on odd columns.
+	 */
+	public static final int MASK_EVEN_ROWS = 0x0F0F0F0F;
+
+	/**
+	 * The packed bitmask of the odd rows (1, 3, 5, 7), whose playable squares are on even columns.
+	 */
+	public static final int MASK_ODD_ROWS = 0xF0F0F0F0;
+
+	/**
+	 * The packed bitmask of the even rows without the right-most playable square. These squares step with a shift of 5 (South-West) or 3 (North-West).
+	 */
+	public static final int MASK_SHIFT_5_3 = 0x07070707;
+
+	/**
+	 * The packed bitmask of the odd rows without the left-most playable square. These squares step with a shift of 3 (South-East) or 5 (North-East).
+	 */
+	public static final int MASK_SHIFT_3_5 = 0xE0E0E0E0;
+
+	/**
+	 * The current player's turn.
+	 */
+	public boolean isBlackTurn;
+
+	/**
+	 * The packed bitboard representation of all black pieces on the board.
+	 */
+	public int blacks;
+
+	/**
+	 * The packed bitboard representation of all white pieces on the board.
+	 */
+	public int whites;
+
+	/**
+	 * The packed bitboard representation of all king pieces on the board.
+	 */
+	public int kings;
+
+	/**
+	 * A ply counter since the last piece has been crown or piece has been captured.
+	 */
+	public int plysSinceLastCrownOrCapture;
+
+	/**
+	 * Creates an empty packed board with no pieces, with the Black team playing first.
+	 */
+	public PackedBoard()
+	{
+		isBlackTurn = true;
+		blacks = 0;
+		whites = 0;
+		kings = 0;
+		plysSinceLastCrownOrCapture = 0;
+	}
+
+	/**
+	 * Creates a packed board equivalent to the specified board.
+	 *
+	 * @param board the board in the 64-bit layout
+	 * @return the board in the packed 32-bit layout
+	 */
+	public static PackedBoard from(StateBoard board)
+	{
+		final PackedBoard packedBoard = new PackedBoard();
+		packedBoard.isBlackTurn = board.isBlackTurn;
+		packedBoard.blacks = pack(board.blacks);
+		packedBoard.whites = pack(board.whites);
+		packedBoard.kings = pack(board.kings);
+		packedBoard.plysSinceLastCrownOrCapture = board.plysSinceLastCrownOrCapture;
+		return packedBoard;
+	}
+
+	/**
+	 * Creates a board in the 64-bit layout equivalent to this packed board.
+	 *
+	 * @return the board in the 64-bit layout
+	 */
+	public StateBoard toStateBoard()
+	{
+		final StateBoard board = new StateBoard();
+		board.isBlackTurn = isBlackTurn;
+		board.blacks = unpack(blacks);
+		board.whites = unpack(whites);
+		board.kings = unpack(kings);
+		board.plysSinceLastCrownOrCapture = plysSinceLastCrownOrCapture;
+		return board;
+	}
+
+	/**
+	 * Converts a bitboard from the 64-bit layout into the packed 32-bit layout. Bits on invalid squares are ignored.
+	 *
+	 * @param bitboard the bitboard in the 64-bit layout
+	 * @return the bitboard in the packed layout
+	 */
+	public static int pack(long bitboard)
+	{
+		int packed = 0;
+		long remaining = bitboard & StateBoard.MASK_VALID;
+		while (remaining != 0L)
+		{
+			packed |= 1 << (Long.numberOfTrailingZeros(remaining) >> 1);
+			remaining &= remaining - 1;
+		}
+		return packed;
+	}
+
+	/**
+	 * Converts a bitboard from the packed 32-bit layout into the 64-bit layout.
+	 *
+	 * @param packed the bitboard in the packed layout
+	 * @return the bitboard in the 64-bit layout
+	 */
+	public static long unpack(int packed)
+	{
+		long bitboard = 0L;
+		int remaining = packed;
+		while (remaining != 0)
+		{
+			bitboard |= 1L << toIndex(Integer.numberOfTrailingZeros(remaining));
+			remaining &= remaining - 1;
+		}
+		return bitboard;
+	}
+
+	/**
+	 * Converts a packed square (0-31) into its 64-bit layout index (0-63).
+	 *
+	 * @param square the packed square
+	 * @return the 64-bit layout index
+	 */
+	public static int toIndex(int square)
+	{
+		final int row = square >> 2;
+		return (square << 1) + ((row & 1) == 0 ? 1 : 0);
+	}
+
+	/**
+	 * Converts a 64-bit layout index (0-63) of a playable square into its packed square (0-31).
+	 *
+	 * @param index the 64-bit layout index
+	 * @return the packed square
+	 */
+	public static int toSquare(int index)
+	{
+		return index >> 1;
+	}
+
+	/**
+	 * Steps every piece of the bitboard one square North-West. Equivalent to <code>&gt;&gt; StateBoard.NW_RSHIFT</code>.
+	 *
+	 * @param pieces the packed bitboard to step
+	 * @return the stepped packed bitboard
+	 */
+	public static int stepNW(int pieces)
+	{
+		return ((pieces & MASK_SHIFT_5_3) >>> 3) | ((pieces & MASK_ODD_ROWS) >>> 4);
+	}
+
+	/**
+	 * Steps every piece of the bitboard one square North-East. Equivalent to <code>&gt;&gt; StateBoard.NE_RSHIFT</code>.
+	 *
+	 * @param pieces the packed bitboard to step
+	 * @return the stepped packed bitboard
+	 */
+	public static int stepNE(int pieces)
+	{
+		return ((pieces & MASK_EVEN_ROWS) >>> 4) | ((pieces & MASK_SHIFT_3_5) >>> 5);
+	}
+
+	/**
+	 * Steps every piece of the bitboard one square South-West. Equivalent to <code>&lt;&lt; StateBoard.SW_LSHIFT</code>.
+	 *
+	 * @param pieces the packed bitboard to step
+	 * @return the stepped packed bitboard
+	 */
+	public static int stepSW(int pieces)
+	{
+		return ((pieces & MASK_SHIFT_5_3) << 5) | ((pieces & MASK_ODD_ROWS) << 4);
+	}
+
+	/**
+	 * Steps every piece of the bitboard one square South-East. Equivalent to <code>&lt;&lt; StateBoard.SE_LSHIFT</code>.
+	 *
+	 * @param pieces the packed bitboard to step
+	 * @return the stepped packed bitboard
+	 */
+	public static int stepSE(int pieces)
+	{
+		return ((pieces & MASK_EVEN_ROWS) << 4) | ((pieces & MASK_SHIFT_3_5) << 3);
+	}
+
+	/**
+	 * Computes the packed bitboard representation of all positions that the specified team can move to.
+	 *
+	 * @param isBlack the team to get moves for
+	 * @return packed bitboard of movable positions
+	 * @see StateBoard#getMoves(boolean)
+	 */
+	public int getMoves(boolean isBlack)
+	{
+		final int empty = ~(blacks | whites);
+
+		if (isBlack)
+		{
+			// All black pawns can move SW, SE
+			int moves = stepSW(blacks) | stepSE(blacks);
+
+			// Only black kings can move NW, NE
+			final int blackKings = blacks & kings;
+			moves |= stepNW(blackKings) | stepNE(blackKings);
+
+			return empty & moves;
+		}
+		else
+		{
+			// All white pawns can move NW, NE
+			int moves = stepNW(whites) | stepNE(whites);
+
+			// Only white kings can move SW, SE
+			final int whiteKings = whites & kings;
+			moves |= stepSW(whiteKings) | stepSE(whiteKings);
+
+			return empty & moves;
+		}
+	}
+
+	/**
+	 * Computes the packed bitboard representation of all positions that the specified team can capture. Will only show <b>single-jumps</b>.
+	 *
+	 * @param isBlack the team to get jumps for
+	 * @return packed bitboard of capturable positions
+	 * @see StateBoard#getJumps(boolean)
+	 */
+	public int getJumps(boolean isBlack)
+	{
+		final int empty = ~(blacks | whites);
+
+		if (isBlack)
+		{
+			// All black pawns can jump SW, SE
+			int jumps = stepSW(stepSW(blacks) & whites) | stepSE(stepSE(blacks) & whites);
+
+			// Only black kings can jump NW, NE
+			final int blackKings = blacks & kings;
+			jumps |= stepNW(stepNW(blackKings) & whites) | stepNE(stepNE(blackKings) & whites);
+
+			return empty & jumps;
+		}
+		else
+		{
+			// All white pawns can jump NW, NE
+			int jumps = stepNW(stepNW(whites) & blacks) | stepNE(stepNE(whites) & blacks);
+
+			// Only white kings can jump SW, SE
+			final int whiteKings = whites & kings;
+			jumps |= stepSW(stepSW(whiteKings) & blacks) | stepSE(stepSE(whiteKings) & blacks);
+
+			return empty & jumps;
+		}
+	}
+}
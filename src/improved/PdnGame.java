@@ -0,0 +1,299 @@
+package improved;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The <code>PdnGame</code> class is a single game of a Portable Draughts Notation (PDN) archive: its tag pairs, its moves as written, and its result. The moves are only resolved into actions when
+ * the game is replayed, against the actions generated by <code>StateBoard</code>.
+ *
+ * <p>
+ * PDN numbers the 32 playable squares from 1 to 32 in row order, starting from Black's side at the top of the board, which is {@link PackedBoard#toSquare(int)} plus 1. Black moves first, so the
+ * first score of the result is Black's (<code>1-0</code> is a Black win).
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see PdnReader
+ * @see PdnWriter
+ */
+public final class PdnGame
+{
+	/**
+	 * The tag pairs of the game, in the order they were read.
+	 */
+	public final Map<String, String> tags = new LinkedHashMap<>();
+
+	/**
+	 * The moves of the game as written, such as <code>11-15</code> or <code>9x18x27</code>.
+	 */
+	public final List<String> moves = new ArrayList<>();
+
+	/**
+	 * The result of the game as written, such as <code>1-0</code>, <code>0-1</code>, <code>1/2-1/2</code> or <code>*</code>.
+	 */
+	public String result = "*";
+
+	/**
+	 * Determines the result of the game from Black's point of view.
+	 *
+	 * @return <code>1</code> if Black won, <code>0.5</code> if drawn, <code>0</code> if White won, or NaN if unknown
+	 */
+	public double getResult()
+	{
+		switch (result)
+		{
+			case "1-0":
+			case "2-0":
+				return 1;
+			case "0-1":
+			case "0-2":
+				return 0;
+			case "1/2-1/2":
+			case "1-1":
+				return 0.5;
+			default:
+				return Double.NaN;
+		}
+	}
+
+	/**
+	 * Creates the board the game starts from: the position of its <code>FEN</code> tag if present, otherwise the initial position.
+	 *
+	 * @return the starting board
+	 * @throws IllegalArgumentException if the <code>FEN</code> tag is malformed
+	 */
+	public StateBoard getStartBoard()
+	{
+		final String fen = tags.get("FEN");
+		return fen == null ? StateBoard.initial() : parseFen(fen);
+	}
+
+	/**
+	 * Replays the game from its starting board, calling the visitor with the board before every action is executed. The board is shared between calls and must not be kept by the visitor.
+	 *
+	 * @param visitor the visitor of every board and the action played from it
+	 * @return the board after the last move
+	 * @throws IllegalArgumentException if a move is not a valid action of its board
+	 */
+	public StateBoard replay(BiConsumer<StateBoard, Action> visitor)
+	{
+		final StateBoard board = getStartBoard();
+		for (int i = 0; i < moves.size(); i++)
+		{
+			final Action action = resolve(board, moves.get(i));
+			if (action == null)
+				throw new IllegalArgumentException("Invalid move " + (i / 2 + 1) + (i % 2 == 0 ? ". " : "... ") + moves.get(i) + " in\n" + board);
+
+			visitor.accept(board, action);
+			board.executeAction(action);
+		}
+		return board;
+	}
+
+	/**
+	 * Finds the action of the specified board written as the specified PDN move. Jumps may be written with only their start and end squares, in which case the first matching chain is returned.
+	 *
+	 * @param board the board to play the move on
+	 * @param move  the PDN move, such as <code>11-15</code> or <code>9x18x27</code>
+	 * @return the matching action, or <code>null</code> if the move is not valid on the board
+	 */
+	public static Action resolve(StateBoard board, String move)
+	{
+		final String[] tokens = move.split("[-x:]");
+		final int[] squares = new int[tokens.length];
+		try
+		{
+			for (int i = 0; i < tokens.length; i++)
+				squares[i] = toIndex(Integer.parseInt(tokens[i]));
+		}
+		catch (final IllegalArgumentException e)
+		{
+			return null;
+		}
+
+		if (squares.length < 2)
+			return null;
+
+		final List<ChainJumpAction> jumpActions = board.getJumpActions();
+		if (!jumpActions.isEmpty())
+		{
+			for (final ChainJumpAction jumpAction : jumpActions)
+				if (matches(jumpAction, squares))
+					return jumpAction;
+			return null;
+		}
+
+		if (squares.length != 2)
+			return null;
+
+		for (final MoveAction moveAction : board.getMoveActions())
+			if (moveAction.from == squares[0] && moveAction.to == squares[1])
+				return moveAction;
+		return null;
+	}
+
+	/**
+	 * Writes the specified action as a PDN move, listing every landing square of a jump chain.
+	 *
+	 * @param action the action
+	 * @return the PDN move
+	 */
+	public static String toPdn(Action action)
+	{
+		if (action instanceof MoveAction)
+		{
+			final MoveAction moveAction = (MoveAction) action;
+			return toSquare(moveAction.from) + "-" + toSquare(moveAction.to);
+		}
+
+		final List<JumpAction> chain = ((ChainJumpAction) action).chain;
+		final StringBuilder builder = new StringBuilder().append(toSquare(chain.get(0).from));
+		for (final JumpAction jumpAction : chain)
+			builder.append('x').append(toSquare(jumpAction.to));
+		return builder.toString();
+	}
+
+	/**
+	 * Parses a PDN <code>FEN</code> tag, such as <code>B:W21,22,K30:B1,2,K9</code>. Ranges such as <code>1-12</code> are supported.
+	 *
+	 * @param fen the value of the tag
+	 * @return the board of the tag
+	 * @throws IllegalArgumentException if the tag is malformed
+	 */
+	public static StateBoard parseFen(String fen)
+	{
+		final String[] fields = fen.trim().replace(".", "").split(":");
+		if (fields.length < 1 || fields[0].isEmpty())
+			throw new IllegalArgumentException("Malformed FEN: " + fen);
+
+		final StateBoard board = new StateBoard();
+		board.isBlackTurn = Character.toUpperCase(fields[0].charAt(0)) == 'B';
+		for (int i = 1; i < fields.length; i++)
+		{
+			if (fields[i].isEmpty())
+				continue;
+
+			final boolean isBlack = Character.toUpperCase(fields[i].charAt(0)) == 'B';
+			for (String piece : fields[i].substring(1).split(","))
+			{
+				piece = piece.trim();
+				if (piece.isEmpty())
+					continue;
+
+				final boolean isKing = Character.toUpperCase(piece.charAt(0)) == 'K';
+				if (isKing)
+					piece = piece.substring(1);
+
+				final String[] range = piece.split("-");
+				final int first = Integer.parseInt(range[0]);
+				final int last = range.length > 1 ? Integer.parseInt(range[1]) : first;
+				for (int square = first; square <= last; square++)
+				{
+					final long position = 1L << toIndex(square);
+					if (isBlack)
+						board.blacks |= position;
+					else
+						board.whites |= position;
+					if (isKing)
+						board.kings |= position;
+				}
+			}
+		}
+
+		board.markAsDirty();
+		return board;
+	}
+
+	/**
+	 * Writes the specified board as a PDN <code>FEN</code> tag.
+	 *
+	 * @param blacks      the bitboard of all black pieces
+	 * @param whites      the bitboard of all white pieces
+	 * @param kings       the bitboard of all king pieces
+	 * @param isBlackTurn the current player's turn
+	 * @return the value of the tag
+	 */
+	public static String toFen(long blacks, long whites, long kings, boolean isBlackTurn)
+	{
+		final StringBuilder builder = new StringBuilder(isBlackTurn ? "B" : "W");
+		builder.append(":W");
+		appendFenPieces(builder, whites, kings);
+		builder.append(":B");
+		appendFenPieces(builder, blacks, kings);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the comma-separated squares of the specified pieces, with kings prefixed by <code>K</code>.
+	 *
+	 * @param builder the builder to append to
+	 * @param pieces  the bitboard of the pieces
+	 * @param kings   the bitboard of all king pieces
+	 */
+	private static void appendFenPieces(StringBuilder builder, long pieces, long kings)
+	{
+		boolean isFirst = true;
+		long remaining = pieces;
+		while (remaining != 0L)
+		{
+			final int index = Long.numberOfTrailingZeros(remaining);
+			if (!isFirst)
+				builder.append(',');
+			if (((kings >> index) & 1L) != 0L)
+				builder.append('K');
+			builder.append(toSquare(index));
+			isFirst = false;
+			remaining &= remaining - 1;
+		}
+	}
+
+	/**
+	 * Determines whether the specified chain lands on the specified squares. With only two squares, only the start and the final landing are compared.
+	 *
+	 * @param jumpAction the chain of jumps
+	 * @param squares    the bitboard indices of the start and landing squares
+	 * @return true if the chain matches
+	 */
+	private static boolean matches(ChainJumpAction jumpAction, int[] squares)
+	{
+		final List<JumpAction> chain = jumpAction.chain;
+		if (chain.get(0).from != squares[0] || chain.get(chain.size() - 1).to != squares[squares.length - 1])
+			return false;
+		if (squares.length == 2)
+			return true;
+		if (squares.length != chain.size() + 1)
+			return false;
+
+		for (int i = 0; i < chain.size(); i++)
+			if (chain.get(i).to != squares[i + 1])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Converts a PDN square number into a bitboard index.
+	 *
+	 * @param square the PDN square (1-32)
+	 * @return the bitboard index (0-63)
+	 * @throws IllegalArgumentException if the square is not within [1, 32]
+	 */
+	public static int toIndex(int square)
+	{
+		if (square < 1 || square > 32)
+			throw new IllegalArgumentException("PDN square must be within [1, 32], got " + square);
+		return PackedBoard.toIndex(square - 1);
+	}
+
+	/**
+	 * Converts a bitboard index into a PDN square number.
+	 *
+	 * @param index the bitboard index (0-63) of a valid square
+	 * @return the PDN square (1-32)
+	 */
+	public static int toSquare(int index)
+	{
+		return PackedBoard.toSquare(index) + 1;
+	}
+}
@@ -0,0 +1,255 @@
+package improved;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The <code>PdnReader</code> class streams the games of a Portable Draughts Notation (PDN) archive one at a time, so archives of any size can be read without loading the file. It reads tag pairs
+ * and moves, and skips move numbers, comments (<code>{...}</code> and <code>;</code> to the end of the line), variations (<code>(...)</code>), and numeric annotation glyphs
+ * (<code>$1</code>). Moves are not validated until the game is replayed.
+ *
+ * @author Mohammad Alali
+ * @see PdnGame
+ * @see PdnWriter
+ */
+public final class PdnReader implements AutoCloseable
+{
+	/**
+	 * The size of the read buffer in characters.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The underlying reader.
+	 */
+	private final Reader reader;
+
+	/**
+	 * The character read ahead by {@link #peek()}, or <code>-2</code> if none.
+	 */
+	private int peeked = -2;
+
+	/**
+	 * Opens the specified archive.
+	 *
+	 * @param file the PDN archive
+	 * @throws IOException if the file cannot be opened
+	 */
+	public PdnReader(File file) throws IOException
+	{
+		this(new FileReader(file));
+	}
+
+	/**
+	 * Reads an archive from the specified reader.
+	 *
+	 * @param reader the reader of the PDN archive
+	 */
+	public PdnReader(Reader reader)
+	{
+		this.reader = new BufferedReader(reader, BUFFER_SIZE);
+	}
+
+	/**
+	 * Reads the next game of the archive. A game ends at its result, or at the tag pairs of the next game when its result is missing.
+	 *
+	 * @return the next game, or <code>null</code> if there are no more games
+	 * @throws IOException if the archive cannot be read
+	 */
+	public PdnGame next() throws IOException
+	{
+		final PdnGame game = new PdnGame();
+		boolean isEmpty = true;
+		final StringBuilder token = new StringBuilder();
+
+		int c;
+		while ((c = peek()) != -1)
+		{
+			if (Character.isWhitespace(c))
+			{
+				read();
+			}
+			else if (c == '[')
+			{
+				// Tag pairs after the moves belong to the next game
+				if (!game.moves.isEmpty())
+					return game;
+
+				read();
+				readTag(game);
+				isEmpty = false;
+			}
+			else if (c == '{')
+			{
+				skipUntil('}');
+			}
+			else if (c == ';')
+			{
+				skipUntil('\n');
+			}
+			else if (c == '(')
+			{
+				skipVariation();
+			}
+			else
+			{
+				token.setLength(0);
+				while ((c = peek()) != -1 && !Character.isWhitespace(c) && c != '{' && c != '(' && c != '[' && c != ';')
+					token.append((char) read());
+
+				final String text = token.toString();
+				if (isResult(text))
+				{
+					game.result = text;
+					return game;
+				}
+
+				final String move = stripMoveNumber(text);
+				if (!move.isEmpty() && move.charAt(0) != '$')
+				{
+					game.moves.add(move);
+					isEmpty = false;
+				}
+			}
+		}
+
+		return isEmpty ? null : game;
+	}
+
+	/**
+	 * Reads a tag pair after its opening bracket, such as <code>Event "Casual"]</code>.
+	 *
+	 * @param game the game to add the tag to
+	 * @throws IOException if the archive cannot be read
+	 */
+	private void readTag(PdnGame game) throws IOException
+	{
+		final StringBuilder name = new StringBuilder();
+		final StringBuilder value = new StringBuilder();
+
+		int c;
+		while ((c = read()) != -1 && c != '"' && c != ']')
+			if (!Character.isWhitespace(c))
+				name.append((char) c);
+
+		if (c == '"')
+		{
+			while ((c = read()) != -1 && c != '"')
+			{
+				if (c == '\\')
+					c = read();
+				value.append((char) c);
+			}
+			skipUntil(']');
+		}
+
+		game.tags.put(name.toString(), value.toString());
+		if (name.toString().equals("Result") && isResult(value.toString()))
+			game.result = value.toString();
+	}
+
+	/**
+	 * Skips a variation, including any nested variations.
+	 *
+	 * @throws IOException if the archive cannot be read
+	 */
+	private void skipVariation() throws IOException
+	{
+		int depth = 0;
+		int c;
+		while ((c = read()) != -1)
+		{
+			if (c == '{')
+				skipUntil('}');
+			else if (c == '(')
+				depth++;
+			else if (c == ')' && --depth == 0)
+				return;
+		}
+	}
+
+	/**
+	 * Skips all characters up to and including the specified character.
+	 *
+	 * @param end the last character to skip
+	 * @throws IOException if the archive cannot be read
+	 */
+	private void skipUntil(char end) throws IOException
+	{
+		int c;
+		while ((c = read()) != -1 && c != end)
+			;
+	}
+
+	/**
+	 * Removes a leading move number, such as <code>12.</code> or <code>12...</code>, from a token.
+	 *
+	 * @param token the token
+	 * @return the token without its move number, possibly empty
+	 */
+	private static String stripMoveNumber(String token)
+	{
+		final int dot = token.lastIndexOf('.');
+		return dot < 0 ? token : token.substring(dot + 1);
+	}
+
+	/**
+	 * @param token the token
+	 * @return true if the token is a game result
+	 */
+	private static boolean isResult(String token)
+	{
+		switch (token)
+		{
+			case "1-0":
+			case "0-1":
+			case "2-0":
+			case "0-2":
+			case "1-1":
+			case "1/2-1/2":
+			case "*":
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return the next character without consuming it, or <code>-1</code> at the end of the archive
+	 * @throws IOException if the archive cannot be read
+	 */
+	private int peek() throws IOException
+	{
+		if (peeked == -2)
+			peeked = reader.read();
+		return peeked;
+	}
+
+	/**
+	 * @return the next character, or <code>-1</code> at the end of the archive
+	 * @throws IOException if the archive cannot be read
+	 */
+	private int read() throws IOException
+	{
+		if (peeked != -2)
+		{
+			final int c = peeked;
+			peeked = -2;
+			return c;
+		}
+		return reader.read();
+	}
+
+	/**
+	 * Closes the archive.
+	 *
+	 * @throws IOException if the archive cannot be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		reader.close();
+	}
+}
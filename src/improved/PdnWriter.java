@@ -0,0 +1,132 @@
+package improved;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * The <code>PdnWriter</code> class streams games to a Portable Draughts Notation (PDN) archive one at a time. Every game is written as its tag pairs, a blank line, its numbered moves wrapped at
+ * {@link #LINE_WIDTH} characters and its result.
+ *
+ * @author Mohammad Alali
+ * @see PdnGame
+ * @see PdnReader
+ */
+public final class PdnWriter implements AutoCloseable
+{
+	/**
+	 * The maximum number of characters per line of moves.
+	 */
+	public static final int LINE_WIDTH = 79;
+
+	/**
+	 * The underlying writer.
+	 */
+	private final Writer writer;
+
+	/**
+	 * Creates the specified archive, replacing the file if it exists.
+	 *
+	 * @param file the PDN archive
+	 * @throws IOException if the file cannot be opened
+	 */
+	public PdnWriter(File file) throws IOException
+	{
+		this(new FileWriter(file));
+	}
+
+	/**
+	 * Writes an archive to the specified writer.
+	 *
+	 * @param writer the writer of the PDN archive
+	 */
+	public PdnWriter(Writer writer)
+	{
+		this.writer = new BufferedWriter(writer, 1 << 16);
+	}
+
+	/**
+	 * Writes the specified game. Its <code>Result</code> tag is written as its result, or <code>*</code> if unknown, without changing the tags of the game.
+	 *
+	 * @param game the game to write
+	 * @throws IOException if the archive cannot be written
+	 */
+	public void write(PdnGame game) throws IOException
+	{
+		final String result = game.result != null ? game.result : "*";
+		for (final Map.Entry<String, String> tag : game.tags.entrySet())
+			writeTag(tag.getKey(), tag.getKey().equals("Result") ? result : tag.getValue());
+		if (!game.tags.containsKey("Result"))
+			writeTag("Result", result);
+		writer.write('\n');
+
+		// Games from a FEN with White to move start with the second half of a move
+		final String fen = game.tags.get("FEN");
+		final int offset = (fen != null && Character.toUpperCase(fen.trim().charAt(0)) == 'W') ? 1 : 0;
+
+		int lineLength = 0;
+		for (int i = 0; i < game.moves.size(); i++)
+		{
+			final int ply = i + offset;
+			String text = game.moves.get(i);
+			if (ply % 2 == 0)
+				text = (ply / 2 + 1) + ". " + text;
+			else if (i == 0)
+				text = (ply / 2 + 1) + "... " + text;
+
+			lineLength = append(text, lineLength);
+		}
+		append(result, lineLength);
+		writer.write("\n\n");
+	}
+
+	/**
+	 * Writes a single tag pair, escaping its value.
+	 *
+	 * @param name  the name of the tag
+	 * @param value the value of the tag
+	 * @throws IOException if the archive cannot be written
+	 */
+	private void writeTag(String name, String value) throws IOException
+	{
+		writer.write("[" + name + " \"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"]\n");
+	}
+
+	/**
+	 * Appends a token to the moves, starting a new line if it would not fit on the current one.
+	 *
+	 * @param text       the token
+	 * @param lineLength the length of the current line
+	 * @return the length of the current line after the token
+	 * @throws IOException if the archive cannot be written
+	 */
+	private int append(String text, int lineLength) throws IOException
+	{
+		if (lineLength > 0 && lineLength + 1 + text.length() > LINE_WIDTH)
+		{
+			writer.write('\n');
+			lineLength = 0;
+		}
+		else if (lineLength > 0)
+		{
+			writer.write(' ');
+			lineLength++;
+		}
+
+		writer.write(text);
+		return lineLength + text.length();
+	}
+
+	/**
+	 * Writes the buffered games and closes the archive.
+	 *
+	 * @throws IOException if the archive cannot be written
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		writer.close();
+	}
+}
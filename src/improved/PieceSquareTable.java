@@ -0,0 +1,126 @@
+package improved;
+import java.util.Arrays;
+
+/**
+ * The <code>PieceSquareTable</code> class contains the positional value of every piece kind on every position, from Black's point of view. It is used by <code>Minimax</code> to evaluate a given
+ * state board, where the running sum is kept up to date by the actions so the positional terms cost nothing per leaf.
+ *
+ * <p>
+ * There are two tables: {@link #SCORES}, which always applies, and {@link #OPENING_SCORES}, which only applies while at least {@link Constants#EVAL_OPENING_MIN_PIECES} pieces are on the board.
+ * Both are indexed by <code>[kind][position]</code>, where the kind is given by {@link #kind(boolean, boolean)}.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see StateBoard#getPieceSquareScore()
+ * @see Minimax
+ */
+public final class PieceSquareTable
+{
+	/**
+	 * Don't let anyone instantiate this class.
+	 */
+	private PieceSquareTable()
+	{}
+
+	/**
+	 * The positional values that always apply, indexed by <code>[kind][position]</code>.
+	 */
+	public static final double[][] SCORES = new double[4][64];
+
+	/**
+	 * The positional values that only apply in the opening, indexed by <code>[kind][position]</code>.
+	 */
+	public static final double[][] OPENING_SCORES = new double[4][64];
+
+	static
+	{
+		rebuild();
+	}
+
+	/**
+	 * Recomputes both tables from the current {@link EvaluationWeights}.
+	 *
+	 * @see EvaluationWeights#fromArray(double[])
+	 */
+	public static void rebuild()
+	{
+		for (int kind = 0; kind < 4; kind++)
+		{
+			Arrays.fill(SCORES[kind], 0);
+			Arrays.fill(OPENING_SCORES[kind], 0);
+		}
+
+		for (int i = 0; i < 64; i++)
+		{
+			final long position = 1L << i;
+
+			// Pawns one row off being crowned
+			if ((StateBoard.MASK_BLACK_POTENTIAL_KINGS_ROW & position) != 0L)
+				SCORES[kind(true, false)][i] += EvaluationWeights.almostKingWeight;
+			if ((StateBoard.MASK_WHITE_POTENTIAL_KINGS_ROW & position) != 0L)
+				SCORES[kind(false, false)][i] -= EvaluationWeights.almostKingWeight;
+
+			for (int kingship = 0; kingship < 2; kingship++)
+			{
+				final boolean isKing = kingship == 1;
+
+				// Pieces guarding the home row
+				if ((StateBoard.MASK_BLACK_HOME_ROW & position) != 0L)
+					OPENING_SCORES[kind(true, isKing)][i] += EvaluationWeights.homeRowWeight;
+				if ((StateBoard.MASK_WHITE_HOME_ROW & position) != 0L)
+					OPENING_SCORES[kind(false, isKing)][i] -= EvaluationWeights.homeRowWeight;
+
+				// Pieces controlling the center
+				if ((StateBoard.MASK_CENTER_MID & position) != 0L)
+				{
+					OPENING_SCORES[kind(true, isKing)][i] += EvaluationWeights.centerBonus;
+					OPENING_SCORES[kind(false, isKing)][i] -= EvaluationWeights.centerBonus;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the piece kind used to index the tables.
+	 *
+	 * @param isBlack the team of the piece
+	 * @param isKing  the kingship status of the piece
+	 * @return the piece kind (0-3)
+	 */
+	public static int kind(boolean isBlack, boolean isKing)
+	{
+		return (isBlack ? 0 : 1) + (isKing ? 2 : 0);
+	}
+
+	/**
+	 * Computes the sum of the specified table over all pieces from scratch.
+	 *
+	 * @param table  either {@link #SCORES} or {@link #OPENING_SCORES}
+	 * @param blacks the bitboard of all black pieces
+	 * @param whites the bitboard of all white pieces
+	 * @param kings  the bitboard of all king pieces
+	 * @return the positional value from Black's point of view
+	 */
+	public static double score(double[][] table, long blacks, long whites, long kings)
+	{
+		double score = 0;
+
+		long remainingBlacks = blacks;
+		while (remainingBlacks != 0L)
+		{
+			final int i = Long.numberOfTrailingZeros(remainingBlacks);
+			score += table[kind(true, ((kings >> i) & 1L) != 0L)][i];
+			remainingBlacks &= remainingBlacks - 1;
+		}
+
+		long remainingWhites = whites;
+		while (remainingWhites != 0L)
+		{
+			final int i = Long.numberOfTrailingZeros(remainingWhites);
+			score += table[kind(false, ((kings >> i) & 1L) != 0L)][i];
+			remainingWhites &= remainingWhites - 1;
+		}
+
+		return score;
+	}
+}
@@ -62,12 +62,23 @@ public final class PlayData
 		else
 		{
 			// File does not exist. It must be our first move.
-			// If its black's turn, then its the first ply, otherwise its the second ply
-			plysSinceStart = problem.board.isBlackTurn ? 0 : 1;
+			plysSinceStart = getFirstPly(problem);
 			initialized = true;
 		}
 	}
 
+	/**
+	 * Returns the number of plys since the start of the game of a problem without a play data file, which must be the first move of the agent.
+	 * 
+	 * @param problem the given problem
+	 * @return 0 if it is Black's turn, since Black moves first, otherwise 1
+	 */
+	public static int getFirstPly(Problem problem)
+	{
+		// If its black's turn, then its the first ply, otherwise its the second ply
+		return problem.board.isBlackTurn ? 0 : 1;
+	}
+
 	public static void writeToFile()
 	{
 		final File file = new File(Constants.FILENAME_PLAYDATA);
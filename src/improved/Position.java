@@ -0,0 +1,353 @@
+package improved;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>Position</code> class is an immutable snapshot of an English Checkers board: the three bitboards, the current player's turn and the draw ply counter. It uses the same 64-bit layout as
+ * <code>StateBoard</code>.
+ *
+ * <p>
+ * Unlike <code>StateBoard</code>, a position is never modified. Children are derived by copying (copy-make) rather than executing and undoing actions (make/unmake), so no snapshots are kept in the
+ * actions and a position can be shared freely across threads.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see StateBoard
+ * @see Action#derive(Position)
+ */
+public final class Position
+{
+	/**
+	 * The current player's turn.
+	 */
+	public final boolean isBlackTurn;
+
+	/**
+	 * The bitboard representation of all black pieces on the board.
+	 */
+	public final long blacks;
+
+	/**
+	 * The bitboard representation of all white pieces on the board.
+	 */
+	public final long whites;
+
+	/**
+	 * The bitboard representation of all king pieces on the board.
+	 */
+	public final long kings;
+
+	/**
+	 * A ply counter since the last piece has been crown or piece has been captured.
+	 */
+	public final int plysSinceLastCrownOrCapture;
+
+	/**
+	 * Creates a position with the specified arguments.
+	 *
+	 * @param blacks                      the bitboard of all black pieces
+	 * @param whites                      the bitboard of all white pieces
+	 * @param kings                       the bitboard of all king pieces
+	 * @param isBlackTurn                 the current player's turn
+	 * @param plysSinceLastCrownOrCapture the ply counter since the last crown or capture
+	 */
+	public Position(long blacks, long whites, long kings, boolean isBlackTurn, int plysSinceLastCrownOrCapture)
+	{
+		this.blacks = blacks;
+		this.whites = whites;
+		this.kings = kings;
+		this.isBlackTurn = isBlackTurn;
+		this.plysSinceLastCrownOrCapture = plysSinceLastCrownOrCapture;
+	}
+
+	/**
+	 * Creates a snapshot of the specified board.
+	 *
+	 * @param board the board to snapshot
+	 * @return the position of the board
+	 */
+	public static Position of(StateBoard board)
+	{
+		return new Position(board.blacks, board.whites, board.kings, board.isBlackTurn, board.plysSinceLastCrownOrCapture);
+	}
+
+	/**
+	 * Creates a mutable board equivalent to this position.
+	 *
+	 * @return the board of this position
+	 */
+	public StateBoard toStateBoard()
+	{
+		final StateBoard board = new StateBoard();
+		board.blacks = blacks;
+		board.whites = whites;
+		board.kings = kings;
+		board.isBlackTurn = isBlackTurn;
+		board.plysSinceLastCrownOrCapture = plysSinceLastCrownOrCapture;
+		return board;
+	}
+
+	/**
+	 * Derives the position after the current player plays the specified action, and switches the turn to the other team. This is the copy-make equivalent of
+	 * {@link StateBoard#executeAction(Action)}.
+	 *
+	 * @param action the action to play
+	 * @return the resulting position
+	 */
+	public Position play(Action action)
+	{
+		return action.derive(this).endTurn(plysSinceLastCrownOrCapture);
+	}
+
+	/**
+	 * Determines the state of the game.
+	 *
+	 * @return the state of the game
+	 * @see StateBoard#getGameState()
+	 */
+	public GameState getGameState()
+	{
+		return StateBoard.getGameState(blacks, whites, kings, isBlackTurn, plysSinceLastCrownOrCapture);
+	}
+
+	/**
+	 * Computes the Zobrist key of this position from scratch. Equal to {@link StateBoard#getZobristKey()} of the same board.
+	 * 
+	 * @return the Zobrist key of this position
+	 * @see Zobrist
+	 */
+	public long getZobristKey()
+	{
+		return Zobrist.hash(blacks, whites, kings, isBlackTurn);
+	}
+
+	/**
+	 * Computes the canonical Zobrist key of this position, which it shares with its colour-flipped position. Equal to {@link StateBoard#getCanonicalZobristKey()} of the same board.
+	 *
+	 * @return the canonical Zobrist key of this position
+	 * @see Zobrist#canonical(long)
+	 */
+	public long getCanonicalZobristKey()
+	{
+		return Zobrist.canonical(getZobristKey());
+	}
+
+	/**
+	 * Derives the colour-flipped position, rotated by 180 degrees with the colours and the turn swapped. This is the copy-make equivalent of {@link StateBoard#flipColors()}.
+	 *
+	 * @return the colour-flipped position
+	 */
+	public Position flipColors()
+	{
+		return new Position(Long.reverse(whites), Long.reverse(blacks), Long.reverse(kings), !isBlackTurn, plysSinceLastCrownOrCapture);
+	}
+
+	/**
+	 * Computes all positions reachable by the current player in a single turn, in the same order as the actions of <code>StateBoard</code>: if any jump exists, only the jump chains are returned in
+	 * descending order of their capture value, otherwise the moves are returned.
+	 *
+	 * @return the child positions, or empty if the current player has no valid actions
+	 * @see StateBoard#getJumpActions()
+	 * @see StateBoard#getMoveActions()
+	 */
+	public List<Position> children()
+	{
+		final List<Position> children = new ArrayList<>();
+		generateJumps(children);
+		if (children.isEmpty())
+			generateMoves(children);
+		return children;
+	}
+
+	/**
+	 * Derives the position after moving a piece, without switching the turn. Mirrors {@link MoveAction#execute(StateBoard)}.
+	 *
+	 * @param from    the start location of the piece being moved
+	 * @param to      the destination location of the piece being moved
+	 * @param isBlack the team of the piece being moved
+	 * @param isKing  the kingship status of the piece being moved
+	 * @return the resulting position
+	 */
+	public Position move(int from, int to, boolean isBlack, boolean isKing)
+	{
+		final long fromPosition = 1L << from;
+		final long toPosition = 1L << to;
+
+		long newKings = kings & ~fromPosition & ~toPosition;
+		int newPlys = plysSinceLastCrownOrCapture;
+
+		// Set king at destination if the move was created for a king piece, or crown if reached kings row
+		if (isKing)
+			newKings |= toPosition;
+		else if (((isBlack ? StateBoard.MASK_BLACK_KINGS_ROW : StateBoard.MASK_WHITE_KINGS_ROW) & toPosition) != 0L)
+		{
+			newKings |= toPosition;
+			newPlys = 0;
+		}
+
+		if (isBlack)
+			return new Position((blacks & ~fromPosition) | toPosition, whites, newKings, isBlackTurn, newPlys);
+		else
+			return new Position(blacks, (whites & ~fromPosition) | toPosition, newKings, isBlackTurn, newPlys);
+	}
+
+	/**
+	 * Derives the position after a single jump, without switching the turn. Mirrors {@link JumpAction#execute(StateBoard)}.
+	 *
+	 * @param from    the start location of the jumping piece
+	 * @param victim  the location of the captured piece
+	 * @param to      the destination location of the jumping piece
+	 * @param isBlack the team of the jumping piece
+	 * @param isKing  the kingship status of the jumping piece
+	 * @return the resulting position
+	 */
+	public Position jump(int from, int victim, int to, boolean isBlack, boolean isKing)
+	{
+		final long fromPosition = 1L << from;
+		final long victimPosition = 1L << victim;
+		final long toPosition = 1L << to;
+
+		long newKings = kings & ~fromPosition & ~victimPosition & ~toPosition;
+		final boolean shouldCrown = ((isBlack ? StateBoard.MASK_BLACK_KINGS_ROW : StateBoard.MASK_WHITE_KINGS_ROW) & toPosition) != 0L;
+		if (isKing || shouldCrown)
+			newKings |= toPosition;
+
+		if (isBlack)
+			return new Position((blacks & ~fromPosition) | toPosition, whites & ~victimPosition, newKings, isBlackTurn, 0);
+		else
+			return new Position(blacks & ~victimPosition, (whites & ~fromPosition) | toPosition, newKings, isBlackTurn, 0);
+	}
+
+	/**
+	 * Switches the turn to the other team and advances the ply counter, exactly as {@link StateBoard#executeAction(Action)} does.
+	 *
+	 * @param previousPlys the ply counter before the action was applied
+	 * @return the resulting position
+	 */
+	private Position endTurn(int previousPlys)
+	{
+		final int plys = (previousPlys == plysSinceLastCrownOrCapture) ? plysSinceLastCrownOrCapture + 1 : plysSinceLastCrownOrCapture;
+		return new Position(blacks, whites, kings, !isBlackTurn, plys);
+	}
+
+	/**
+	 * Computes the child positions of all move actions for the current turn's player.
+	 *
+	 * @param children the list to add the child positions to
+	 */
+	private void generateMoves(List<Position> children)
+	{
+		final long empty = ~(blacks | whites) & StateBoard.MASK_VALID;
+
+		long remainingPieces = isBlackTurn ? blacks : whites;
+		while (remainingPieces != 0)
+		{
+			// Find index of next piece
+			final int from = Long.numberOfTrailingZeros(remainingPieces);
+			final boolean isKing = ((kings >> from) & 1L) != 0L;
+
+			// Look up the step targets and filter invalid moves
+			long moves = BoardTables.STEP_MASKS[BoardTables.pieceType(isBlackTurn, isKing)][from] & empty;
+
+			while (moves != 0)
+			{
+				final int to = Long.numberOfTrailingZeros(moves);
+				children.add(move(from, to, isBlackTurn, isKing).endTurn(plysSinceLastCrownOrCapture));
+				moves &= moves - 1;
+			}
+
+			// Unset bit
+			remainingPieces &= remainingPieces - 1;
+		}
+	}
+
+	/**
+	 * Computes the child positions of all jump chains for the current turn's player, sorted in descending order of capture value.
+	 *
+	 * @param children the list to add the child positions to
+	 */
+	private void generateJumps(List<Position> children)
+	{
+		long remainingPieces = isBlackTurn ? blacks : whites;
+		while (remainingPieces != 0)
+		{
+			// Find index of next piece
+			final int from = Long.numberOfTrailingZeros(remainingPieces);
+			final boolean isKing = ((kings >> from) & 1L) != 0L;
+			findAllChains(children, this, from, isKing, true);
+
+			// Unset bit
+			remainingPieces &= remainingPieces - 1;
+		}
+
+		if (children.size() > 1)
+			children.sort((a, b) -> -Double.compare(getCaptureValue(a), getCaptureValue(b)));
+	}
+
+	/**
+	 * A recursive way to determine all chain jumps from a given intermediate position. It uses a Depth-First Search to find all chains, and adds the final position of every chain to the given list.
+	 *
+	 * @param children         the list containing all positions generated by the DFS so far
+	 * @param current          the intermediate position of the chain so far
+	 * @param from             the current position of the jumping piece
+	 * @param isKingOriginally whether the initial pawn was a king or not
+	 * @param isFirstJump      whether no jump has been made yet in this chain
+	 * @see StateBoard#getJumpActions()
+	 */
+	private void findAllChains(List<Position> children, Position current, int from, boolean isKingOriginally, boolean isFirstJump)
+	{
+		// Terminate the search when the pawn is crowned
+		final boolean isKing = ((current.kings >> from) & 1L) != 0L;
+		if (isKing && !isKingOriginally)
+		{
+			children.add(current.endTurn(plysSinceLastCrownOrCapture));
+			return;
+		}
+
+		final long empty = ~(current.blacks | current.whites) & StateBoard.MASK_VALID;
+		final long opponents = isBlackTurn ? current.whites : current.blacks;
+		final int pieceType = BoardTables.pieceType(isBlackTurn, isKing);
+		final int[] victims = BoardTables.JUMP_VICTIMS[pieceType][from];
+		final int[] landings = BoardTables.JUMP_LANDINGS[pieceType][from];
+
+		int processedCount = 0;
+		for (int i = 0; i < victims.length; i++)
+		{
+			// Filter invalid jumps
+			if (((opponents >> victims[i]) & 1L) == 0L || ((empty >> landings[i]) & 1L) == 0L)
+				continue;
+
+			findAllChains(children, current.jump(from, victims[i], landings[i], isBlackTurn, isKing), landings[i], isKingOriginally, false);
+			processedCount++;
+		}
+
+		if (processedCount == 0 && !isFirstJump)
+			children.add(current.endTurn(plysSinceLastCrownOrCapture));
+	}
+
+	/**
+	 * Computes the total value of the pawns captured between this position and the specified child.
+	 *
+	 * @param child the child position
+	 * @return the capture value
+	 * @see ChainJumpAction#updateCaptureValue()
+	 */
+	private double getCaptureValue(Position child)
+	{
+		final long captured = isBlackTurn ? (whites & ~child.whites) : (blacks & ~child.blacks);
+		final int capturedKings = Long.bitCount(captured & kings);
+		final int capturedPawns = Long.bitCount(captured) - capturedKings;
+		return capturedPawns * Constants.EVAL_CAPTURE_PAWN_WEIGHT + capturedKings * Constants.EVAL_CAPTURE_KING_WEIGHT;
+	}
+
+	/**
+	 * @return a board representation (8x8) grid with b/B as black pawns and w/W as white pawns and capitalized letter indicates kingship.
+	 * @see StateBoard#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return toStateBoard().toString();
+	}
+}
@@ -1,16 +1,28 @@
 package improved;
-import java.io.FileReader;
-import java.util.Scanner;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * The <code>Problem</code> class contains the problem definition as per the homework. It is responsible for parsing the input file at {@link Constants#FILENAME_INPUT}.
- * 
+ *
+ * <p>
+ * The file is read with a single {@link Files#readAllBytes(java.nio.file.Path)} and decoded byte by byte straight into the bitboards, without a <code>Scanner</code> or any charset decoding, since
+ * parsing happens inside the timed window opened by {@link AgentTimer#start()}. Both <code>\n</code> and <code>\r\n</code> line endings are accepted.
+ * </p>
+ *
  * @author Mohammad Alali
  * @see AgentType
  * @see StateBoard
+ * @see startup
  */
 public final class Problem
 {
+	/**
+	 * The powers of 10 that are exactly representable as a <code>float</code>.
+	 */
+	private static final float[] POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
 	/**
 	 * The type of problem to solve.
 	 */
@@ -28,46 +40,179 @@ public final class Problem
 
 	/**
 	 * Parses the given <code>filename</code> and returns a <code>Problem</code> instance if the format matches. The format is defined in the homework.
-	 * 
+	 *
 	 * @param filename the name of the input file to parse
 	 * @throws Exception if the format is incorrect or I/O exception
 	 */
 	public Problem(String filename) throws Exception
 	{
-		try (final Scanner scanner = new Scanner(new FileReader(filename)))
+		this(Files.readAllBytes(Paths.get(filename)));
+	}
+
+	/**
+	 * Parses the given contents of an input file. The format is defined in the homework.
+	 *
+	 * @param input the bytes of the input file
+	 * @throws IllegalArgumentException if the format is incorrect
+	 */
+	public Problem(byte[] input)
+	{
+		board = new StateBoard();
+
+		int start = 0;
+		int end = getLineEnd(input, start);
+		agentType = matches(input, start, end, "GAME") ? AgentType.Game : matches(input, start, end, "SINGLE") ? AgentType.Single : null;
+
+		start = getNextLine(input, end);
+		end = getLineEnd(input, start);
+		board.isBlackTurn = matches(input, start, end, "BLACK");
+
+		start = getNextLine(input, end);
+		end = getLineEnd(input, start);
+		playTime = parseFloat(input, start, end);
+
+		for (int row = 0; row < 8; row++)
 		{
-			board = new StateBoard();
+			start = getNextLine(input, end);
+			end = getLineEnd(input, start);
+			if (end - start < 8)
+				throw new IllegalArgumentException("Row " + row + " of the board must have 8 cells");
 
-			agentType = AgentType.parse(scanner.nextLine());
-			board.isBlackTurn = scanner.nextLine().equals("BLACK");
-			playTime = scanner.nextFloat();
-			scanner.nextLine(); // Move to next line
+			for (int column = 0; column < 8; column++)
+				placePiece(board, input[start + column], 1L << (row * 8 + column));
+		}
+	}
 
-			for (int row = 0; row < 8; row++)
+	/**
+	 * Places the piece of the specified board character on the specified position of the board: <i>b</i> and <i>w</i> for a black and a white pawn, <i>B</i> and <i>W</i> for a black and a white
+	 * king. Any other character is an empty cell, and leaves the board as is. Shared by every reader of boards written with these characters.
+	 *
+	 * @param board     the board to place the piece on
+	 * @param character the board character
+	 * @param position  the bit of the position
+	 * @return true if the character is a piece, false if it is an empty cell
+	 */
+	public static boolean placePiece(StateBoard board, int character, long position)
+	{
+		switch (character)
+		{
+			case 'b':
+				board.blacks |= position;
+				return true;
+			case 'B':
+				board.blacks |= position;
+				board.kings |= position;
+				return true;
+			case 'w':
+				board.whites |= position;
+				return true;
+			case 'W':
+				board.whites |= position;
+				board.kings |= position;
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Finds the end of the line starting at the specified index, excluding any <code>\r</code> before the line break.
+	 *
+	 * @param input the bytes of the input file
+	 * @param start the index of the first byte of the line
+	 * @return the index after the last byte of the line
+	 */
+	private static int getLineEnd(byte[] input, int start)
+	{
+		int end = start;
+		while (end < input.length && input[end] != '\n')
+			end++;
+		while (end > start && input[end - 1] == '\r')
+			end--;
+		return end;
+	}
+
+	/**
+	 * Finds the start of the line after the line ending at the specified index.
+	 *
+	 * @param input the bytes of the input file
+	 * @param end   the index returned by {@link #getLineEnd(byte[], int)}
+	 * @return the index of the first byte of the next line
+	 * @throws IllegalArgumentException if there is no next line
+	 */
+	private static int getNextLine(byte[] input, int end)
+	{
+		while (end < input.length && input[end] != '\n')
+			end++;
+		if (end >= input.length)
+			throw new IllegalArgumentException("Input ended early, expected 11 lines");
+		return end + 1;
+	}
+
+	/**
+	 * Determines whether the specified range of bytes, ignoring surrounding whitespace, equals the specified ASCII text.
+	 *
+	 * @param input the bytes of the input file
+	 * @param start the index of the first byte
+	 * @param end   the index after the last byte
+	 * @param text  the ASCII text to compare with
+	 * @return true if they are equal
+	 */
+	private static boolean matches(byte[] input, int start, int end, String text)
+	{
+		while (start < end && input[start] <= ' ')
+			start++;
+		while (end > start && input[end - 1] <= ' ')
+			end--;
+		if (end - start != text.length())
+			return false;
+
+		for (int i = 0; i < text.length(); i++)
+			if (input[start + i] != text.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Parses the specified range of bytes as a <code>float</code>, ignoring surrounding whitespace. Plain decimals such as <code>100.5</code> are decoded directly, where the digits and the power of 10
+	 * are both exact in a <code>float</code>, so a single division rounds exactly as {@link Float#parseFloat(String)} would. Anything else falls back to {@link Float#parseFloat(String)}.
+	 *
+	 * @param input the bytes of the input file
+	 * @param start the index of the first byte
+	 * @param end   the index after the last byte
+	 * @return the parsed value
+	 * @throws NumberFormatException if the range is not a number
+	 */
+	private static float parseFloat(byte[] input, int start, int end)
+	{
+		while (start < end && input[start] <= ' ')
+			start++;
+		while (end > start && input[end - 1] <= ' ')
+			end--;
+
+		long digits = 0;
+		int decimals = -1;
+		boolean hasDigits = false;
+		boolean isSimple = true;
+		for (int i = start; i < end && isSimple; i++)
+		{
+			final byte c = input[i];
+			if (c >= '0' && c <= '9')
 			{
-				final String line = scanner.nextLine();
-				for (int column = 0; column < 8; column++)
-				{
-					final char c = line.charAt(column);
-					final int i = row * 8 + column;
-					final long position = 1L << i;
-					switch (c)
-					{
-						case 'B':
-							board.kings |= position;
-						case 'b':
-							board.blacks |= position;
-							break;
-						case 'W':
-							board.kings |= position;
-						case 'w':
-							board.whites |= position;
-							break;
-						default:
-							break;
-					}
-				}
+				digits = digits * 10 + (c - '0');
+				hasDigits = true;
+				if (decimals >= 0)
+					decimals++;
+				isSimple = digits <= (1 << 24) && decimals < POWERS_OF_TEN.length;
 			}
+			else if (c == '.' && decimals < 0)
+				decimals = 0;
+			else
+				isSimple = false;
 		}
+
+		if (isSimple && hasDigits)
+			return digits / POWERS_OF_TEN[Math.max(decimals, 0)];
+		return Float.parseFloat(new String(input, start, end - start, StandardCharsets.US_ASCII));
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+package improved;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The <code>SearchTrace</code> class records a sample of the nodes visited by the make/unmake search of <code>Minimax</code> into a preallocated ring buffer, so a slow search or a wrongly pruned line
+ * can be analyzed offline with <code>SearchTraceReader</code>. It is only active when {@link Constants#TRACE_SEARCH} is set; otherwise the calls in <code>Minimax</code> are removed at compile time.
+ *
+ * <p>
+ * Every node is counted on entry, but only nodes with at least {@link Constants#TRACE_FULL_DEPTH} remaining depth, and one in {@link Constants#TRACE_SAMPLE_MASK} + 1 of the others, are recorded on
+ * exit. Once the buffer is full, the oldest records are overwritten. Each record is {@link #RECORD_LONGS} <code>long</code> values:
+ * <ul>
+ * <li>the Zobrist key of the position</li>
+ * <li>the remaining depth, at least 0 (bits 0-7), whether the node is a maximizing node (bit 8), the index of the child that caused a cutoff plus 1, or 0 without a cutoff (bits 16-31), the number of children
+ * searched (bits 32-47), and the start (bits 48-55) and end (bits 56-63) squares of the move that last raised the bound, or {@link #NO_SQUARE} if none did</li>
+ * <li>alpha (bits 0-31) and beta (bits 32-63) on entry, as <code>float</code> values</li>
+ * <li>the returned score as a <code>float</code> (bits 0-31) and the size of the subtree in nodes (bits 32-63)</li>
+ * </ul>
+ * The search runs on a single thread, so the buffer is not synchronized.
+ * </p>
+ *
+ * <p>
+ * The format of the trace file is binary, as written by {@link DataOutputStream}:
+ * <ul>
+ * <code>MAGIC nodes recorded N record0 ... recordN-1</code>
+ * </ul>
+ * where <code>MAGIC</code> and <code>N</code> are <code>int</code> values, <code>nodes</code> and <code>recorded</code> are the total nodes counted and records written as <code>long</code> values, and
+ * the <code>N</code> records kept by the buffer follow, oldest first.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see Minimax
+ * @see SearchTraceReader
+ */
+public final class SearchTrace
+{
+	/**
+	 * Don't let anyone instantiate this class.
+	 */
+	private SearchTrace()
+	{}
+
+	/**
+	 * The first <code>int</code> of a trace file.
+	 */
+	public static final int MAGIC = 0x54524331;
+
+	/**
+	 * The number of <code>long</code> values of a record.
+	 */
+	public static final int RECORD_LONGS = 4;
+
+	/**
+	 * The square of a record without a move.
+	 */
+	public static final int NO_SQUARE = 0xFF;
+
+	/**
+	 * The ring buffer of records, only allocated when tracing.
+	 */
+	private static final long[] buffer = Constants.TRACE_SEARCH ? new long[(1 << Constants.TRACE_CAPACITY_BITS) * RECORD_LONGS] : null;
+
+	/**
+	 * The number of nodes counted.
+	 */
+	private static long nodes = 0;
+
+	/**
+	 * The number of records written, including the overwritten ones.
+	 */
+	private static long recorded = 0;
+
+	/**
+	 * Counts a node entered by the search.
+	 *
+	 * @return the number of nodes counted before this one, to pass to {@link #exit(StateBoard, int, boolean, double, double, double, int, int, Action, long)}
+	 */
+	public static long enter()
+	{
+		return nodes++;
+	}
+
+	/**
+	 * Records a node exited by the search, if it is sampled.
+	 *
+	 * @param board         the board of the node, as it was on entry
+	 * @param depth         the remaining depth of the node
+	 * @param isMaximizing  whether the node is a maximizing node
+	 * @param alpha         alpha on entry
+	 * @param beta          beta on entry
+	 * @param score         the score returned
+	 * @param cutoffIndex   the index of the child that caused a cutoff, or -1 if none
+	 * @param children      the number of children searched
+	 * @param move          the move that last raised the bound, or <code>null</code> if none did
+	 * @param node          the value returned by {@link #enter()} for this node
+	 */
+	public static void exit(StateBoard board, int depth, boolean isMaximizing, double alpha, double beta, double score, int cutoffIndex, int children, Action move, long node)
+	{
+		if (depth < Constants.TRACE_FULL_DEPTH && (node & Constants.TRACE_SAMPLE_MASK) != 0)
+			return;
+
+		int from = NO_SQUARE;
+		int to = NO_SQUARE;
+		if (move instanceof MoveAction)
+		{
+			from = ((MoveAction) move).from;
+			to = ((MoveAction) move).to;
+		}
+		else if (move instanceof ChainJumpAction)
+		{
+			final ChainJumpAction jumpAction = (ChainJumpAction) move;
+			from = jumpAction.chain.get(0).from;
+			to = jumpAction.chain.get(jumpAction.chain.size() - 1).to;
+		}
+
+		final int offset = (int) (recorded & ((1 << Constants.TRACE_CAPACITY_BITS) - 1)) * RECORD_LONGS;
+		buffer[offset] = board.getZobristKey();
+		buffer[offset + 1] = (Math.max(depth, 0) & 0xFFL) | (isMaximizing ? 1L << 8 : 0L) | ((long) ((cutoffIndex + 1) & 0xFFFF) << 16) | ((long) (children & 0xFFFF) << 32) | ((long) from << 48) | ((long) to << 56);
+		buffer[offset + 2] = (Float.floatToRawIntBits((float) alpha) & 0xFFFFFFFFL) | ((long) Float.floatToRawIntBits((float) beta) << 32);
+		buffer[offset + 3] = (Float.floatToRawIntBits((float) score) & 0xFFFFFFFFL) | (Math.min(nodes - node, 0xFFFFFFFFL) << 32);
+		recorded++;
+	}
+
+	/**
+	 * Writes the records kept by the buffer to the specified file. The format is described in {@link SearchTrace}.
+	 *
+	 * @param filename the name of the trace file
+	 * @throws IOException if the file could not be written
+	 */
+	public static void writeToFile(String filename) throws IOException
+	{
+		final int capacity = 1 << Constants.TRACE_CAPACITY_BITS;
+		final int count = (int) Math.min(recorded, capacity);
+		try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename))))
+		{
+			output.writeInt(MAGIC);
+			output.writeLong(nodes);
+			output.writeLong(recorded);
+			output.writeInt(count);
+			for (long record = recorded - count; record < recorded; record++)
+			{
+				final int offset = (int) (record & (capacity - 1)) * RECORD_LONGS;
+				for (int i = 0; i < RECORD_LONGS; i++)
+					output.writeLong(buffer[offset + i]);
+			}
+		}
+	}
+
+	/**
+	 * Removes all records and resets the node count.
+	 */
+	public static void clear()
+	{
+		nodes = 0;
+		recorded = 0;
+	}
+}
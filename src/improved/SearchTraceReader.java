@@ -0,0 +1,246 @@
+package improved;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The <code>SearchTraceReader</code> class reads a trace file written by <code>SearchTrace</code> and aggregates its records by remaining depth: how often the sampled nodes were cut off, at which child,
+ * and how large their subtrees were. A well ordered search cuts off at the first child most of the time, so a high share of late cutoffs points at the move ordering of that depth.
+ *
+ * @author Mohammad Alali
+ * @see SearchTrace
+ * @see trace
+ */
+public final class SearchTraceReader
+{
+	/**
+	 * The number of cutoff indices counted separately. Later cutoffs are counted with the last one.
+	 */
+	public static final int CUTOFF_INDICES = 4;
+
+	/**
+	 * The total number of nodes counted by the search.
+	 */
+	public final long nodes;
+
+	/**
+	 * The total number of records written by the search, including the ones overwritten before the trace was written.
+	 */
+	public final long recorded;
+
+	/**
+	 * The records of the trace, oldest first, each of {@link SearchTrace#RECORD_LONGS} values.
+	 */
+	private final long[] records;
+
+	/**
+	 * Reads the specified trace file.
+	 *
+	 * @param filename the name of the trace file
+	 * @throws IOException if the file cannot be read, or is not a trace file
+	 */
+	public SearchTraceReader(String filename) throws IOException
+	{
+		try (final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(filename))))
+		{
+			if (input.readInt() != SearchTrace.MAGIC)
+				throw new IOException("Not a search trace file: " + filename);
+
+			nodes = input.readLong();
+			recorded = input.readLong();
+			records = new long[input.readInt() * SearchTrace.RECORD_LONGS];
+			for (int i = 0; i < records.length; i++)
+				records[i] = input.readLong();
+		}
+	}
+
+	/**
+	 * Returns the number of records of the trace.
+	 *
+	 * @return the number of records
+	 */
+	public int size()
+	{
+		return records.length / SearchTrace.RECORD_LONGS;
+	}
+
+	/**
+	 * Returns the Zobrist key of the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return the Zobrist key
+	 */
+	public long getKey(int record)
+	{
+		return records[record * SearchTrace.RECORD_LONGS];
+	}
+
+	/**
+	 * Returns the remaining depth of the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return the remaining depth
+	 */
+	public int getDepth(int record)
+	{
+		return (int) (records[record * SearchTrace.RECORD_LONGS + 1] & 0xFF);
+	}
+
+	/**
+	 * Returns whether the specified record is a maximizing node.
+	 *
+	 * @param record the index of the record
+	 * @return true if the node is maximizing, false otherwise
+	 */
+	public boolean isMaximizing(int record)
+	{
+		return (records[record * SearchTrace.RECORD_LONGS + 1] & (1L << 8)) != 0;
+	}
+
+	/**
+	 * Returns the index of the child that caused a cutoff at the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return the index of the child, or -1 if there was no cutoff
+	 */
+	public int getCutoffIndex(int record)
+	{
+		return (int) ((records[record * SearchTrace.RECORD_LONGS + 1] >>> 16) & 0xFFFF) - 1;
+	}
+
+	/**
+	 * Returns the number of children searched at the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return the number of children
+	 */
+	public int getChildren(int record)
+	{
+		return (int) ((records[record * SearchTrace.RECORD_LONGS + 1] >>> 32) & 0xFFFF);
+	}
+
+	/**
+	 * Returns the PDN text of the move that last raised the bound at the specified record, such as <i>11-15</i>.
+	 *
+	 * @param record the index of the record
+	 * @return the text of the move, or <i>-</i> if no move raised the bound
+	 */
+	public String getMoveText(int record)
+	{
+		final long packed = records[record * SearchTrace.RECORD_LONGS + 1];
+		final int from = (int) ((packed >>> 48) & 0xFF);
+		final int to = (int) (packed >>> 56);
+		if (from == SearchTrace.NO_SQUARE)
+			return "-";
+		return PdnGame.toSquare(from) + "-" + PdnGame.toSquare(to);
+	}
+
+	/**
+	 * Returns alpha on entry of the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return alpha
+	 */
+	public float getAlpha(int record)
+	{
+		return Float.intBitsToFloat((int) records[record * SearchTrace.RECORD_LONGS + 2]);
+	}
+
+	/**
+	 * Returns beta on entry of the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return beta
+	 */
+	public float getBeta(int record)
+	{
+		return Float.intBitsToFloat((int) (records[record * SearchTrace.RECORD_LONGS + 2] >>> 32));
+	}
+
+	/**
+	 * Returns the score returned by the specified record.
+	 *
+	 * @param record the index of the record
+	 * @return the score
+	 */
+	public float getScore(int record)
+	{
+		return Float.intBitsToFloat((int) records[record * SearchTrace.RECORD_LONGS + 3]);
+	}
+
+	/**
+	 * Returns the size of the subtree of the specified record, including the node itself.
+	 *
+	 * @param record the index of the record
+	 * @return the number of nodes
+	 */
+	public long getSubtreeSize(int record)
+	{
+		return records[record * SearchTrace.RECORD_LONGS + 3] >>> 32;
+	}
+
+	/**
+	 * Prints, for every remaining depth, the number of records, the share of cutoffs and their child indices, and the mean and largest subtree sizes, followed by the records with the largest subtrees.
+	 *
+	 * @param out     the stream to print to
+	 * @param largest the number of largest subtrees to print
+	 */
+	public void printSummary(PrintStream out, int largest)
+	{
+		final int size = size();
+		int maxDepth = 0;
+		for (int i = 0; i < size; i++)
+			maxDepth = Math.max(maxDepth, getDepth(i));
+
+		final int[] counts = new int[maxDepth + 1];
+		final int[] cutoffs = new int[maxDepth + 1];
+		final int[][] cutoffIndices = new int[maxDepth + 1][CUTOFF_INDICES];
+		final long[] subtreeTotals = new long[maxDepth + 1];
+		final long[] subtreeMaxes = new long[maxDepth + 1];
+		for (int i = 0; i < size; i++)
+		{
+			final int depth = getDepth(i);
+			counts[depth]++;
+			subtreeTotals[depth] += getSubtreeSize(i);
+			subtreeMaxes[depth] = Math.max(subtreeMaxes[depth], getSubtreeSize(i));
+
+			final int cutoffIndex = getCutoffIndex(i);
+			if (cutoffIndex >= 0)
+			{
+				cutoffs[depth]++;
+				cutoffIndices[depth][Math.min(cutoffIndex, CUTOFF_INDICES - 1)]++;
+			}
+		}
+
+		out.printf("%d nodes, %d records, %d kept%n", nodes, recorded, size);
+		out.printf("%5s %8s %7s %7s %7s %7s %7s %12s %12s%n", "depth", "records", "cutoff", "1st", "2nd", "3rd", "later", "mean nodes", "max nodes");
+		for (int depth = maxDepth; depth >= 0; depth--)
+		{
+			if (counts[depth] == 0)
+				continue;
+
+			out.printf("%5d %8d %6.1f%%", depth, counts[depth], 100.0 * cutoffs[depth] / counts[depth]);
+			for (int i = 0; i < CUTOFF_INDICES; i++)
+				out.printf(" %6.1f%%", cutoffs[depth] == 0 ? 0 : 100.0 * cutoffIndices[depth][i] / cutoffs[depth]);
+			out.printf(" %12.1f %12d%n", (double) subtreeTotals[depth] / counts[depth], subtreeMaxes[depth]);
+		}
+
+		final Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++)
+			order[i] = i;
+		Arrays.sort(order, Comparator.comparingLong(i -> -getSubtreeSize(i)));
+
+		out.printf("Largest subtrees:%n");
+		for (int i = 0; i < Math.min(largest, size); i++)
+		{
+			final int record = order[i];
+			out.printf("  %016x depth %2d %s %10d nodes, window [%.3f, %.3f] -> %.3f, move %s, %d children, cutoff %s%n", getKey(record), getDepth(record), isMaximizing(record) ? "max" : "min",
+					getSubtreeSize(record), getAlpha(record), getBeta(record), getScore(record), getMoveText(record), getChildren(record),
+					getCutoffIndex(record) < 0 ? "none" : "at " + getCutoffIndex(record));
+		}
+	}
+}
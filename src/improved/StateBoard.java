@@ -1,16 +1,18 @@
 package improved;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 /**
  * The <code>StateBoard</code> class encapsulates the board state of a game of English Checkers, where Black starts at the top and White starts at the bottom. It utilizes a bitboard representation
  * rather than the naive array approach for performance reasons.
  * 
  * <p>
- * This class generates actions and maintains the state of the pieces on the board. Likewise, it also determines whether the game is over (won, lost, draw). Note: this implementation of English
- * Checkers will ignore the Draw condition where if the same exact board position has been reached 3 times, then it is a draw because it is memory-intensive.
+ * This class generates actions and maintains the state of the pieces on the board. Likewise, it also determines whether the game is over (won, lost, draw). The Draw condition where the same exact
+ * board position has been reached 3 times is only detected for positions reached through {@link #executeAction(Action)} on this board, using a stack of their Zobrist keys.
  * </p>
  * 
  * @author Mohammad Alali
@@ -135,6 +137,51 @@ public final class StateBoard
 	 */
 	public int plysSinceLastCrownOrCapture;
 
+	/**
+	 * The running sum of {@link PieceSquareTable#SCORES} over all pieces, updated by the actions on execute and undo. Only meaningful when {@link #isPieceSquareScoreValid} is set.
+	 * 
+	 * @see #getPieceSquareScore()
+	 */
+	public double pieceSquareScore;
+
+	/**
+	 * The running sum of {@link PieceSquareTable#OPENING_SCORES} over all pieces, updated by the actions on execute and undo. Only meaningful when {@link #isPieceSquareScoreValid} is set.
+	 * 
+	 * @see #getPieceSquareOpeningScore()
+	 */
+	public double pieceSquareOpeningScore;
+
+	/**
+	 * A flag that determines if {@link #pieceSquareScore} and {@link #pieceSquareOpeningScore} match the board. It is cleared by {@link #markAsDirty()}, and the sums are recomputed from scratch on
+	 * the next read or {@link #executeAction(Action)}.
+	 */
+	private boolean isPieceSquareScoreValid;
+
+	/**
+	 * The Zobrist key of the board. Only meaningful when {@link #isZobristKeyValid} is set.
+	 * 
+	 * @see #getZobristKey()
+	 */
+	private long zobristKey;
+
+	/**
+	 * A flag that determines if {@link #zobristKey} matches the board. It is cleared by {@link #markAsDirty()}, and the key is recomputed from scratch on the next {@link #getZobristKey()}.
+	 */
+	private boolean isZobristKeyValid;
+
+	/**
+	 * The Zobrist keys of the boards before every executed action that has not been undone, oldest first. It is cleared by {@link #markAsDirty()}, since the boards before a direct modification are
+	 * no longer ancestors of this one.
+	 * 
+	 * @see #isThreefoldRepetition()
+	 */
+	private long[] keyHistory;
+
+	/**
+	 * The number of keys in {@link #keyHistory}.
+	 */
+	private int keyHistorySize;
+
 	/**
 	 * A cache for the list of valid move actions. Will be invalidated if an action has been executed or undo'd, or even when the player turn is switched.
 	 * 
@@ -163,6 +210,20 @@ public final class StateBoard
 	 */
 	private boolean areJumpsDirty;
 
+	/**
+	 * A cache for the state of the game. Will be invalidated if an action has been executed or undo'd.
+	 * 
+	 * @see #isGameStateDirty
+	 */
+	private GameState cachedGameState;
+
+	/**
+	 * A flag that determines if the state of the game is outdated: when an action has been executed or undo'd.
+	 * 
+	 * @see #cachedGameState
+	 */
+	private boolean isGameStateDirty;
+
 	/**
 	 * Creates an empty English Checkers board with no pieces, with the Black team playing first.
 	 */
@@ -176,6 +237,11 @@ public final class StateBoard
 		kings = 0L;
 		areMovesDirty = true;
 		areJumpsDirty = true;
+		isGameStateDirty = true;
+		isZobristKeyValid = false;
+		isPieceSquareScoreValid = false;
+		keyHistory = new long[128];
+		keyHistorySize = 0;
 	}
 
 	/**
@@ -196,19 +262,37 @@ public final class StateBoard
 	 * @return return a random state board. Used for testing.
 	 */
 	public static StateBoard random()
+	{
+		return random(Constants.RANDOM);
+	}
+
+	/**
+	 * @param random the random number generator to draw the board from
+	 * @return return a random state board, drawn from the specified generator so it can be reproduced from its seed.
+	 */
+	public static StateBoard random(Random random)
 	{
 		final double kingChance = 0.1; // 10%
-		final int blackPieces = 1 + Constants.RANDOM.nextInt(12); // [1, 12]
-		final int whitePieces = 1 + Constants.RANDOM.nextInt(12); // [1, 12]
-		final boolean isBlackTurn = Constants.RANDOM.nextBoolean();
+		final int blackPieces = 1 + random.nextInt(12); // [1, 12]
+		final int whitePieces = 1 + random.nextInt(12); // [1, 12]
+		final boolean isBlackTurn = random.nextBoolean();
 
-		return random(blackPieces, whitePieces, kingChance, isBlackTurn);
+		return random(random, blackPieces, whitePieces, kingChance, isBlackTurn);
 	}
 
 	/**
 	 * @return return a random state board. Used for testing.
 	 */
 	public static StateBoard random(int blackPieces, int whitePieces, double kingChance, boolean isBlackTurn)
+	{
+		return random(Constants.RANDOM, blackPieces, whitePieces, kingChance, isBlackTurn);
+	}
+
+	/**
+	 * @param random the random number generator to draw the board from
+	 * @return return a random state board, drawn from the specified generator so it can be reproduced from its seed.
+	 */
+	public static StateBoard random(Random random, int blackPieces, int whitePieces, double kingChance, boolean isBlackTurn)
 	{
 		while (true)
 		{
@@ -219,7 +303,7 @@ public final class StateBoard
 
 			while (remainingBlackPieces > 0)
 			{
-				final int index = Constants.RANDOM.nextInt(64); // [0, 63]
+				final int index = random.nextInt(64); // [0, 63]
 
 				// Redo if invalid index or occupied
 				if (((StateBoard.MASK_INVALID >> index) & 1L) != 0)
@@ -231,14 +315,14 @@ public final class StateBoard
 				board.blacks |= position;
 				remainingBlackPieces--;
 
-				final boolean isKing = ((StateBoard.MASK_BLACK_KINGS_ROW >> index) & 1L) != 0L || Constants.RANDOM.nextDouble() <= kingChance;
+				final boolean isKing = ((StateBoard.MASK_BLACK_KINGS_ROW >> index) & 1L) != 0L || random.nextDouble() <= kingChance;
 				if (isKing)
 					board.kings |= position;
 			}
 
 			while (remainingWhitePieces > 0)
 			{
-				final int index = Constants.RANDOM.nextInt(64); // [0, 63]
+				final int index = random.nextInt(64); // [0, 63]
 
 				// Redo if invalid index or occupied
 				if (((StateBoard.MASK_INVALID >> index) & 1L) != 0)
@@ -250,7 +334,7 @@ public final class StateBoard
 				board.whites |= position;
 				remainingWhitePieces--;
 
-				final boolean isKing = ((StateBoard.MASK_WHITE_KINGS_ROW >> index) & 1L) != 0L || Constants.RANDOM.nextDouble() <= kingChance;
+				final boolean isKing = ((StateBoard.MASK_WHITE_KINGS_ROW >> index) & 1L) != 0L || random.nextDouble() <= kingChance;
 				if (isKing)
 					board.kings |= position;
 			}
@@ -271,7 +355,18 @@ public final class StateBoard
 	 */
 	public void executeAction(Action action)
 	{
+		// The actions update the piece-square sums relative to their current value
+		validatePieceSquareScores();
+
+		// Push the key of this board, which is then updated incrementally
+		if (keyHistorySize == keyHistory.length)
+			keyHistory = Arrays.copyOf(keyHistory, keyHistorySize * 2);
+		keyHistory[keyHistorySize++] = getZobristKey();
+
 		final int plys = plysSinceLastCrownOrCapture;
+		final long previousBlacks = blacks;
+		final long previousWhites = whites;
+		final long previousKings = kings;
 		action.execute(this);
 		if (plys == plysSinceLastCrownOrCapture)
 			plysSinceLastCrownOrCapture++;
@@ -280,15 +375,151 @@ public final class StateBoard
 		isBlackTurn = !isBlackTurn;
 		areMovesDirty = true;
 		areJumpsDirty = true;
+		isGameStateDirty = true;
+
+		// Update the key from the bits that changed
+		if (isZobristKeyValid)
+			zobristKey ^= Zobrist.delta(previousBlacks ^ blacks, previousWhites ^ whites, previousKings ^ kings) ^ Zobrist.BLACK_TURN_KEY;
 	}
 
 	/**
-	 * Invalidates the action caches. Used for testing only.
+	 * Invalidates the action and game state caches, the Zobrist key and the key history. Must be called after modifying the bitboards directly once {@link #getZobristKey()} has been used.
 	 */
 	public void markAsDirty()
 	{
 		areMovesDirty = true;
 		areJumpsDirty = true;
+		isGameStateDirty = true;
+		isZobristKeyValid = false;
+		isPieceSquareScoreValid = false;
+		keyHistorySize = 0;
+	}
+
+	/**
+	 * Determines whether this board has been reached 3 times. Only the boards since the last crown or capture are scanned, since no earlier board can repeat, and only every other one since the
+	 * current player's turn is part of the key.
+	 * 
+	 * @return true if this board is the third occurrence of the same position
+	 */
+	public boolean isThreefoldRepetition()
+	{
+		// The earliest third occurrence is after both players move a king back and forth twice
+		if (keyHistorySize < 8)
+			return false;
+
+		final long key = getZobristKey();
+		final int oldest = Math.max(0, keyHistorySize - plysSinceLastCrownOrCapture);
+		int count = 0;
+		for (int i = keyHistorySize - 2; i >= oldest; i -= 2)
+			if (keyHistory[i] == key && ++count == 2)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Returns the Zobrist key of the board. The key is computed from scratch on first use, and then updated incrementally by {@link #executeAction(Action)} and {@link #undoAction(Action)}. The ply
+	 * counter is not part of the key.
+	 * 
+	 * @return the Zobrist key of the board
+	 * @see Zobrist
+	 */
+	public long getZobristKey()
+	{
+		if (!isZobristKeyValid)
+		{
+			zobristKey = Zobrist.hash(blacks, whites, kings, isBlackTurn);
+			isZobristKeyValid = true;
+		}
+
+		return zobristKey;
+	}
+
+	/**
+	 * Returns the canonical Zobrist key of the board, which it shares with its colour-flipped board. Caches indexed by it only need to store one of the two.
+	 *
+	 * @return the canonical Zobrist key of the board
+	 * @see Zobrist#canonical(long)
+	 * @see #flipColors()
+	 */
+	public long getCanonicalZobristKey()
+	{
+		return Zobrist.canonical(getZobristKey());
+	}
+
+	/**
+	 * Rotates the board by 180 degrees and swaps the colours of the pieces and the turn, which gives the same game seen from the other team. Since the index of a position is <code>row * 8 + col</code>,
+	 * the rotation reverses the bits of each bitboard. The Zobrist key and the key history are flipped along, so repetitions are still detected, and the ply counter is kept.
+	 *
+	 * @see Zobrist#flip(long)
+	 */
+	public void flipColors()
+	{
+		final long previousBlacks = blacks;
+		blacks = Long.reverse(whites);
+		whites = Long.reverse(previousBlacks);
+		kings = Long.reverse(kings);
+		isBlackTurn = !isBlackTurn;
+
+		zobristKey = Zobrist.flip(zobristKey);
+		for (int i = 0; i < keyHistorySize; i++)
+			keyHistory[i] = Zobrist.flip(keyHistory[i]);
+
+		areMovesDirty = true;
+		areJumpsDirty = true;
+		isGameStateDirty = true;
+		isPieceSquareScoreValid = false;
+	}
+
+	/**
+	 * Flips the board by {@link #flipColors()} if it is not in the orientation of its canonical Zobrist key.
+	 *
+	 * @return true if the board was flipped, in which case values seen from Black are now seen from White
+	 * @see #getCanonicalZobristKey()
+	 */
+	public boolean canonicalize()
+	{
+		if (!Zobrist.isFlipped(getZobristKey()))
+			return false;
+
+		flipColors();
+		return true;
+	}
+
+	/**
+	 * Returns the sum of {@link PieceSquareTable#SCORES} over all pieces, from Black's point of view. It is computed from scratch on first use, and then updated incrementally by the actions.
+	 * 
+	 * @return the positional value that always applies
+	 * @see PieceSquareTable
+	 */
+	public double getPieceSquareScore()
+	{
+		validatePieceSquareScores();
+		return pieceSquareScore;
+	}
+
+	/**
+	 * Returns the sum of {@link PieceSquareTable#OPENING_SCORES} over all pieces, from Black's point of view. It is computed from scratch on first use, and then updated incrementally by the actions.
+	 * 
+	 * @return the positional value that only applies in the opening
+	 * @see PieceSquareTable
+	 */
+	public double getPieceSquareOpeningScore()
+	{
+		validatePieceSquareScores();
+		return pieceSquareOpeningScore;
+	}
+
+	/**
+	 * Recomputes the piece-square sums from scratch if they do not match the board.
+	 */
+	private void validatePieceSquareScores()
+	{
+		if (!isPieceSquareScoreValid)
+		{
+			pieceSquareScore = PieceSquareTable.score(PieceSquareTable.SCORES, blacks, whites, kings);
+			pieceSquareOpeningScore = PieceSquareTable.score(PieceSquareTable.OPENING_SCORES, blacks, whites, kings);
+			isPieceSquareScoreValid = true;
+		}
 	}
 
 	/**
@@ -299,22 +530,109 @@ public final class StateBoard
 	 */
 	public void undoAction(Action action)
 	{
+		final long previousBlacks = blacks;
+		final long previousWhites = whites;
+		final long previousKings = kings;
 		action.undo(this);
 
 		// Switch the turn and invalidate the cached actions
 		isBlackTurn = !isBlackTurn;
 		areMovesDirty = true;
 		areJumpsDirty = true;
+		isGameStateDirty = true;
+
+		// Update the key from the bits that changed
+		if (isZobristKeyValid)
+			zobristKey ^= Zobrist.delta(previousBlacks ^ blacks, previousWhites ^ whites, previousKings ^ kings) ^ Zobrist.BLACK_TURN_KEY;
+
+		// Pop the key of the restored board
+		if (keyHistorySize > 0)
+			keyHistorySize--;
 	}
 
 	/**
-	 * Determines the state of the game. This will <b>not</b> consider player timeouts, but rather just to the values in {@link GameState}. Furthermore, this does not consider the draw condition where it
-	 * is a draw when the board position has been reached 3 times exactly.
+	 * Determines the state of the game. This will <b>not</b> consider player timeouts, but rather just to the values in {@link GameState}. The draw condition where the board position has been reached
+	 * 3 times is only considered for the boards reached on this board.
 	 * 
 	 * @return the state of the game
 	 * @see GameState
+	 * @see #isThreefoldRepetition()
 	 */
 	public GameState getGameState()
+	{
+		if (isGameStateDirty)
+		{
+			cachedGameState = computeGameState();
+			isGameStateDirty = false;
+		}
+
+		return cachedGameState;
+	}
+
+	/**
+	 * Determines the state of the game, reusing the cached actions when they are up to date instead of recomputing the moves and jumps bitboards.
+	 * 
+	 * @return the state of the game
+	 * @see #getGameState(long, long, long, boolean, int)
+	 */
+	private GameState computeGameState()
+	{
+		GameState gameState;
+		if (!areJumpsDirty && (!cachedJumpActions.isEmpty() || !areMovesDirty))
+		{
+			// Same order of conditions as the static variant, with the actions standing in for the bitboards
+			if (plysSinceLastCrownOrCapture >= 100)
+				gameState = GameState.Draw;
+			else if (blacks == 0L)
+				gameState = GameState.WhiteWin;
+			else if (whites == 0L)
+				gameState = GameState.BlackWin;
+			else if (cachedJumpActions.isEmpty() && cachedMoveActions.isEmpty())
+				gameState = isBlackTurn ? GameState.WhiteWin : GameState.BlackWin;
+			else
+				gameState = GameState.Ongoing;
+		}
+		else
+		{
+			gameState = getGameState(blacks, whites, kings, isBlackTurn, plysSinceLastCrownOrCapture);
+		}
+
+		if (gameState == GameState.Ongoing && isThreefoldRepetition())
+			return GameState.Draw;
+		return gameState;
+	}
+
+	/**
+	 * Generates the valid actions of the current turn's player and caches them together with the state of the game, so that a search node does the move generation work only once. If any jump
+	 * exists, only the jump actions are returned, otherwise the move actions are returned.
+	 * 
+	 * <p>
+	 * After this call, {@link #getGameState()}, {@link #getJumpActions()} and {@link #getMoveActions()} are served from the caches until the next {@link #executeAction(Action)} or
+	 * {@link #undoAction(Action)}.
+	 * </p>
+	 * 
+	 * @return the valid actions, or empty if the current player has none
+	 */
+	public List<? extends Action> generate()
+	{
+		final List<ChainJumpAction> jumpActions = getJumpActions();
+		final List<? extends Action> actions = jumpActions.isEmpty() ? getMoveActions() : jumpActions;
+		getGameState();
+		return actions;
+	}
+
+	/**
+	 * Determines the state of the game for the specified bitboards. Shared by {@link StateBoard} and {@link Position}.
+	 * 
+	 * @param blacks                      the bitboard of all black pieces
+	 * @param whites                      the bitboard of all white pieces
+	 * @param kings                       the bitboard of all king pieces
+	 * @param isBlackTurn                 the current player's turn
+	 * @param plysSinceLastCrownOrCapture the ply counter since the last crown or capture
+	 * @return the state of the game
+	 * @see #getGameState()
+	 */
+	public static GameState getGameState(long blacks, long whites, long kings, boolean isBlackTurn, int plysSinceLastCrownOrCapture)
 	{
 		if (plysSinceLastCrownOrCapture >= 100)
 			return GameState.Draw;
@@ -325,7 +643,7 @@ public final class StateBoard
 		if (Long.bitCount(whites) == 0)
 			return GameState.BlackWin;
 
-		final long validActions = getMoves(isBlackTurn) | getJumps(isBlackTurn);
+		final long validActions = getMoves(blacks, whites, kings, isBlackTurn) | getJumps(blacks, whites, kings, isBlackTurn);
 		if (validActions == 0L)
 			return (isBlackTurn) ? GameState.WhiteWin : GameState.BlackWin;
 
@@ -348,25 +666,12 @@ public final class StateBoard
 		{
 			// Find index of next black piece
 			final int from = Long.numberOfTrailingZeros(remainingBlacks);
-			final long fromPosition = 1L << from;
-
-			// All black pawns can move SW, SE
-			long moves = (fromPosition << SW_LSHIFT) | (fromPosition << SE_LSHIFT);
-			// Only black kings can move NW, NE
-			moves |= ((fromPosition & kings) >> NW_RSHIFT) | ((fromPosition & kings) >> NE_RSHIFT);
-
-			// All black pawns can jump SW, SE
-			long jumps = (((fromPosition << SW_LSHIFT) & whites) << SW_LSHIFT) | (((fromPosition << SE_LSHIFT) & whites) << SE_LSHIFT);
-			// Only black kings can jump NW, NE
-			jumps |= ((((fromPosition & kings) >> NW_RSHIFT) & whites) >> NW_RSHIFT) | ((((fromPosition & kings) >> NE_RSHIFT) & whites) >> NE_RSHIFT);
-
-			// Filter invalid actions
-			final long actions = (moves | jumps) & empty;
-			if (actions == 0L)
+			final boolean isKing = ((kings >> from) & 1L) != 0L;
+			if (isBlocked(from, BoardTables.pieceType(true, isKing), whites, empty))
 				blackBlockedCount++;
 
 			// Unset bit
-			remainingBlacks &= ~fromPosition;
+			remainingBlacks &= remainingBlacks - 1;
 		}
 
 		long remainingWhites = whites;
@@ -374,25 +679,12 @@ public final class StateBoard
 		{
 			// Find index of next white piece
 			final int from = Long.numberOfTrailingZeros(remainingWhites);
-			final long fromPosition = 1L << from;
-
-			// All white pawns can move NW, NE
-			long moves = (fromPosition >> NW_RSHIFT) | (fromPosition >> NE_RSHIFT);
-			// Only white kings can move SW, SE
-			moves |= ((fromPosition & kings) << SW_LSHIFT) | ((fromPosition & kings) << SE_LSHIFT);
-
-			// All white pawns can jump NW, NE
-			long jumps = (((fromPosition >> NW_RSHIFT) & blacks) >> NW_RSHIFT) | (((fromPosition >> NE_RSHIFT) & blacks) >> NE_RSHIFT);
-			// Only white kings can jump SW, SE
-			jumps |= ((((fromPosition & kings) << SW_LSHIFT) & blacks) << SW_LSHIFT) | ((((fromPosition & kings) << SE_LSHIFT) & blacks) << SE_LSHIFT);
-
-			// Filter invalid actions
-			final long actions = (moves | jumps) & empty;
-			if (actions == 0L)
+			final boolean isKing = ((kings >> from) & 1L) != 0L;
+			if (isBlocked(from, BoardTables.pieceType(false, isKing), blacks, empty))
 				whiteBlockedCount++;
 
 			// Unset bit
-			remainingWhites &= ~fromPosition;
+			remainingWhites &= remainingWhites - 1;
 		}
 
 		if (isBlackTurn)
@@ -442,6 +734,20 @@ public final class StateBoard
 	 * @return bitboard of movable positions
 	 */
 	public long getMoves(boolean isBlack)
+	{
+		return getMoves(blacks, whites, kings, isBlack);
+	}
+
+	/**
+	 * Computes, for the specified bitboards, the bitboard representation of all positions that the specified team can move to.
+	 * 
+	 * @param blacks  the bitboard of all black pieces
+	 * @param whites  the bitboard of all white pieces
+	 * @param kings   the bitboard of all king pieces
+	 * @param isBlack the team to get moves for
+	 * @return bitboard of movable positions
+	 */
+	public static long getMoves(long blacks, long whites, long kings, boolean isBlack)
 	{
 		final long empty = ~(blacks | whites) & MASK_VALID;
 
@@ -476,6 +782,20 @@ public final class StateBoard
 	 * @return bitboard of capturable positions
 	 */
 	public long getJumps(boolean isBlack)
+	{
+		return getJumps(blacks, whites, kings, isBlack);
+	}
+
+	/**
+	 * Computes, for the specified bitboards, the bitboard representation of all positions that the specified team can capture. Will only show <b>single-jumps</b>.
+	 * 
+	 * @param blacks  the bitboard of all black pieces
+	 * @param whites  the bitboard of all white pieces
+	 * @param kings   the bitboard of all king pieces
+	 * @param isBlack the team to get jumps for
+	 * @return bitboard of capturable positions
+	 */
+	public static long getJumps(long blacks, long whites, long kings, boolean isBlack)
 	{
 		final long empty = ~(blacks | whites) & MASK_VALID;
 
@@ -556,67 +876,26 @@ public final class StateBoard
 	{
 		final List<MoveAction> moveActions = new ArrayList<>();
 		final long empty = ~(blacks | whites) & MASK_VALID;
-		if (isBlackTurn)
-		{
-			long remainingBlacks = blacks;
-			while (remainingBlacks != 0)
-			{
-				// Find index of next black piece
-				final int from = Long.numberOfTrailingZeros(remainingBlacks);
-				final boolean isKing = ((kings >> from) & 1L) != 0L;
-				final long fromPosition = 1L << from;
-
-				// All black pawns can move SW, SE
-				long moves = (fromPosition << SW_LSHIFT) | (fromPosition << SE_LSHIFT);
-
-				// Only black kings can move NW, NE
-				moves |= ((fromPosition & kings) >> NW_RSHIFT) | ((fromPosition & kings) >> NE_RSHIFT);
 
-				// Filter invalid moves
-				moves &= empty;
-
-				while (moves != 0)
-				{
-					final int to = Long.numberOfTrailingZeros(moves);
-					final long toPosition = 1L << to;
-					moveActions.add(new MoveAction(from, to, true, isKing));
-					moves &= ~toPosition;
-				}
-
-				// Unset bit
-				remainingBlacks &= ~fromPosition;
-			}
-		}
-		else
+		long remainingPieces = isBlackTurn ? blacks : whites;
+		while (remainingPieces != 0)
 		{
-			long remainingWhites = whites;
-			while (remainingWhites != 0)
-			{
-				// Find index of next white piece
-				final int from = Long.numberOfTrailingZeros(remainingWhites);
-				final boolean isKing = ((kings >> from) & 1L) != 0L;
-				final long fromPosition = 1L << from;
-
-				// All white pawns can move NW, NE
-				long moves = (fromPosition >> NW_RSHIFT) | (fromPosition >> NE_RSHIFT);
-
-				// Only white kings can move SW, SE
-				moves |= ((fromPosition & kings) << SW_LSHIFT) | ((fromPosition & kings) << SE_LSHIFT);
-
-				// Filter invalid moves
-				moves &= empty;
+			// Find index of next piece
+			final int from = Long.numberOfTrailingZeros(remainingPieces);
+			final boolean isKing = ((kings >> from) & 1L) != 0L;
 
-				while (moves != 0)
-				{
-					final int to = Long.numberOfTrailingZeros(moves);
-					final long toPosition = 1L << to;
-					moveActions.add(new MoveAction(from, to, false, isKing));
-					moves &= ~toPosition;
-				}
+			// Look up the step targets and filter invalid moves
+			long moves = BoardTables.STEP_MASKS[BoardTables.pieceType(isBlackTurn, isKing)][from] & empty;
 
-				// Unset bit
-				remainingWhites &= ~fromPosition;
+			while (moves != 0)
+			{
+				final int to = Long.numberOfTrailingZeros(moves);
+				moveActions.add(new MoveAction(from, to, isBlackTurn, isKing));
+				moves &= moves - 1;
 			}
+
+			// Unset bit
+			remainingPieces &= remainingPieces - 1;
 		}
 
 		return moveActions;
@@ -632,79 +911,34 @@ public final class StateBoard
 	{
 		final List<ChainJumpAction> jumpActions = new ArrayList<>();
 		final long empty = ~(blacks | whites) & MASK_VALID;
-		if (isBlackTurn)
-		{
-			long remainingBlacks = blacks;
-			while (remainingBlacks != 0)
-			{
-				// Find index of next black piece
-				final int from = Long.numberOfTrailingZeros(remainingBlacks);
-				final boolean isKing = ((kings >> from) & 1L) != 0L;
-				final long fromPosition = 1L << from;
-
-				// All black pawns can jump SW, SE
-				long jumps = (((fromPosition << SW_LSHIFT) & whites) << SW_LSHIFT) | (((fromPosition << SE_LSHIFT) & whites) << SE_LSHIFT);
-
-				// Only black kings can jump NW, NE
-				jumps |= ((((fromPosition & kings) >> NW_RSHIFT) & whites) >> NW_RSHIFT) | ((((fromPosition & kings) >> NE_RSHIFT) & whites) >> NE_RSHIFT);
-
-				// Filter invalid moves
-				jumps &= empty;
+		final long opponents = isBlackTurn ? whites : blacks;
 
-				while (jumps != 0)
-				{
-					final int to = Long.numberOfTrailingZeros(jumps);
-					final long toPosition = 1L << to;
-
-					final ChainJumpAction chainJumpAction = new ChainJumpAction(new JumpAction(this, from, to, true, isKing));
-
-					chainJumpAction.execute(this);
-					findAllChains(jumpActions, chainJumpAction, to, isKing);
-					chainJumpAction.undo(this);
-
-					jumps &= ~toPosition;
-				}
-
-				// Unset bit
-				remainingBlacks &= ~fromPosition;
-			}
-		}
-		else
+		long remainingPieces = isBlackTurn ? blacks : whites;
+		while (remainingPieces != 0)
 		{
-			long remainingWhites = whites;
-			while (remainingWhites != 0)
+			// Find index of next piece
+			final int from = Long.numberOfTrailingZeros(remainingPieces);
+			final boolean isKing = ((kings >> from) & 1L) != 0L;
+			final int pieceType = BoardTables.pieceType(isBlackTurn, isKing);
+			final int[] victims = BoardTables.JUMP_VICTIMS[pieceType][from];
+			final int[] landings = BoardTables.JUMP_LANDINGS[pieceType][from];
+
+			for (int i = 0; i < victims.length; i++)
 			{
-				// Find index of next white piece
-				final int from = Long.numberOfTrailingZeros(remainingWhites);
-				final boolean isKing = ((kings >> from) & 1L) != 0L;
-				final long fromPosition = 1L << from;
-
-				// All white pawns can jump NW, NE
-				long jumps = (((fromPosition >> NW_RSHIFT) & blacks) >> NW_RSHIFT) | (((fromPosition >> NE_RSHIFT) & blacks) >> NE_RSHIFT);
-
-				// Only white kings can jump SW, SE
-				jumps |= ((((fromPosition & kings) << SW_LSHIFT) & blacks) << SW_LSHIFT) | ((((fromPosition & kings) << SE_LSHIFT) & blacks) << SE_LSHIFT);
-
-				// Filter invalid moves
-				jumps &= empty;
-
-				while (jumps != 0)
-				{
-					final int to = Long.numberOfTrailingZeros(jumps);
-					final long toPosition = 1L << to;
-
-					final ChainJumpAction chainJumpAction = new ChainJumpAction(new JumpAction(this, from, to, false, isKing));
-
-					chainJumpAction.execute(this);
-					findAllChains(jumpActions, chainJumpAction, to, isKing);
-					chainJumpAction.undo(this);
+				// Filter invalid jumps
+				if (((opponents >> victims[i]) & 1L) == 0L || ((empty >> landings[i]) & 1L) == 0L)
+					continue;
 
-					jumps &= ~toPosition;
-				}
+				final int to = landings[i];
+				final ChainJumpAction chainJumpAction = new ChainJumpAction(new JumpAction(this, from, to, isBlackTurn, isKing));
 
-				// Unset bit
-				remainingWhites &= ~fromPosition;
+				chainJumpAction.execute(this);
+				findAllChains(jumpActions, chainJumpAction, to, isKing);
+				chainJumpAction.undo(this);
 			}
+
+			// Unset bit
+			remainingPieces &= remainingPieces - 1;
 		}
 
 		if (jumpActions.size() > 0)
@@ -760,6 +994,32 @@ public final class StateBoard
 		}
 	}
 
+	/**
+	 * Determines whether the piece at the specified position has neither a move nor a single jump available.
+	 * 
+	 * @param from      the position of the piece
+	 * @param pieceType the piece type used to index {@link BoardTables}
+	 * @param opponents the bitboard of the opponent's pieces
+	 * @param empty     the bitboard of the empty positions
+	 * @return true if the piece is blocked, false otherwise
+	 * @see BoardTables
+	 */
+	private static boolean isBlocked(int from, int pieceType, long opponents, long empty)
+	{
+		if ((BoardTables.STEP_MASKS[pieceType][from] & empty) != 0L)
+			return false;
+
+		final int[] victims = BoardTables.JUMP_VICTIMS[pieceType][from];
+		final int[] landings = BoardTables.JUMP_LANDINGS[pieceType][from];
+		for (int i = 0; i < victims.length; i++)
+		{
+			if (((opponents >> victims[i]) & 1L) != 0L && ((empty >> landings[i]) & 1L) != 0L)
+				return false;
+		}
+
+		return true;
+	}
+
 	/**
 	 * Computes the list of jump actions for the current turn's player at the specified board position.
 	 * 
@@ -777,36 +1037,17 @@ public final class StateBoard
 			return null;
 
 		final long empty = ~(blacks | whites) & MASK_VALID;
-		final long fromPosition = 1L << from;
-		long jumps = 0;
-
-		if (isBlackTurn)
-		{
-			// All black pawns can jump SW, SE
-			jumps = (((fromPosition << SW_LSHIFT) & whites) << SW_LSHIFT) | (((fromPosition << SE_LSHIFT) & whites) << SE_LSHIFT);
-
-			// Only black kings can jump NW, NE
-			jumps |= ((((fromPosition & kings) >> NW_RSHIFT) & whites) >> NW_RSHIFT) | ((((fromPosition & kings) >> NE_RSHIFT) & whites) >> NE_RSHIFT);
-		}
-		else
-		{
-			// All white pawns can jump NW, NE
-			jumps = (((fromPosition >> NW_RSHIFT) & blacks) >> NW_RSHIFT) | (((fromPosition >> NE_RSHIFT) & blacks) >> NE_RSHIFT);
-
-			// Only white kings can jump SW, SE
-			jumps |= ((((fromPosition & kings) << SW_LSHIFT) & blacks) << SW_LSHIFT) | ((((fromPosition & kings) << SE_LSHIFT) & blacks) << SE_LSHIFT);
-		}
-
-		// Filter invalid moves
-		jumps &= empty;
+		final long opponents = isBlackTurn ? whites : blacks;
+		final int pieceType = BoardTables.pieceType(isBlackTurn, isKing);
+		final int[] victims = BoardTables.JUMP_VICTIMS[pieceType][from];
+		final int[] landings = BoardTables.JUMP_LANDINGS[pieceType][from];
 
 		final List<JumpAction> currentJumpActions = new ArrayList<>();
-		while (jumps != 0)
+		for (int i = 0; i < victims.length; i++)
 		{
-			final int to = Long.numberOfTrailingZeros(jumps);
-			final long toPosition = 1L << to;
-			currentJumpActions.add(new JumpAction(this, from, to, isBlackTurn, isKing));
-			jumps &= ~toPosition;
+			// Filter invalid jumps
+			if (((opponents >> victims[i]) & 1L) != 0L && ((empty >> landings[i]) & 1L) != 0L)
+				currentJumpActions.add(new JumpAction(this, from, landings[i], isBlackTurn, isKing));
 		}
 
 		return currentJumpActions;
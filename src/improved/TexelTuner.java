@@ -0,0 +1,370 @@
+package improved;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The <code>TexelTuner</code> class tunes the {@link EvaluationWeights} against a dataset of positions labelled with the result of the game they were taken from. It minimizes the mean squared error
+ * between each result and the sigmoid of the static evaluation, which is how the Texel method predicts the outcome of a game from a single position.
+ *
+ * <p>
+ * The format of the dataset file is one position per line: the 64 characters of the board in row order (using the same characters as {@link Problem}), the current player's turn
+ * (<code>BLACK</code> or <code>WHITE</code>), and the result of the game from Black's point of view (<code>1</code> win, <code>0.5</code> draw, <code>0</code> loss), separated by spaces:
+ * <ul>
+ * <code>.b.b.b.bb.b.b.b..b.b.b.b................w.w.w.w..w.w.w.ww.w.w.w. BLACK 0.5</code>
+ * </ul>
+ * Positions that are not ongoing are skipped, since their evaluation does not depend on the weights. Binary datasets of <code>DatasetWriter</code> are read by {@link #loadBinary(File)}.
+ * </p>
+ *
+ * <p>
+ * The static evaluation is linear in the weights, so every position is reduced once to its feature differentials and the loss and gradient are dot products over those. Both are computed in
+ * parallel over chunks of the dataset, and the weights are updated with Adam.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see EvaluationWeights
+ * @see tune
+ */
+public final class TexelTuner
+{
+	/**
+	 * The number of features per position, one per weight of {@link EvaluationWeights#NAMES}.
+	 */
+	public static final int NUM_FEATURES = EvaluationWeights.NAMES.length;
+
+	/**
+	 * The number of positions per parallel task.
+	 */
+	private static final int CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * The feature differentials of every position, <code>NUM_FEATURES</code> per position.
+	 */
+	private final byte[] features;
+
+	/**
+	 * The result of every position from Black's point of view.
+	 */
+	private final double[] results;
+
+	/**
+	 * The number of positions.
+	 */
+	private final int count;
+
+	/**
+	 * The scaling factor applied to the evaluation before the sigmoid.
+	 */
+	private double scale = 1;
+
+	/**
+	 * Creates a tuner over the specified positions.
+	 *
+	 * @param features the feature differentials of every position, <code>NUM_FEATURES</code> per position
+	 * @param results  the result of every position from Black's point of view
+	 * @param count    the number of positions
+	 */
+	private TexelTuner(byte[] features, double[] results, int count)
+	{
+		this.features = features;
+		this.results = results;
+		this.count = count;
+	}
+
+	/**
+	 * Reads the specified dataset file.
+	 *
+	 * @param file the dataset file
+	 * @return the tuner over the ongoing positions of the dataset
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException if a line is malformed
+	 */
+	public static TexelTuner load(File file) throws IOException
+	{
+		long[] blacks = new long[1024];
+		long[] whites = new long[1024];
+		long[] kings = new long[1024];
+		double[] results = new double[1024];
+		int count = 0;
+
+		try (final BufferedReader reader = new BufferedReader(new FileReader(file)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isBlank())
+					continue;
+
+				final String[] tokens = line.trim().split("\\s+");
+				if (tokens.length != 3 || tokens[0].length() != 64)
+					throw new IllegalArgumentException("Malformed dataset line: " + line);
+
+				final StateBoard board = new StateBoard();
+				for (int i = 0; i < 64; i++)
+					Problem.placePiece(board, tokens[0].charAt(i), 1L << i);
+
+				final boolean isBlackTurn = tokens[1].equals("BLACK");
+				if (StateBoard.getGameState(board.blacks, board.whites, board.kings, isBlackTurn, 0) != GameState.Ongoing)
+					continue;
+
+				if (count == results.length)
+				{
+					blacks = Arrays.copyOf(blacks, count * 2);
+					whites = Arrays.copyOf(whites, count * 2);
+					kings = Arrays.copyOf(kings, count * 2);
+					results = Arrays.copyOf(results, count * 2);
+				}
+
+				blacks[count] = board.blacks;
+				whites[count] = board.whites;
+				kings[count] = board.kings;
+				results[count++] = Double.parseDouble(tokens[2]);
+			}
+		}
+
+		return new TexelTuner(extractFeatures(blacks, whites, kings, count), results, count);
+	}
+
+	/**
+	 * Reads the specified binary dataset file written by <code>DatasetWriter</code>. Only the bitboards and the result of every record are used.
+	 *
+	 * @param file the dataset file
+	 * @return the tuner over the ongoing positions of the dataset
+	 * @throws IOException if the file cannot be read
+	 */
+	public static TexelTuner loadBinary(File file) throws IOException
+	{
+		try (final DatasetReader reader = new DatasetReader(file))
+		{
+			final int size = (int) Math.min(reader.size(), Integer.MAX_VALUE / NUM_FEATURES);
+			final long[] blacks = new long[size];
+			final long[] whites = new long[size];
+			final long[] kings = new long[size];
+			final double[] results = new double[size];
+			int count = 0;
+
+			while (count < size && reader.next())
+			{
+				if (StateBoard.getGameState(reader.blacks, reader.whites, reader.kings, reader.isBlackTurn, 0) != GameState.Ongoing)
+					continue;
+
+				blacks[count] = reader.blacks;
+				whites[count] = reader.whites;
+				kings[count] = reader.kings;
+				results[count++] = reader.result * 0.5;
+			}
+
+			return new TexelTuner(extractFeatures(blacks, whites, kings, count), results, count);
+		}
+	}
+
+	/**
+	 * Computes the feature differentials of the first <code>count</code> boards, such that their dot product with {@link EvaluationWeights#toArray()} is the static score from Black's point of view.
+	 *
+	 * <p>
+	 * The features are not written out by hand, but read off {@link Minimax#getStaticScore(long, long, long)}, the evaluation of the search: since it is linear in the weights, the feature of a weight
+	 * is the score of the board when that weight is 1 and all others are 0. So the tuned weights always fit the evaluation the search actually uses. The current weights are replaced while the
+	 * features are computed, and restored afterwards, so no search may run meanwhile.
+	 * </p>
+	 *
+	 * @param blacks the bitboards of all black pieces
+	 * @param whites the bitboards of all white pieces
+	 * @param kings  the bitboards of all king pieces
+	 * @param count  the number of boards
+	 * @return the feature differentials, <code>NUM_FEATURES</code> per board
+	 * @throws IllegalStateException if the evaluation is not linear in the weights, or a feature is not a small integer
+	 */
+	public static byte[] extractFeatures(long[] blacks, long[] whites, long[] kings, int count)
+	{
+		final byte[] features = new byte[NUM_FEATURES * count];
+		final double[] weights = EvaluationWeights.toArray();
+		try
+		{
+			// Without any weights, nothing may be left of the score
+			EvaluationWeights.fromArray(new double[NUM_FEATURES]);
+			for (int i = 0; i < count; i++)
+				if (Minimax.getStaticScore(blacks[i], whites[i], kings[i]) != 0)
+					throw new IllegalStateException("The static evaluation has a term without a weight");
+
+			for (int j = 0; j < NUM_FEATURES; j++)
+			{
+				final double[] unit = new double[NUM_FEATURES];
+				unit[j] = 1;
+				EvaluationWeights.fromArray(unit);
+				for (int i = 0; i < count; i++)
+				{
+					final double feature = Minimax.getStaticScore(blacks[i], whites[i], kings[i]);
+					if (feature != Math.rint(feature) || Math.abs(feature) > Byte.MAX_VALUE)
+						throw new IllegalStateException("The feature of " + EvaluationWeights.NAMES[j] + " is not a small integer: " + feature);
+					features[i * NUM_FEATURES + j] = (byte) feature;
+				}
+			}
+		}
+		finally
+		{
+			EvaluationWeights.fromArray(weights);
+		}
+		return features;
+	}
+
+	/**
+	 * @return the number of positions
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * @return the scaling factor applied to the evaluation before the sigmoid
+	 */
+	public double getScale()
+	{
+		return scale;
+	}
+
+	/**
+	 * Finds the scaling factor that minimizes the loss of the specified weights, using a ternary search over <code>(0, maxScale]</code>. This should be done once before tuning so that the weights
+	 * keep their current magnitude.
+	 *
+	 * @param weights  the weights, in the order of {@link EvaluationWeights#NAMES}
+	 * @param maxScale the largest scaling factor to consider
+	 * @return the best scaling factor
+	 */
+	public double fitScale(double[] weights, double maxScale)
+	{
+		double low = 0;
+		double high = maxScale;
+		for (int i = 0; i < 100; i++)
+		{
+			final double a = low + (high - low) / 3;
+			final double b = high - (high - low) / 3;
+			scale = a;
+			final double lossA = loss(weights);
+			scale = b;
+			final double lossB = loss(weights);
+			if (lossA < lossB)
+				high = b;
+			else
+				low = a;
+		}
+
+		scale = (low + high) / 2;
+		return scale;
+	}
+
+	/**
+	 * Computes the mean squared error between the results and the predicted results of the specified weights.
+	 *
+	 * @param weights the weights, in the order of {@link EvaluationWeights#NAMES}
+	 * @return the mean squared error
+	 */
+	public double loss(double[] weights)
+	{
+		final double sum = IntStream.range(0, numChunks()).parallel().mapToDouble(chunk ->
+		{
+			double chunkSum = 0;
+			for (int i = chunk * CHUNK_SIZE, end = Math.min(count, i + CHUNK_SIZE); i < end; i++)
+			{
+				final double error = predict(weights, i) - results[i];
+				chunkSum += error * error;
+			}
+			return chunkSum;
+		}).sum();
+
+		return count == 0 ? 0 : sum / count;
+	}
+
+	/**
+	 * Computes the gradient of {@link #loss(double[])} with respect to every weight.
+	 *
+	 * @param weights the weights, in the order of {@link EvaluationWeights#NAMES}
+	 * @return the gradient, in the order of {@link EvaluationWeights#NAMES}
+	 */
+	public double[] gradient(double[] weights)
+	{
+		final double[] sum = IntStream.range(0, numChunks()).parallel().mapToObj(chunk ->
+		{
+			final double[] chunkSum = new double[NUM_FEATURES];
+			for (int i = chunk * CHUNK_SIZE, end = Math.min(count, i + CHUNK_SIZE); i < end; i++)
+			{
+				// d/dw (p - r)^2 = 2 (p - r) p (1 - p) scale f
+				final double prediction = predict(weights, i);
+				final double factor = (prediction - results[i]) * prediction * (1 - prediction);
+				for (int j = 0; j < NUM_FEATURES; j++)
+					chunkSum[j] += factor * features[i * NUM_FEATURES + j];
+			}
+			return chunkSum;
+		}).reduce(new double[NUM_FEATURES], (a, b) ->
+		{
+			final double[] c = new double[NUM_FEATURES];
+			for (int j = 0; j < NUM_FEATURES; j++)
+				c[j] = a[j] + b[j];
+			return c;
+		});
+
+		for (int j = 0; j < NUM_FEATURES; j++)
+			sum[j] *= count == 0 ? 0 : 2 * scale / count;
+		return sum;
+	}
+
+	/**
+	 * Tunes the specified weights with Adam for the specified number of iterations.
+	 *
+	 * @param weights      the initial weights, in the order of {@link EvaluationWeights#NAMES}
+	 * @param iterations   the number of passes over the dataset
+	 * @param learningRate the step size
+	 * @return the tuned weights, in the order of {@link EvaluationWeights#NAMES}
+	 */
+	public double[] tune(double[] weights, int iterations, double learningRate)
+	{
+		final double beta1 = 0.9;
+		final double beta2 = 0.999;
+		final double epsilon = 1e-8;
+
+		final double[] tuned = weights.clone();
+		final double[] momentum = new double[NUM_FEATURES];
+		final double[] velocity = new double[NUM_FEATURES];
+
+		for (int t = 1; t <= iterations; t++)
+		{
+			final double[] gradient = gradient(tuned);
+			for (int j = 0; j < NUM_FEATURES; j++)
+			{
+				momentum[j] = beta1 * momentum[j] + (1 - beta1) * gradient[j];
+				velocity[j] = beta2 * velocity[j] + (1 - beta2) * gradient[j] * gradient[j];
+				final double momentumHat = momentum[j] / (1 - Math.pow(beta1, t));
+				final double velocityHat = velocity[j] / (1 - Math.pow(beta2, t));
+				tuned[j] -= learningRate * momentumHat / (Math.sqrt(velocityHat) + epsilon);
+			}
+		}
+
+		return tuned;
+	}
+
+	/**
+	 * Predicts the result of a position from Black's point of view.
+	 *
+	 * @param weights the weights, in the order of {@link EvaluationWeights#NAMES}
+	 * @param i       the index of the position
+	 * @return the predicted result (0-1)
+	 */
+	private double predict(double[] weights, int i)
+	{
+		double score = 0;
+		for (int j = 0; j < NUM_FEATURES; j++)
+			score += weights[j] * features[i * NUM_FEATURES + j];
+		return 1 / (1 + Math.exp(-scale * score));
+	}
+
+	/**
+	 * @return the number of parallel tasks covering the dataset
+	 */
+	private int numChunks()
+	{
+		return (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+}
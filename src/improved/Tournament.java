@@ -0,0 +1,202 @@
+package improved;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The <code>Tournament</code> class plays a headless match between two <code>TournamentEngine</code>s, one game per worker thread, and stops early once the sequential probability ratio test (SPRT)
+ * accepts either hypothesis.
+ *
+ * <p>
+ * Games are played in pairs from the same opening, reached by a few random plies from the initial position, with the engines swapping colours. Every game owns its positions and searches with
+ * {@link Minimax#searchPosition(Position, int, long)}, so games never share state and throughput scales with the number of workers. The results are only accumulated by the calling thread.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see TournamentEngine
+ * @see MatchStatistics
+ */
+public final class Tournament
+{
+	/**
+	 * The engine whose results are reported.
+	 */
+	private final TournamentEngine first;
+
+	/**
+	 * The opponent engine.
+	 */
+	private final TournamentEngine second;
+
+	/**
+	 * The number of games played at once.
+	 */
+	private final int threads;
+
+	/**
+	 * The seed of the random openings, so the same match can be replayed.
+	 */
+	private final long seed;
+
+	/**
+	 * Creates a tournament between the specified engines.
+	 *
+	 * @param first   the engine whose results are reported
+	 * @param second  the opponent engine
+	 * @param threads the number of games played at once
+	 * @param seed    the seed of the random openings
+	 */
+	public Tournament(TournamentEngine first, TournamentEngine second, int threads, long seed)
+	{
+		this.first = first;
+		this.second = second;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	/**
+	 * Plays games until either SPRT hypothesis is accepted or <code>maxGames</code> games have been played. A progress line is printed after every completed game.
+	 *
+	 * @param maxGames     the maximum number of games
+	 * @param openingPlies the number of random plies of every opening
+	 * @param elo0         the Elo difference of the null hypothesis
+	 * @param elo1         the Elo difference of the alternative hypothesis
+	 * @param alpha        the probability of accepting the alternative hypothesis when the null one is true
+	 * @param beta         the probability of accepting the null hypothesis when the alternative one is true
+	 * @return the statistics of the played games
+	 * @throws InterruptedException if interrupted while waiting for a game
+	 */
+	public MatchStatistics run(int maxGames, int openingPlies, double elo0, double elo1, double alpha, double beta) throws InterruptedException
+	{
+		final double lowerBound = Math.log(beta / (1 - alpha));
+		final double upperBound = Math.log((1 - beta) / alpha);
+
+		final MatchStatistics statistics = new MatchStatistics();
+		// Daemon workers, so the games still being played once the test is decided never keep the program alive
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, r ->
+		{
+			final Thread thread = new Thread(r, "Tournament game");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletionService<Double> games = new ExecutorCompletionService<>(executor);
+		final Random random = new Random(seed);
+
+		try
+		{
+			// Keep every worker busy with one queued game behind it
+			int submitted = 0;
+			Position opening = null;
+			while (submitted < Math.min(maxGames, threads * 2))
+				opening = submit(games, submitted++, opening, random, openingPlies);
+
+			final long startTime = System.nanoTime();
+			for (int completed = 1; completed <= submitted; completed++)
+			{
+				statistics.add(games.take().get());
+
+				final double llr = statistics.getLogLikelihoodRatio(elo0, elo1);
+				final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+				System.out.printf("%s, LLR = %.2f [%.2f, %.2f], %.2f games/s%n", statistics, llr, lowerBound, upperBound, completed / elapsed);
+
+				if (llr >= upperBound)
+				{
+					System.out.println("SPRT: H1 accepted, " + first.name + " is stronger by at least " + elo1 + " Elo");
+					break;
+				}
+				if (llr <= lowerBound)
+				{
+					System.out.println("SPRT: H0 accepted, " + first.name + " is not stronger by more than " + elo0 + " Elo");
+					break;
+				}
+
+				if (submitted < maxGames)
+					opening = submit(games, submitted++, opening, random, openingPlies);
+			}
+		}
+		catch (final ExecutionException e)
+		{
+			throw new IllegalStateException("A game failed", e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return statistics;
+	}
+
+	/**
+	 * Submits the specified game. Even games start a new opening with the first engine playing Black, and odd games replay the previous opening with the colours swapped.
+	 *
+	 * @param games        the completion service of the games
+	 * @param game         the index of the game
+	 * @param opening      the opening of the previous game
+	 * @param random       the random number generator of the openings
+	 * @param openingPlies the number of random plies of every opening
+	 * @return the opening of the submitted game
+	 */
+	private Position submit(CompletionService<Double> games, int game, Position opening, Random random, int openingPlies)
+	{
+		final Position start = (game % 2 == 0) ? randomOpening(random, openingPlies) : opening;
+		final boolean isFirstBlack = (game % 2 == 0);
+		games.submit(() ->
+		{
+			final GameState result = play(start, isFirstBlack ? first : second, isFirstBlack ? second : first, threads);
+			if (result == GameState.Draw)
+				return 0.5;
+			return (result == GameState.BlackWin) == isFirstBlack ? 1.0 : 0.0;
+		});
+		return start;
+	}
+
+	/**
+	 * Plays a single game to the end.
+	 *
+	 * @param position the starting position
+	 * @param black    the engine playing Black
+	 * @param white    the engine playing White
+	 * @param games    the number of games played concurrently, one per worker
+	 * @return the terminal state of the game
+	 * @throws CancellationException if the calling thread is interrupted, such as when the tournament is already decided
+	 */
+	public static GameState play(Position position, TournamentEngine black, TournamentEngine white, int games)
+	{
+		GameState gameState;
+		while ((gameState = position.getGameState()) == GameState.Ongoing)
+		{
+			if (Thread.currentThread().isInterrupted())
+				throw new CancellationException();
+			position = (position.isBlackTurn ? black : white).play(position, games);
+		}
+		return gameState;
+	}
+
+	/**
+	 * Creates an opening by playing uniformly random actions from the initial position. Openings that end the game are discarded.
+	 *
+	 * @param random the random number generator
+	 * @param plies  the number of random plies
+	 * @return the opening position
+	 */
+	public static Position randomOpening(Random random, int plies)
+	{
+		while (true)
+		{
+			Position position = Position.of(StateBoard.initial());
+			for (int i = 0; i < plies && position.getGameState() == GameState.Ongoing; i++)
+			{
+				final List<Position> children = position.children();
+				position = children.get(random.nextInt(children.size()));
+			}
+
+			if (position.getGameState() == GameState.Ongoing)
+				return position;
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package improved;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The <code>TournamentEngine</code> class describes one side of a <code>Tournament</code>: how deep and how long it searches each move, and with which transposition table. It holds no search state
+ * of its own, so the same engine can play any number of games at once.
+ *
+ * <p>
+ * Without a table, every move is a plain alpha-beta search. With a table, every move is an iterative deepening that reuses the results of earlier searches: either from a private table per worker
+ * thread, which only sees the games of that worker one after the other, or from the process-wide {@link TranspositionTable#getShared()}, which sees all the games at once.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see Tournament
+ * @see Minimax#searchPosition(Position, int, long)
+ */
+public final class TournamentEngine
+{
+	/**
+	 * The name of the engine in the reports.
+	 */
+	public final String name;
+
+	/**
+	 * The max depth of every search.
+	 */
+	public final int depth;
+
+	/**
+	 * The time in seconds after which a search stops deepening.
+	 */
+	public final double moveTime;
+
+	/**
+	 * The transposition table the engine searches with.
+	 */
+	public final Table table;
+
+	/**
+	 * The private tables created so far, one per worker thread, for their statistics.
+	 */
+	private final Queue<TranspositionTable> privateTables = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The private table of the current worker thread.
+	 */
+	private final ThreadLocal<TranspositionTable> privateTable = ThreadLocal.withInitial(() ->
+	{
+		final TranspositionTable table = new TranspositionTable(Constants.TOURNAMENT_TABLE_SIZE_BITS);
+		privateTables.add(table);
+		return table;
+	});
+
+	/**
+	 * Creates an engine with the specified arguments.
+	 *
+	 * @param name     the name of the engine in the reports
+	 * @param depth    the max depth of every search
+	 * @param moveTime the time in seconds after which a search stops deepening
+	 */
+	public TournamentEngine(String name, int depth, double moveTime)
+	{
+		this(name, depth, moveTime, Table.None);
+	}
+
+	/**
+	 * Creates an engine with the specified arguments.
+	 *
+	 * @param name     the name of the engine in the reports
+	 * @param depth    the max depth of every search
+	 * @param moveTime the time in seconds after which a search stops deepening
+	 * @param table    the transposition table the engine searches with
+	 */
+	public TournamentEngine(String name, int depth, double moveTime, Table table)
+	{
+		this.name = name;
+		this.depth = depth;
+		this.moveTime = moveTime;
+		this.table = table;
+	}
+
+	/**
+	 * Parses an engine from a <code>name:depth:moveTime[:table]</code> string, where the table is <code>none</code> (the default), <code>private</code> or <code>shared</code>.
+	 *
+	 * @param text the string to parse
+	 * @return the engine
+	 * @throws IllegalArgumentException if the string is malformed
+	 */
+	public static TournamentEngine parse(String text)
+	{
+		final String[] tokens = text.split(":");
+		if (tokens.length != 3 && tokens.length != 4)
+			throw new IllegalArgumentException("Expected name:depth:moveTime[:none|private|shared], got " + text);
+
+		Table table = Table.None;
+		if (tokens.length == 4)
+		{
+			table = null;
+			for (final Table value : Table.values())
+				if (value.name().equalsIgnoreCase(tokens[3]))
+					table = value;
+			if (table == null)
+				throw new IllegalArgumentException("Expected a table of none, private or shared, got " + tokens[3]);
+		}
+		return new TournamentEngine(tokens[0], Integer.parseInt(tokens[1]), Double.parseDouble(tokens[2]), table);
+	}
+
+	/**
+	 * Chooses the next position of the specified game, the only one being played.
+	 *
+	 * @param position the current position
+	 * @return the position after this engine's action, or <code>null</code> if the current player has no valid actions
+	 */
+	public Position play(Position position)
+	{
+		return play(position, 1);
+	}
+
+	/**
+	 * Chooses the next position of one of the specified number of games played concurrently. A private table only sees the games of its worker one after the other, so it starts a new generation on
+	 * every move. The shared table sees all the games at once, so it starts a new generation once per round of searches, as many as there are games.
+	 *
+	 * @param position the current position
+	 * @param games    the number of games played concurrently
+	 * @return the position after this engine's action, or <code>null</code> if the current player has no valid actions
+	 * @see TranspositionTable#startSearch(int)
+	 */
+	public Position play(Position position, int games)
+	{
+		final long deadline = System.nanoTime() + (long) (moveTime * Constants.SEC_TO_NANO);
+		if (table == Table.None)
+			return Minimax.searchPosition(position, depth, deadline);
+
+		final TranspositionTable transpositionTable;
+		if (table == Table.Shared)
+		{
+			transpositionTable = TranspositionTable.getShared();
+			transpositionTable.startSearch(games);
+		}
+		else
+		{
+			transpositionTable = privateTable.get();
+			transpositionTable.nextGeneration();
+		}
+		return Minimax.searchPosition(position, depth, deadline, transpositionTable);
+	}
+
+	/**
+	 * Describes the hit rate of the engine's table. The shared table's statistics include all the engines that share it.
+	 *
+	 * @return the hits, lookups and hit rate of the table, or <code>null</code> without a table
+	 */
+	public String getTableStatistics()
+	{
+		long probes = 0;
+		long hits = 0;
+		if (table == Table.Shared)
+		{
+			probes = TranspositionTable.getShared().getProbes();
+			hits = TranspositionTable.getShared().getHits();
+		}
+		else if (table == Table.Private)
+		{
+			for (final TranspositionTable privateTable : privateTables)
+			{
+				probes += privateTable.getProbes();
+				hits += privateTable.getHits();
+			}
+		}
+		else
+			return null;
+
+		return String.format("%s: %s table, %d hits / %d lookups = %.2f%%", name, table.name().toLowerCase(), hits, probes, probes == 0 ? 0 : 100.0 * hits / probes);
+	}
+
+	/**
+	 * @return the name, depth, move time and table of this engine
+	 */
+	@Override
+	public String toString()
+	{
+		return name + " (depth = " + depth + ", move time = " + moveTime + " s, table = " + table.name().toLowerCase() + ")";
+	}
+
+	/**
+	 * The <code>Table</code> enum represents the transposition table an engine searches with.
+	 */
+	public enum Table
+	{
+		/**
+		 * No table, every move is a plain alpha-beta search.
+		 */
+		None,
+
+		/**
+		 * A table per worker thread, reused by the games that worker plays one after the other.
+		 */
+		Private,
+
+		/**
+		 * The process-wide table, used by all the games at once.
+		 */
+		Shared
+	}
+}
@@ -0,0 +1,375 @@
+package improved;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The <code>TranspositionTable</code> class is a table of search results, indexed by the Zobrist key of the position. Unlike the {@link EvaluationCache}, which only holds static evaluations, it
+ * stores the value of a whole subtree along with the depth it was searched to, so a later search of the same position to the same depth or less can reuse it. It also remembers the best child, which
+ * is searched first next time.
+ *
+ * <p>
+ * Each entry is packed into one <code>long</code>:
+ * <ul>
+ * <li>bits 0-31: the value from Black's point of view, as a <code>float</code></li>
+ * <li>bits 32-39: the depth of the search</li>
+ * <li>bits 40-41: the type of bound ({@link #EXACT}, {@link #LOWER} or {@link #UPPER})</li>
+ * <li>bits 42-49: the index of the best child in {@link Position#children()}, or <code>255</code> if unknown</li>
+ * <li>bit 50: whether the best child is an index of the children of the colour-flipped position</li>
+ * <li>bits 51-62: the generation the entry was stored in</li>
+ * </ul>
+ * The slot's key is stored XOR'd with that data, so a torn write from another thread is detected as a miss. The table needs no locks, so any number of searches can share it, as does the
+ * process-wide table of {@link #getShared()}.
+ * </p>
+ *
+ * <p>
+ * A key may be stored in any of the {@link #BUCKET_SIZE} slots of its bucket. An entry is never replaced by a shallower search of the same position, unless it is stale. Otherwise the new entry
+ * replaces the least valuable one of the bucket: entries of an older generation go first, the oldest and shallowest of them first, and only then the shallowest entry of the current generation.
+ * A single search calls {@link #nextGeneration()} before every move, so the subtrees of moves already played make room for the current search. Concurrent searches, such as the games of a
+ * tournament sharing the table, call {@link #startSearch(int)} instead, which starts a new generation once per round of searches rather than on every search, so a search in progress is not made
+ * stale by the moves of the other games.
+ * </p>
+ *
+ * <p>
+ * The generation counter wraps around after {@link #GENERATION_MASK} + 1 generations. So that an old entry never looks current again, every half of that the entries older than {@link #MAX_AGE}
+ * are restamped to that age, which keeps every entry younger than a full wrap around. They still go first when replaced.
+ * </p>
+ *
+ * <p>
+ * A position and its colour-flipped position share one entry under their {@link Zobrist#canonical(long)} key, with the value from the point of view of the canonical orientation. Probing the flipped
+ * orientation negates the value and swaps lower and upper bounds, so callers always see the entry from their own position's point of view. The order of the children differs between the two
+ * orientations, so the best child is only returned to the orientation that stored it.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see Minimax#searchValue(Position, int, double, double, TranspositionTable)
+ * @see Zobrist
+ */
+public final class TranspositionTable
+{
+	/**
+	 * The value returned by {@link #probe(long)} when the key is not stored. It cannot collide with stored data since bit 63 is always zero.
+	 */
+	public static final long MISS = -1L;
+
+	/**
+	 * The bound type of a value that is exact.
+	 */
+	public static final int EXACT = 0;
+
+	/**
+	 * The bound type of a value that is a lower bound, since the search failed high.
+	 */
+	public static final int LOWER = 1;
+
+	/**
+	 * The bound type of a value that is an upper bound, since the search failed low.
+	 */
+	public static final int UPPER = 2;
+
+	/**
+	 * The best child index of an entry without a known best child.
+	 */
+	public static final int NO_CHILD = 0xFF;
+
+	/**
+	 * The number of slots of a bucket. Four keys fill half of a cache line.
+	 */
+	public static final int BUCKET_SIZE = 4;
+
+	/**
+	 * The bit of an entry whose best child is an index of the children of the colour-flipped position.
+	 */
+	private static final long FLIPPED_CHILD_BIT = 1L << 50;
+
+	/**
+	 * The bitmask of the generation counter, which wraps around.
+	 */
+	private static final int GENERATION_MASK = 0xFFF;
+
+	/**
+	 * The greatest age an entry is kept at, half a wrap around of the generation counter. Older entries are restamped to it.
+	 */
+	private static final int MAX_AGE = GENERATION_MASK / 2;
+
+	/**
+	 * The key of each slot, XOR'd with the data of that slot.
+	 */
+	private final long[] keys;
+
+	/**
+	 * The packed value, depth, bound and best child of each slot.
+	 */
+	private final long[] data;
+
+	/**
+	 * The bitmask to convert a key into the index of the first slot of its bucket.
+	 */
+	private final int mask;
+
+	/**
+	 * The current generation, from 0 to {@link #GENERATION_MASK}.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+
+	/**
+	 * The number of calls to {@link #startSearch(int)}.
+	 */
+	private final AtomicLong searches = new AtomicLong();
+
+	/**
+	 * The number of calls to {@link #probe(long)}.
+	 */
+	private final LongAdder probes = new LongAdder();
+
+	/**
+	 * The number of calls to {@link #probe(long)} that found the key.
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Creates an empty table with <code>2^sizeBits</code> slots.
+	 *
+	 * @param sizeBits the base-2 logarithm of the number of slots
+	 * @throws IllegalArgumentException if <code>sizeBits</code> is not within [2, 30]
+	 */
+	public TranspositionTable(int sizeBits)
+	{
+		if (sizeBits < 2 || sizeBits > 30)
+			throw new IllegalArgumentException("sizeBits must be within [2, 30], got " + sizeBits);
+
+		keys = new long[1 << sizeBits];
+		data = new long[1 << sizeBits];
+		mask = (1 << sizeBits) - BUCKET_SIZE;
+	}
+
+	/**
+	 * Returns the process-wide table, of <code>2^</code>{@link Constants#SHARED_TABLE_SIZE_BITS} slots, for engines that share their results with each other. It is only allocated on first use.
+	 *
+	 * @return the shared table
+	 */
+	public static TranspositionTable getShared()
+	{
+		return SharedHolder.TABLE;
+	}
+
+	/**
+	 * Starts a new generation, which makes the entries stored so far stale. Called before searching a move, so the entries of previous moves are replaced first.
+	 */
+	public void nextGeneration()
+	{
+		final int currentGeneration = generation.updateAndGet(value -> (value + 1) & GENERATION_MASK);
+		if ((currentGeneration & MAX_AGE) == 0)
+			restampOldEntries(currentGeneration);
+	}
+
+	/**
+	 * Counts the start of one of the specified number of searches that run concurrently on this table, and starts a new generation once every that many starts. Each search then moves about once
+	 * per generation, so only the entries of its previous moves become stale, and not those of the search in progress.
+	 *
+	 * @param concurrentSearches the number of searches that run concurrently on this table
+	 */
+	public void startSearch(int concurrentSearches)
+	{
+		if (searches.incrementAndGet() % concurrentSearches == 0)
+			nextGeneration();
+	}
+
+	/**
+	 * Restamps the entries older than {@link #MAX_AGE} to that age, so they stay older than any other entry until the counter wraps around to their generation. A store racing with the restamp may be
+	 * lost, or leave its slot torn, which is detected as a miss like any torn write.
+	 *
+	 * @param currentGeneration the current generation
+	 */
+	private void restampOldEntries(int currentGeneration)
+	{
+		final long oldestGeneration = (currentGeneration - MAX_AGE) & GENERATION_MASK;
+		for (int index = 0; index < data.length; index++)
+		{
+			final long old = data[index];
+			if (((currentGeneration - getGeneration(old)) & GENERATION_MASK) <= MAX_AGE)
+				continue;
+
+			final long entry = (old & ~((long) GENERATION_MASK << 51)) | (oldestGeneration << 51);
+			keys[index] ^= old ^ entry;
+			data[index] = entry;
+		}
+	}
+
+	/**
+	 * Looks up the specified key.
+	 *
+	 * @param key the Zobrist key of the position
+	 * @return the packed data of the entry, or {@link #MISS} if not stored
+	 */
+	public long probe(long key)
+	{
+		probes.increment();
+		final boolean isFlipped = Zobrist.isFlipped(key);
+		final long canonicalKey = isFlipped ? Zobrist.flip(key) : key;
+		final int bucket = (int) canonicalKey & mask;
+		for (int index = bucket; index < bucket + BUCKET_SIZE; index++)
+		{
+			final long entry = data[index];
+			if ((keys[index] ^ entry) == canonicalKey)
+			{
+				hits.increment();
+				final long orientedEntry = isFlipped ? flipValue(entry) : entry;
+				if (((entry & FLIPPED_CHILD_BIT) != 0) != isFlipped)
+					return (orientedEntry & ~FLIPPED_CHILD_BIT) | ((long) NO_CHILD << 42);
+				return orientedEntry & ~FLIPPED_CHILD_BIT;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the specified search result, unless its bucket holds a deeper search of the same position of the current generation.
+	 *
+	 * @param key       the Zobrist key of the position
+	 * @param value     the value from Black's point of view
+	 * @param depth     the depth of the search (0-255)
+	 * @param bound     the type of bound of the value
+	 * @param bestChild the index of the best child, or {@link #NO_CHILD}
+	 */
+	public void store(long key, double value, int depth, int bound, int bestChild)
+	{
+		final int currentGeneration = generation.get();
+		final boolean isFlipped = Zobrist.isFlipped(key);
+		final long canonicalKey = isFlipped ? Zobrist.flip(key) : key;
+		final int bucket = (int) canonicalKey & mask;
+
+		// The same position if stored, otherwise the least valuable slot
+		int victim = bucket;
+		int victimScore = Integer.MAX_VALUE;
+		for (int index = bucket; index < bucket + BUCKET_SIZE; index++)
+		{
+			final long old = data[index];
+			final int age = (currentGeneration - getGeneration(old)) & GENERATION_MASK;
+			if ((keys[index] ^ old) == canonicalKey)
+			{
+				if (age == 0 && getDepth(old) > depth)
+					return;
+				victim = index;
+				break;
+			}
+
+			// Stale entries score below any current one, and lower the older they are
+			final int score = age == 0 ? 256 + getDepth(old) : getDepth(old) - 4 * age;
+			if (score < victimScore)
+			{
+				victim = index;
+				victimScore = score;
+			}
+		}
+
+		final long entry = ((long) currentGeneration << 51) | ((long) (bestChild & 0xFF) << 42) | ((long) bound << 40) | ((long) (depth & 0xFF) << 32)
+				| (Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL);
+		data[victim] = isFlipped ? flipValue(entry) | FLIPPED_CHILD_BIT : entry;
+		keys[victim] = canonicalKey ^ data[victim];
+	}
+
+	/**
+	 * Converts packed data to the point of view of the colour-flipped position, by negating the value and swapping lower and upper bounds. Converting twice gives the original data.
+	 *
+	 * @param entry the packed data
+	 * @return the packed data of the colour-flipped position
+	 */
+	private static long flipValue(long entry)
+	{
+		final int bound = getBound(entry);
+		final int flippedBound = bound == LOWER ? UPPER : bound == UPPER ? LOWER : bound;
+		return ((entry & ~(0x3L << 40)) | ((long) flippedBound << 40)) ^ 0x80000000L;
+	}
+
+	/**
+	 * @param entry the packed data returned by {@link #probe(long)}
+	 * @return the value from Black's point of view
+	 */
+	public static double getValue(long entry)
+	{
+		return Float.intBitsToFloat((int) entry);
+	}
+
+	/**
+	 * @param entry the packed data returned by {@link #probe(long)}
+	 * @return the depth of the search
+	 */
+	public static int getDepth(long entry)
+	{
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	/**
+	 * @param entry the packed data returned by {@link #probe(long)}
+	 * @return the type of bound of the value
+	 */
+	public static int getBound(long entry)
+	{
+		return (int) (entry >>> 40) & 0x3;
+	}
+
+	/**
+	 * @param entry the packed data returned by {@link #probe(long)}
+	 * @return the generation the entry was stored in
+	 */
+	public static int getGeneration(long entry)
+	{
+		return (int) (entry >>> 51) & GENERATION_MASK;
+	}
+
+	/**
+	 * @param entry the packed data returned by {@link #probe(long)}
+	 * @return the index of the best child, or {@link #NO_CHILD}
+	 */
+	public static int getBestChild(long entry)
+	{
+		return (int) (entry >>> 42) & 0xFF;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, 0L);
+		Arrays.fill(data, 0L);
+	}
+
+	/**
+	 * @return the number of slots
+	 */
+	public int size()
+	{
+		return keys.length;
+	}
+
+	/**
+	 * @return the number of lookups since the table was created
+	 */
+	public long getProbes()
+	{
+		return probes.sum();
+	}
+
+	/**
+	 * @return the number of lookups that found their key since the table was created
+	 */
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * The <code>SharedHolder</code> class holds the process-wide table, so it is only allocated when first used.
+	 */
+	private static final class SharedHolder
+	{
+		/**
+		 * The process-wide table.
+		 */
+		static final TranspositionTable TABLE = new TranspositionTable(Constants.SHARED_TABLE_SIZE_BITS);
+	}
+}
@@ -0,0 +1,74 @@
+package improved;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The <code>Warmup</code> class runs short searches over a fixed set of positions, so the search code is compiled by the JIT before the agent searches the actual problem. The positions cover the
+ * opening, the middle game and king endgames, so jumps, crowning and king moves are all exercised.
+ *
+ * <p>
+ * The searches use the same path as <code>Agent</code>, so <code>AgentTimer</code> must be started with the problem beforehand. Their output is discarded.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see homework
+ * @see startup
+ */
+public final class Warmup
+{
+	/**
+	 * Don't let anyone instantiate this class.
+	 */
+	private Warmup()
+	{}
+
+	/**
+	 * The positions searched, as PDN <code>FEN</code> tags.
+	 */
+	public static final String[] POSITIONS = {
+			"B:W21-32:B1-12",
+			"W:W17,21,22,23,25,26,27,29,30,31:B1,2,3,6,7,9,10,11,14,15",
+			"B:WK3,18,22,K28:BK14,K19,7,11",
+			"W:W20,24,27,28,32,K5:B4,8,12,13,16,K26" };
+
+	/**
+	 * Searches the positions with increasing depths, cycling up to {@link Constants#WARMUP_MAX_DEPTH}, until the specified time has passed.
+	 *
+	 * @param seconds the time to spend, in seconds
+	 * @return the number of searches run
+	 */
+	public static int run(double seconds)
+	{
+		final long deadline = System.nanoTime() + (long) (seconds * Constants.SEC_TO_NANO);
+		final PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		int searches = 0;
+		try
+		{
+			while (true)
+			{
+				for (int depth = 1; depth <= Constants.WARMUP_MAX_DEPTH; depth++)
+				{
+					for (final String fen : POSITIONS)
+					{
+						if (System.nanoTime() - deadline >= 0)
+							return searches;
+
+						final StateBoard board = PdnGame.parseFen(fen);
+						if (Constants.USE_COPY_MAKE_SEARCH)
+							Minimax.searchCopyMake(board, board.isBlackTurn, depth);
+						else
+							Minimax.search(board, board.isBlackTurn, depth);
+						searches++;
+					}
+				}
+			}
+		}
+		finally
+		{
+			System.setOut(out);
+		}
+	}
+}
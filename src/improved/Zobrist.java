@@ -0,0 +1,150 @@
+package improved;
+
+import java.util.Random;
+
+/**
+ * The <code>Zobrist</code> class contains the random keys used to hash a board into a single <code>long</code>. A key is the XOR of one random value per set bit of each of the three bitboards,
+ * plus one value when it is Black's turn. Since XOR is its own inverse, a key can be updated incrementally from the bits that changed.
+ *
+ * <p>
+ * The keys are generated from a fixed seed, so the same board always has the same key across runs.
+ * </p>
+ *
+ * <p>
+ * The keys are also chosen so that the key of the colour-flipped board, rotated by 180 degrees with the colours and the turn swapped, follows from the key alone: a white piece on position
+ * <code>63 - i</code> has the key of a black piece on position <code>i</code> with its halves swapped, and likewise for kings, while the turn key is its own swapped halves. Swapping the halves of a
+ * key and toggling the turn key therefore gives the key of the flipped board, see {@link #flip(long)}. Since a board and its flipped board are the same game with the colours swapped, caches can
+ * store only the orientation of {@link #canonical(long)}.
+ * </p>
+ *
+ * @author Mohammad Alali
+ * @see StateBoard#getZobristKey()
+ */
+public final class Zobrist
+{
+	/**
+	 * Don't let anyone instantiate this class.
+	 */
+	private Zobrist()
+	{}
+
+	/**
+	 * The seed used to generate the keys.
+	 */
+	private static final long SEED = 0x5A0B12157L;
+
+	/**
+	 * The keys of a black piece on each position.
+	 */
+	public static final long[] BLACK_KEYS = new long[64];
+
+	/**
+	 * The keys of a white piece on each position.
+	 */
+	public static final long[] WHITE_KEYS = new long[64];
+
+	/**
+	 * The keys of a king piece on each position.
+	 */
+	public static final long[] KING_KEYS = new long[64];
+
+	/**
+	 * The key toggled when it is Black's turn.
+	 */
+	public static final long BLACK_TURN_KEY;
+
+	static
+	{
+		final Random random = new Random(SEED);
+		for (int i = 0; i < 64; i++)
+		{
+			BLACK_KEYS[i] = random.nextLong();
+			WHITE_KEYS[63 - i] = Long.rotateLeft(BLACK_KEYS[i], 32);
+		}
+		for (int i = 0; i < 32; i++)
+		{
+			KING_KEYS[i] = random.nextLong();
+			KING_KEYS[63 - i] = Long.rotateLeft(KING_KEYS[i], 32);
+		}
+		final long turnKey = random.nextLong();
+		BLACK_TURN_KEY = turnKey ^ Long.rotateLeft(turnKey, 32);
+	}
+
+	/**
+	 * Computes the key of the specified board from scratch.
+	 *
+	 * @param blacks      the bitboard of all black pieces
+	 * @param whites      the bitboard of all white pieces
+	 * @param kings       the bitboard of all king pieces
+	 * @param isBlackTurn the current player's turn
+	 * @return the key of the board
+	 */
+	public static long hash(long blacks, long whites, long kings, boolean isBlackTurn)
+	{
+		final long key = delta(blacks, whites, kings);
+		return isBlackTurn ? key ^ BLACK_TURN_KEY : key;
+	}
+
+	/**
+	 * Computes the XOR of the keys of the specified bits. Passing the XOR of the bitboards before and after a change returns the value to XOR into the key.
+	 *
+	 * @param blacks the black bits
+	 * @param whites the white bits
+	 * @param kings  the king bits
+	 * @return the XOR of the keys of all the bits
+	 */
+	public static long delta(long blacks, long whites, long kings)
+	{
+		long key = 0L;
+		while (blacks != 0L)
+		{
+			key ^= BLACK_KEYS[Long.numberOfTrailingZeros(blacks)];
+			blacks &= blacks - 1;
+		}
+		while (whites != 0L)
+		{
+			key ^= WHITE_KEYS[Long.numberOfTrailingZeros(whites)];
+			whites &= whites - 1;
+		}
+		while (kings != 0L)
+		{
+			key ^= KING_KEYS[Long.numberOfTrailingZeros(kings)];
+			kings &= kings - 1;
+		}
+		return key;
+	}
+
+	/**
+	 * Computes the key of the colour-flipped board from the key of a board, without the board. The flipped board is rotated by 180 degrees, with the colours and the turn swapped.
+	 *
+	 * @param key the key of a board
+	 * @return the key of the colour-flipped board
+	 * @see StateBoard#flipColors()
+	 */
+	public static long flip(long key)
+	{
+		return Long.rotateLeft(key, 32) ^ BLACK_TURN_KEY;
+	}
+
+	/**
+	 * Computes the canonical key of a board, the lesser of its key and the key of its colour-flipped board. A board and its colour-flipped board have the same canonical key.
+	 *
+	 * @param key the key of a board
+	 * @return the canonical key
+	 */
+	public static long canonical(long key)
+	{
+		return Math.min(key, flip(key));
+	}
+
+	/**
+	 * Determines whether a board is stored flipped under its {@link #canonical(long)} key, in which case the values it stores must be seen from the other colour.
+	 *
+	 * @param key the key of a board
+	 * @return true if the canonical key is the key of the colour-flipped board
+	 */
+	public static boolean isFlipped(long key)
+	{
+		return flip(key) < key;
+	}
+}
@@ -0,0 +1,27 @@
+package improved;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+public final class batch
+{
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: batch <directory> [threads]");
+			System.out.println("Solves every input.txt under the directory, writing output.txt next to it and comparing it with solution.txt if present.");
+			return;
+		}
+
+		final List<Path> inputs = BatchSolver.findCases(Paths.get(args[0]));
+		final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		// Read once for all cases, as the agent does for every move
+		CalibrationData.readFromFile();
+		EvaluationWeights.readFromFile();
+
+		final boolean isPassed = new BatchSolver(threads).run(inputs);
+		System.exit(isPassed ? 0 : 1);
+	}
+}
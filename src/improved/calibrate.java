@@ -1,25 +1,38 @@
 package improved;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 public class calibrate
 {
 	public static void main(String[] args)
 	{
+		final int positions = args.length > 0 ? Integer.parseInt(args[0]) : Constants.CALIBRATION_POSITIONS;
+		final int trials = args.length > 1 ? Integer.parseInt(args[1]) : Constants.CALIBRATION_TRIALS;
+		final int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : Constants.CRUNCH_MAX_DEPTH;
+
 		try
 		{
-			final double[] solvingTime = measureSolve();
+			// The same suite on every run, so calibrations of different machines are comparable
+			final List<List<Position>> suite = samplePositions(positions, new Random(0));
 
-			// Format measurements
-			final StringBuilder builder = new StringBuilder();
-			builder.append(solvingTime.length);
-			for (int i = 0; i < solvingTime.length; i++)
-				builder.append(" ").append(solvingTime[i]);
+			final int[] samples = new int[CalibrationData.PHASES];
+			final double[][] means = new double[CalibrationData.PHASES][maxDepth + 1];
+			final double[][] variances = new double[CalibrationData.PHASES][maxDepth + 1];
+			measureSolve(suite, trials, samples, means, variances);
 
 			// Write measurements to calibration file
-			try (final FileWriter writer = new FileWriter(Constants.FILENAME_CALIBRATION))
+			CalibrationData.writeToFile(samples, means, variances);
+
+			for (int phase = 0; phase < CalibrationData.PHASES; phase++)
 			{
-				writer.write(builder.toString());
+				System.out.printf("Phase %d (%s pieces, %s): %d samples%n", phase, getPiecesText(phase), phase % 2 == 0 ? "no kings" : "kings", samples[phase]);
+				for (int depth = 0; depth <= maxDepth && samples[phase] > 0; depth++)
+					System.out.printf("  depth %2d: %10.3f ms +- %.3f ms%n", depth, means[phase][depth] * 1e3, Math.sqrt(variances[phase][depth]) * 1e3);
 			}
 		}
 		catch (final Exception e)
@@ -27,55 +40,108 @@ public class calibrate
 			// In case any errors occured, remove the calibration file incase it causes errors in homework.java
 			new File(Constants.FILENAME_CALIBRATION).delete();
 		}
-		finally
+	}
+
+	private static String getPiecesText(int phase)
+	{
+		switch (phase / 2)
 		{
-			// Delete the temporary files used to measure file I/O
-			new File(Constants.FILENAME_CALIBRATION_TEMP_INPUT).delete();
+			case 0:
+				return "17-24";
+			case 1:
+				return "9-16";
+			default:
+				return "2-8";
 		}
 	}
 
-	private static void writeCalibrationInputFile() throws Exception
+	// Plays random games from the initial position, sampling some of their positions until every phase has enough of them
+	private static List<List<Position>> samplePositions(int count, Random random)
 	{
-		final StringBuilder builder = new StringBuilder();
-		builder.append("GAME\n");
-		builder.append("BLACK").append("\n");
-		builder.append("60.0\n");
-		builder.append(".b.b.b.b\n");
-		builder.append("b.b.b.b.\n");
-		builder.append(".b.b.b.b\n");
-		builder.append("........\n");
-		builder.append("........\n");
-		builder.append("w.w.w.w.\n");
-		builder.append(".w.w.w.w\n");
-		builder.append("w.w.w.w.");
-		try (final FileWriter writer = new FileWriter(Constants.FILENAME_CALIBRATION_TEMP_INPUT))
+		final List<List<Position>> suite = new ArrayList<>();
+		for (int phase = 0; phase < CalibrationData.PHASES; phase++)
+			suite.add(new ArrayList<>());
+
+		for (int game = 0; game < Constants.CALIBRATION_MAX_GAMES && !isFull(suite, count); game++)
 		{
-			writer.write(builder.toString());
+			Position position = Position.of(StateBoard.initial());
+			while (position.getGameState() == GameState.Ongoing)
+			{
+				// Only some positions of a game, so a phase is not filled by consecutive positions of the same game
+				final List<Position> positions = suite.get(CalibrationData.getPhase(position.blacks, position.whites, position.kings));
+				if (positions.size() < count && random.nextInt(8) == 0)
+					positions.add(position);
+
+				final List<Position> children = position.children();
+				position = children.get(random.nextInt(children.size()));
+			}
 		}
+		return suite;
+	}
+
+	private static boolean isFull(List<List<Position>> suite, int count)
+	{
+		for (final List<Position> positions : suite)
+			if (positions.size() < count)
+				return false;
+		return true;
 	}
 
-	private static double[] measureSolve() throws Exception
+	// Measures the time of an iterative deepening of every position, keeping a running mean and variance of every phase and depth
+	private static void measureSolve(List<List<Position>> suite, int trials, int[] samples, double[][] means, double[][] variances) throws Exception
 	{
-		writeCalibrationInputFile();
-		final double[] result = new double[Constants.MAX_DEPTH + 1];
+		// A problem with plenty of time, so the cutoff test never stops a search early
+		final String input = "GAME\nBLACK\n1000.0\n" + "........\n".repeat(8);
+		final Problem problem = new Problem(input.getBytes(StandardCharsets.US_ASCII));
+		AgentTimer.start();
+		AgentTimer.setProblem(problem);
 
-		Problem problem = new Problem(Constants.FILENAME_CALIBRATION_TEMP_INPUT);
+		// Compile the search first, otherwise the first phase measured takes the interpreter's time as outliers
+		Warmup.run(Constants.WARMUP_TIME);
 
-		for (int depth = 0; depth < result.length; depth++)
+		final PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try
 		{
-			AgentTimer.start();
-			AgentTimer.setProblem(problem);
+			for (int phase = 0; phase < suite.size(); phase++)
+			{
+				for (final Position position : suite.get(phase))
+				{
+					for (int trial = 0; trial < trials; trial++)
+					{
+						final int n = ++samples[phase];
+						double time = 0;
+						for (int depth = 0; depth < means[phase].length; depth++)
+						{
+							AgentTimer.start();
+							AgentTimer.setProblem(problem);
 
-			final long startTime = System.nanoTime();
-			Minimax.search(problem.board, problem.board.isBlackTurn, depth);
-			final long endTime = System.nanoTime();
-			result[depth] += (endTime - startTime) * Constants.NANO_TO_SEC;
-		}
+							final StateBoard board = position.toStateBoard();
+							final long startTime = System.nanoTime();
+							if (Constants.USE_COPY_MAKE_SEARCH)
+								Minimax.searchCopyMake(board, board.isBlackTurn, depth);
+							else
+								Minimax.search(board, board.isBlackTurn, depth);
+							final long endTime = System.nanoTime();
+
+							// To simulate iterative deepening
+							time += (endTime - startTime) * Constants.NANO_TO_SEC;
 
-		// To simulate iterative deepening
-		for (int i = 1; i < result.length; i++)
-			result[i] += result[i - 1];
+							// Welford's update, the variance holds the sum of squared differences until the end
+							final double delta = time - means[phase][depth];
+							means[phase][depth] += delta / n;
+							variances[phase][depth] += delta * (time - means[phase][depth]);
+						}
+					}
+				}
 
-		return result;
+				for (int depth = 0; depth < means[phase].length && samples[phase] > 1; depth++)
+					variances[phase][depth] /= samples[phase] - 1;
+			}
+		}
+		finally
+		{
+			System.setOut(out);
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package improved;
+import java.io.File;
+
+public final class generate
+{
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 2)
+		{
+			System.out.println("Usage: generate <dataset> <positions> [depth] [moveTime] [threads] [selfplay|random] [seed]");
+			return;
+		}
+
+		final File output = new File(args[0]);
+		final long positions = Long.parseLong(args[1]);
+		final int depth = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+		final double moveTime = args.length > 3 ? Double.parseDouble(args[3]) : 1;
+		final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		final boolean isRandomStart = args.length > 5 && args[5].equals("random");
+		final long seed = args.length > 6 ? Long.parseLong(args[6]) : System.nanoTime();
+
+		final long startTime = System.nanoTime();
+		new DatasetGenerator(depth, moveTime, threads, isRandomStart, seed).run(output, positions);
+		System.out.println("Wrote " + output.length() / DatasetWriter.RECORD_SIZE + " positions in " + (System.nanoTime() - startTime) * Constants.NANO_TO_SEC + " s");
+	}
+}
@@ -12,6 +12,10 @@ public final class homework
 		final Problem problem = new Problem(Constants.FILENAME_INPUT);
 		AgentTimer.setProblem(problem);
 
+		// Optionally compile the search before it is needed, when launched with a class-data-sharing archive
+		if (args.length > 0 && args[0].equals("warmup"))
+			Warmup.run(Constants.WARMUP_TIME);
+
 		// Solve problem
 		final String output = Agent.solve(problem);
 
@@ -0,0 +1,65 @@
+package improved;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+
+public final class hub
+{
+	public static void main(String[] args) throws Exception
+	{
+		// Without a port, a single engine serves standard input and output
+		if (args.length == 0)
+		{
+			final BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+			final PrintWriter output = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+			new HubEngine(input, output).run();
+			return;
+		}
+
+		// Otherwise every connection on the loopback port gets its own engine and thread, all on the shared table, up to a max number of connections at once
+		final Semaphore slots = new Semaphore(Constants.HUB_MAX_CONNECTIONS);
+		try (final ServerSocket server = new ServerSocket(Integer.parseInt(args[0]), 50, InetAddress.getLoopbackAddress()))
+		{
+			System.out.println("Hub engines listening on " + server.getLocalSocketAddress());
+			int connections = 0;
+			while (true)
+			{
+				slots.acquire();
+				final Socket socket = server.accept();
+				final Thread thread = new Thread(() ->
+				{
+					try
+					{
+						serve(socket);
+					}
+					finally
+					{
+						slots.release();
+					}
+				}, "Hub connection " + ++connections);
+				thread.setDaemon(true);
+				thread.start();
+			}
+		}
+	}
+
+	private static void serve(Socket socket)
+	{
+		try (socket)
+		{
+			final BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			final PrintWriter output = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+			new HubEngine(input, output, true).run();
+		}
+		catch (final Exception e)
+		{
+			// The connection was closed by the other side
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package improved;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Random;
+
+public final class pdn
+{
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 3)
+		{
+			System.out.println("Usage: pdn dataset <archive.pdn> <dataset.bin>");
+			System.out.println("       pdn copy <archive.pdn> <output.pdn>");
+			System.out.println("       pdn selfplay <output.pdn> <games> [depth]");
+			return;
+		}
+
+		final long startTime = System.nanoTime();
+		long games = 0;
+		long moves = 0;
+		long skipped = 0;
+
+		switch (args[0])
+		{
+			case "dataset":
+			{
+				// Every position before a move is written with the result of its game, without a search score
+				try (final PdnReader reader = new PdnReader(new File(args[1])); final DatasetWriter writer = new DatasetWriter(new File(args[2])))
+				{
+					PdnGame game;
+					for (long index = 1; (game = reader.next()) != null; index++)
+					{
+						final double result = game.getResult();
+						if (Double.isNaN(result))
+							continue;
+
+						// A game is only written once all of its moves replayed, so a bad game leaves nothing behind
+						final byte resultByte = result > 0.5 ? DatasetWriter.RESULT_WIN : result < 0.5 ? DatasetWriter.RESULT_LOSS : DatasetWriter.RESULT_DRAW;
+						final ByteBuffer records = ByteBuffer.allocate(game.moves.size() * DatasetWriter.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+						try
+						{
+							game.replay((board, action) -> DatasetWriter.encode(records, board.blacks, board.whites, board.kings, board.isBlackTurn, board.plysSinceLastCrownOrCapture, Float.NaN, resultByte));
+						}
+						catch (final IllegalArgumentException e)
+						{
+							skip(index, e);
+							skipped++;
+							continue;
+						}
+						writer.write(records.flip());
+						games++;
+						moves += game.moves.size();
+					}
+				}
+				break;
+			}
+			case "copy":
+			{
+				// Replaying validates every move, and the copy lists every landing square of every jump
+				try (final PdnReader reader = new PdnReader(new File(args[1])); final PdnWriter writer = new PdnWriter(new File(args[2])))
+				{
+					PdnGame game;
+					for (long index = 1; (game = reader.next()) != null; index++)
+					{
+						final PdnGame copy = new PdnGame();
+						copy.tags.putAll(game.tags);
+						copy.result = game.result;
+						try
+						{
+							game.replay((board, action) -> copy.moves.add(PdnGame.toPdn(action)));
+						}
+						catch (final IllegalArgumentException e)
+						{
+							skip(index, e);
+							skipped++;
+							continue;
+						}
+						writer.write(copy);
+						games++;
+						moves += copy.moves.size();
+					}
+				}
+				break;
+			}
+			case "selfplay":
+			{
+				final int count = Integer.parseInt(args[2]);
+				final int depth = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+				final TournamentEngine engine = new TournamentEngine("selfplay", depth, 1);
+				final Random random = new Random();
+				try (final PdnWriter writer = new PdnWriter(new File(args[1])))
+				{
+					for (int i = 0; i < count; i++)
+					{
+						final PdnGame game = new PdnGame();
+						game.tags.put("Event", "Self-play");
+						game.tags.put("Black", engine.toString());
+						game.tags.put("White", engine.toString());
+
+						final Position opening = Tournament.randomOpening(random, Constants.DATASET_OPENING_PLIES);
+						game.tags.put("FEN", PdnGame.toFen(opening.blacks, opening.whites, opening.kings, opening.isBlackTurn));
+
+						final StateBoard board = opening.toStateBoard();
+						GameState gameState;
+						while ((gameState = board.getGameState()) == GameState.Ongoing)
+						{
+							final Action action = findAction(board, engine.play(Position.of(board)));
+							game.moves.add(PdnGame.toPdn(action));
+							board.executeAction(action);
+						}
+
+						game.result = gameState == GameState.BlackWin ? "1-0" : gameState == GameState.WhiteWin ? "0-1" : "1/2-1/2";
+						writer.write(game);
+						games++;
+						moves += game.moves.size();
+					}
+				}
+				break;
+			}
+			default:
+				System.out.println("Unknown command " + args[0]);
+				return;
+		}
+
+		final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+		System.out.printf("%d games, %d moves in %.3f s (%.0f moves/min)%n", games, moves, elapsed, moves / elapsed * 60);
+		if (skipped > 0)
+			System.out.println(skipped + " games skipped");
+	}
+
+	private static void skip(long index, IllegalArgumentException e)
+	{
+		System.err.println("Skipped game " + index + ": " + e.getMessage());
+	}
+
+	private static Action findAction(StateBoard board, Position child)
+	{
+		final Position position = Position.of(board);
+		final List<? extends Action> actions = board.getJumpActions().isEmpty() ? board.getMoveActions() : board.getJumpActions();
+		for (final Action action : actions)
+		{
+			final Position candidate = position.play(action);
+			if (candidate.blacks == child.blacks && candidate.whites == child.whites && candidate.kings == child.kings)
+				return action;
+		}
+		throw new IllegalStateException("No action leads to\n" + child);
+	}
+}
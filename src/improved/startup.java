@@ -0,0 +1,93 @@
+package improved;
+import java.io.FileReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Scanner;
+
+public final class startup
+{
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 2)
+		{
+			System.out.println("Usage: startup <input> <bytes|scanner> [iterations]");
+			System.out.println("       startup <input> search [warmup]");
+			System.out.println("Run each mode in a fresh JVM to compare their cold start, class loading included.");
+			return;
+		}
+
+		if (args[1].equals("search"))
+		{
+			measureSearch(args[0], args.length > 2 && args[2].equals("warmup"));
+			return;
+		}
+
+		final String filename = args[0];
+		final boolean isScanner = args[1].equals("scanner");
+		final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+		// The first parse pays for loading and interpreting the parser, as it does inside the agent's timed window
+		long startTime = System.nanoTime();
+		StateBoard board = isScanner ? parseWithScanner(filename) : new Problem(filename).board;
+		final double coldTime = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+
+		startTime = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+			board = isScanner ? parseWithScanner(filename) : new Problem(filename).board;
+		final double warmTime = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC / iterations;
+
+		System.out.println(args[1] + ": cold " + coldTime * 1e3 + " ms, warm " + warmTime * 1e6 + " us per parse (" + Long.bitCount(board.blacks | board.whites) + " pieces)");
+	}
+
+	// Times each depth of the agent's iterative deepening from the start of the JVM, the way homework runs it
+	private static void measureSearch(String filename, boolean isWarmup) throws Exception
+	{
+		AgentTimer.start();
+		final Problem problem = new Problem(filename);
+		AgentTimer.setProblem(problem);
+
+		final long warmupStartTime = System.currentTimeMillis();
+		final int searches = isWarmup ? Warmup.run(Constants.WARMUP_TIME) : 0;
+		final long warmupEndTime = System.currentTimeMillis();
+
+		final PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		final long[] depthTimes = new long[Constants.MAX_DEPTH + 1];
+		for (int depth = 0; depth <= Constants.MAX_DEPTH; depth++)
+		{
+			Minimax.search(problem.board, problem.board.isBlackTurn, depth);
+			depthTimes[depth] = System.currentTimeMillis();
+		}
+		System.setOut(out);
+
+		// Read last, so the management classes are not loaded before the search
+		final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+		if (isWarmup)
+			System.out.println("Warm-up: " + searches + " searches from " + (warmupStartTime - jvmStartTime) + " ms to " + (warmupEndTime - jvmStartTime) + " ms");
+		for (int depth = 0; depth <= Constants.MAX_DEPTH; depth++)
+			System.out.println("Depth " + depth + " done at " + (depthTimes[depth] - jvmStartTime) + " ms");
+	}
+
+	// The parser Problem used before it read bytes directly, kept as the baseline
+	private static StateBoard parseWithScanner(String filename) throws Exception
+	{
+		try (final Scanner scanner = new Scanner(new FileReader(filename)))
+		{
+			final StateBoard board = new StateBoard();
+
+			AgentType.parse(scanner.nextLine());
+			board.isBlackTurn = scanner.nextLine().equals("BLACK");
+			scanner.nextFloat();
+			scanner.nextLine(); // Move to next line
+
+			for (int row = 0; row < 8; row++)
+			{
+				final String line = scanner.nextLine();
+				for (int column = 0; column < 8; column++)
+					Problem.placePiece(board, line.charAt(column), 1L << (row * 8 + column));
+			}
+			return board;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package improved;
+
+public final class tournament
+{
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 2)
+		{
+			System.out.println("Usage: tournament <name:depth:moveTime[:table]> <name:depth:moveTime[:table]> [maxGames] [threads] [seed]");
+			System.out.println("The table is none (default), private (one per worker thread) or shared (one for the whole process).");
+			return;
+		}
+
+		final TournamentEngine first = TournamentEngine.parse(args[0]);
+		final TournamentEngine second = TournamentEngine.parse(args[1]);
+		final int maxGames = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+		final int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		final long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+		System.out.println(first + " vs " + second + ", " + threads + " threads, seed = " + seed);
+		final Tournament tournament = new Tournament(first, second, threads, seed);
+		final long startTime = System.nanoTime();
+		final MatchStatistics statistics = tournament.run(maxGames, Constants.TOURNAMENT_OPENING_PLIES, Constants.SPRT_ELO0, Constants.SPRT_ELO1, Constants.SPRT_ALPHA, Constants.SPRT_BETA);
+		final double elapsed = (System.nanoTime() - startTime) * Constants.NANO_TO_SEC;
+		System.out.println(statistics);
+		System.out.printf("%.1f s, %.2f games/s, %.0f nodes/s, %d enhanced transposition cutoffs%n", elapsed, statistics.getGames() / elapsed, Minimax.getNodeCount() / elapsed, Minimax.getEtcCutoffCount());
+
+		// A shared table is reported once, its statistics include both engines
+		final String firstTable = first.getTableStatistics();
+		final String secondTable = second.getTableStatistics();
+		if (firstTable != null)
+			System.out.println(firstTable);
+		if (secondTable != null && !(first.table == TournamentEngine.Table.Shared && second.table == TournamentEngine.Table.Shared))
+			System.out.println(secondTable);
+	}
+}
@@ -0,0 +1,13 @@
+package improved;
+
+public final class trace
+{
+	public static void main(String[] args) throws Exception
+	{
+		// Summarizes a trace written by the agent with Constants.TRACE_SEARCH set
+		final String filename = args.length > 0 ? args[0] : Constants.FILENAME_TRACE;
+		final int largest = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		new SearchTraceReader(filename).printSummary(System.out, largest);
+	}
+}
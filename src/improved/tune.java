@@ -0,0 +1,35 @@
+package improved;
+import java.io.File;
+
+public final class tune
+{
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 1)
+		{
+			System.out.println("Usage: tune <dataset> [weights]");
+			return;
+		}
+
+		final File output = new File(args.length > 1 ? args[1] : Constants.FILENAME_WEIGHTS);
+
+		long startTime = System.nanoTime();
+		final File dataset = new File(args[0]);
+		final TexelTuner tuner = dataset.getName().endsWith(".bin") ? TexelTuner.loadBinary(dataset) : TexelTuner.load(dataset);
+		System.out.println("Loaded " + tuner.size() + " positions in " + (System.nanoTime() - startTime) * Constants.NANO_TO_SEC + " s");
+
+		// Fit the sigmoid to the current weights first, so the tuned weights keep their magnitude
+		final double[] weights = EvaluationWeights.toArray();
+		tuner.fitScale(weights, 10);
+		System.out.println("Scale = " + tuner.getScale() + ", loss = " + tuner.loss(weights));
+
+		startTime = System.nanoTime();
+		final double[] tuned = tuner.tune(weights, Constants.TUNE_ITERATIONS, Constants.TUNE_LEARNING_RATE);
+		System.out.println("Tuned in " + (System.nanoTime() - startTime) * Constants.NANO_TO_SEC + " s, loss = " + tuner.loss(tuned));
+
+		EvaluationWeights.fromArray(tuned);
+		EvaluationWeights.writeToFile(output);
+		for (int i = 0; i < tuned.length; i++)
+			System.out.println(EvaluationWeights.NAMES[i] + " = " + tuned[i]);
+	}
+}